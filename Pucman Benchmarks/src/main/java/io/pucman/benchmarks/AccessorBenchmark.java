@@ -0,0 +1,83 @@
+package io.pucman.benchmarks;
+
+import io.pucman.common.reflect.ReflectUtil;
+import io.pucman.common.reflect.accessors.ConstructorAccessor;
+import io.pucman.common.reflect.accessors.FieldAccessor;
+import io.pucman.common.reflect.accessors.MethodAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of invoking members through accessors, next to the direct call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccessorBenchmark
+{
+    private final Target target = new Target();
+    private final FieldAccessor<Integer> field = ReflectUtil.getField(Target.class, "value", ReflectUtil.Type.DECLARED);
+    private final MethodAccessor<Integer> method = ReflectUtil.getMethod(Target.class, "add", ReflectUtil.Type.DECLARED, int.class, int.class);
+    private final ConstructorAccessor<Target> constructor = ReflectUtil.getConstructor(Target.class, ReflectUtil.Type.DECLARED, int.class);
+    private int counter;
+
+    @Benchmark
+    public int directGet()
+    {
+        return target.getValue();
+    }
+
+    @Benchmark
+    public Integer fieldGet()
+    {
+        return field.get(target);
+    }
+
+    @Benchmark
+    public int fieldGetInt()
+    {
+        return field.getInt(target);
+    }
+
+    @Benchmark
+    public void fieldSet()
+    {
+        field.set(target, counter++);
+    }
+
+    @Benchmark
+    public void fieldSetInt()
+    {
+        field.setInt(target, counter++);
+    }
+
+    @Benchmark
+    public Integer methodCall()
+    {
+        return method.call(target, 1, 2);
+    }
+
+    @Benchmark
+    public Integer methodCall2()
+    {
+        return method.call2(target, 1, 2);
+    }
+
+    @Benchmark
+    public Target constructorCall()
+    {
+        return constructor.call1(counter);
+    }
+}
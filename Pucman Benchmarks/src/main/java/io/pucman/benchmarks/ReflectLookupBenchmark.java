@@ -0,0 +1,66 @@
+package io.pucman.benchmarks;
+
+import io.pucman.common.reflect.MemberKey;
+import io.pucman.common.reflect.ReflectCacheLoader;
+import io.pucman.common.reflect.ReflectUtil;
+import io.pucman.common.reflect.accessors.FieldAccessor;
+import io.pucman.common.reflect.accessors.MethodAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of looking up members through ReflectUtil. A hit is a lookup of a
+ * member that is already cached, a miss resolves the member and makes its
+ * accessor like the first lookup of a member does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReflectLookupBenchmark
+{
+    private final ReflectCacheLoader loader = new ReflectCacheLoader();
+    private final MemberKey fieldKey = MemberKey.of(MemberKey.Kind.FIELD, Target.class, "value", ReflectUtil.Type.DECLARED);
+    private final MemberKey methodKey = MemberKey.of(MemberKey.Kind.METHOD, Target.class, "add", ReflectUtil.Type.DECLARED, int.class, int.class);
+
+    @Benchmark
+    public FieldAccessor<Integer> fieldHit()
+    {
+        return ReflectUtil.getField(Target.class, "value", ReflectUtil.Type.DECLARED);
+    }
+
+    @Benchmark
+    public MethodAccessor<Integer> methodHit()
+    {
+        return ReflectUtil.getMethod(Target.class, "add", ReflectUtil.Type.DECLARED, int.class, int.class);
+    }
+
+    @Benchmark
+    public FieldAccessor<Integer> hierarchyHit()
+    {
+        return ReflectUtil.getField(Target.class, "name", ReflectUtil.Type.HIERARCHY);
+    }
+
+    @Benchmark
+    public Object fieldMiss()
+    {
+        return loader.load(fieldKey);
+    }
+
+    @Benchmark
+    public Object methodMiss()
+    {
+        return loader.load(methodKey);
+    }
+}
@@ -0,0 +1,40 @@
+package io.pucman.benchmarks;
+
+/**
+ * Class the reflection benchmarks run against.
+ */
+class Target extends Named
+{
+    private int value = 42;
+
+    Target()
+    {
+        super("target");
+    }
+
+    Target(int value)
+    {
+        super("target");
+        this.value = value;
+    }
+
+    private int add(int first, int second)
+    {
+        return first + second;
+    }
+
+    int getValue()
+    {
+        return value;
+    }
+}
+
+class Named
+{
+    private String name;
+
+    Named(String name)
+    {
+        this.name = name;
+    }
+}
@@ -0,0 +1,144 @@
+package io.pucman.benchmarks;
+
+import io.pucman.common.generic.ConversionRegistry;
+import io.pucman.common.generic.GenericUtil;
+import io.pucman.common.math.NumberUtil;
+import io.pucman.common.time.TimeUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the number, cast, conversion and time utilities used by commands and configs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UtilBenchmark
+{
+    private String number = "1234";
+    private String decimal = "12.34";
+    private String garbage = "12a4";
+    private Object string = "value";
+    private Object boxed = 20;
+    private Object list = Arrays.asList(1, 2, 3, 4);
+    private long time = 93784005L;
+    private String duration = "1d2h3m4s5ms";
+    private final StringBuilder builder = new StringBuilder(64);
+
+    @Benchmark
+    public Integer parseInt()
+    {
+        return NumberUtil.parse(number, int.class);
+    }
+
+    @Benchmark
+    public Double parseDouble()
+    {
+        return NumberUtil.parse(decimal, double.class);
+    }
+
+    @Benchmark
+    public int tryParseInt()
+    {
+        return NumberUtil.tryParseInt(number, -1);
+    }
+
+    @Benchmark
+    public int tryParseGarbage()
+    {
+        return NumberUtil.tryParseInt(garbage, -1);
+    }
+
+    @Benchmark
+    public double tryParseDouble()
+    {
+        return NumberUtil.tryParseDouble(decimal, -1);
+    }
+
+    @Benchmark
+    public boolean parseable()
+    {
+        return NumberUtil.parseable(number, long.class);
+    }
+
+    @Benchmark
+    public String cast()
+    {
+        return GenericUtil.cast(string);
+    }
+
+    @Benchmark
+    public String castToClass()
+    {
+        return GenericUtil.cast(string, String.class);
+    }
+
+    @Benchmark
+    public boolean castable()
+    {
+        return GenericUtil.castable(string, String.class);
+    }
+
+    @Benchmark
+    public Object convertNumber()
+    {
+        return ConversionRegistry.getDefault().convert(boxed, long.class);
+    }
+
+    @Benchmark
+    public Object convertEnum()
+    {
+        return ConversionRegistry.getDefault().convert("SECONDS", TimeUnit.class);
+    }
+
+    @Benchmark
+    public Object convertArray()
+    {
+        return ConversionRegistry.getDefault().convert(list, int[].class);
+    }
+
+    @Benchmark
+    public String metricDate()
+    {
+        return TimeUtil.millisecondsToMetricDate(time);
+    }
+
+    @Benchmark
+    public String timeUnits()
+    {
+        return TimeUtil.millisecondsToTimeUnits(TimeUnit.MILLISECONDS, time, false);
+    }
+
+    @Benchmark
+    public String timeUnitsShort()
+    {
+        return TimeUtil.millisecondsToTimeUnits(TimeUnit.MILLISECONDS, time, true);
+    }
+
+    @Benchmark
+    public StringBuilder appendDuration()
+    {
+        builder.setLength(0);
+        TimeUtil.appendDuration(builder, time, TimeUtil.Style.SHORT);
+        return builder;
+    }
+
+    @Benchmark
+    public long parseDuration()
+    {
+        return TimeUtil.tryParseDuration(duration, -1);
+    }
+}
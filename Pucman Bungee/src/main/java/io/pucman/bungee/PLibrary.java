@@ -5,10 +5,12 @@ import io.pucman.bungee.def.DebugCommand;
 import io.pucman.bungee.file.BaseFile;
 import io.pucman.bungee.manager.ManagingPlugin;
 import io.pucman.bungee.module.ModuleManager;
+import io.pucman.common.exception.TryUtil;
 import lombok.Getter;
 import net.md_5.bungee.api.plugin.PluginManager;
 import net.md_5.bungee.config.YamlConfiguration;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -36,12 +38,17 @@ public class PLibrary extends ManagingPlugin
     public void onEnable()
     {
         this.enableManagers();
+
+        if (debug.get()) {
+            this.debug(this, this.getProfiler().report());
+        }
     }
 
     @Override
     public void onDisable()
     {
         this.disableManagers();
+        TryUtil.sneaky(() -> this.getProfiler().write(new File(this.getDataFolder(), "timeline.json").toPath()));
     }
 
     public static PLibrary get()
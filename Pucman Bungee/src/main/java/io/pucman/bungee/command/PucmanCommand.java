@@ -269,12 +269,8 @@ public abstract class PucmanCommand<T, T1 extends ManagingPlugin> extends Comman
 
             Multimap<Integer, TextComponent> pages = Format.paginate(content, new TextComponent(HELP_LIST_CURRENT_COMMAND_HEADER.replace("{currentcommangusage}", getCommandUsage())), new TextComponent(HELP_LIST_CHILD_COMMANDS_HEADER), 10);
 
-            if (arguments.length == 2 && NumberUtil.parseable(arguments[1], Integer.class)) {
-                int page = NumberUtil.parse(arguments[1], Integer.class);
-                sender.sendMessage(pages.get(page).toArray(new TextComponent[pages.get(page).size()]));
-            } else {
-                sender.sendMessage(pages.get(1).toArray(new TextComponent[pages.get(1).size()]));
-            }
+            int page = arguments.length == 2 ? NumberUtil.tryParseInt(arguments[1], 1, pages.keySet().size(), 1) : 1;
+            sender.sendMessage(pages.get(page).toArray(new TextComponent[pages.get(page).size()]));
 
             return;
         }
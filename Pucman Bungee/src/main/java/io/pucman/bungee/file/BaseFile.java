@@ -6,9 +6,15 @@ import io.pucman.bungee.file.provider.JsonProvider;
 import io.pucman.bungee.locale.Format;
 import io.pucman.common.exception.DeveloperException;
 import io.pucman.common.exception.TryUtil;
+import io.pucman.common.generic.ConversionRegistry;
+import io.pucman.common.generic.Converter;
 import io.pucman.common.generic.GenericUtil;
+import io.pucman.common.reflect.MemberIndex;
+import io.pucman.common.reflect.ReflectUtil;
+import io.pucman.common.reflect.accessors.FieldAccessor;
 import lombok.Getter;
 import lombok.SneakyThrows;
+import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.plugin.Plugin;
 import net.md_5.bungee.config.Configuration;
@@ -20,10 +26,8 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.LinkedList;
-import java.util.List;
 
 /**
  * Wrapper for managing files,
@@ -40,6 +44,13 @@ public class BaseFile
     private Class<? extends ConfigurationProvider> provider;
     private LinkedList<ReplacementEntry> replacementEntries = Lists.newLinkedList();
 
+    /**
+     * Converts the values of the config into the types of the fields they populate.
+     */
+    private static final ConversionRegistry CONVERTERS = ConversionRegistry.withDefaults()
+            .register(String.class, TextComponent.class, value -> new TextComponent(TextComponent.fromLegacyText(value)))
+            .register(String.class, BaseComponent[].class, TextComponent::fromLegacyText);
+
     public BaseFile(Plugin instance, String name, File parent, Class<? extends ConfigurationProvider> provider)
     {
         this.instance = instance;
@@ -96,68 +107,53 @@ public class BaseFile
      * Populates fields within the class with the value corresponding to the key set in the ConfigPopulate annotation.
      * @param instance - the instance of the class.
      */
-    @SneakyThrows
-    public  <V> void populate(V instance)
+    public <V> void populate(V instance)
     {
-        Class clazz = instance.getClass();
+        Class<?> clazz = instance.getClass();
         lib.debug(this, "Attempting to populate class " + clazz.getName() + ".");
 
-        List<Field> fieldList = Lists.newArrayList(clazz.getDeclaredFields());
-        fieldList.addAll(Arrays.asList(clazz.getFields()));
-
-        for (Field f : fieldList) {
+        for (FieldAccessor<Object> f : MemberIndex.of(clazz).getFields(ConfigPopulate.class)) {
             lib.debug(this, "Iteration landed at " + f.getName() + ".");
-            if (!f.isAnnotationPresent(ConfigPopulate.class)) {
-                lib.debug(this, f.getName() + " does not have the correct annotation.");
-                continue;
-            }
 
-            Class type = f.getType();
+            Class<?> type = f.getType();
+            ConfigPopulate annotation = (ConfigPopulate) f.getAnnotation(ConfigPopulate.class, ReflectUtil.Type.PUBLIC);
 
-            lib.debug(this, f.getName() + " does have the correct annotation.");
-
-            ConfigPopulate annotation = f.getAnnotation(ConfigPopulate.class);
-
-            String value = getConfiguration().getString(annotation.value(), null);
+            Object value = getConfiguration().get(annotation.value(), null);
 
             if (value == null) {
                 lib.debug(this, "Value is null in annotation over " + f.getName() + ".");
                 throw new DeveloperException("Key " + annotation.value() + ". Was not found in file " + getName() + ".");
             }
 
-            f.setAccessible(true);
-
-            if (!GenericUtil.castable(value, type)) {
-                lib.debug(this, "Can't cast field type " + f.getName() + " do the value in the config.");
-                throw new DeveloperException("Value corresponding to key " + annotation.value() + " could not be assigned to field " + f.getName() + " as it's type, " + f.getType().getName() + " could not be casted to the value " + value.toString() + ".");
-            }
-
-            lib.debug(this, "Setting the field " + f.getName() + " accessible.");
-            f.setAccessible(true);
+            if ((type.equals(String.class) || type.equals(TextComponent.class)) && (annotation.colour() || annotation.format())) {
+                String stringValue = Format.color(value.toString());
 
+                if (!annotation.colour()) {
+                    for (ReplacementEntry entry : replacementEntries) {
+                        stringValue = stringValue.replace(entry.getPlaceholder(), entry.getValue().toString());
+                    }
+                }
 
+                value = stringValue;
+            }
 
-            if ((type.equals(String.class) || type.equals(TextComponent.class))) {
-                if (annotation.colour()) {
-                    lib.debug(this, "Setting the value as a string, colored, to field " + f.getName() + ".");
-                    f.set(instance, type.equals(TextComponent.class) ? TextComponent.fromLegacyText(Format.color(value)) : Format.color(value));
-                    continue;
-                }
+            Converter<Object, ?> converter = CONVERTERS.get(value.getClass(), type);
 
-                if (annotation.format()) {
-                    String stringValue = Format.color(value);
+            if (converter == null) {
+                lib.debug(this, "Can't convert the value in the config to the type of field " + f.getName() + ".");
+                throw new DeveloperException("Value corresponding to key " + annotation.value() + " could not be assigned to field " + f.getName() + " as it's type, " + f.getType().getName() + " could not be converted from the value " + value.toString() + ".");
+            }
 
-                    for (ReplacementEntry entry : replacementEntries) {
-                        stringValue = stringValue.replace(entry.getPlaceholder(), entry.getValue().toString());
-                    }
+            Object converted;
 
-                    f.set(instance, type.equals(TextComponent.class) ? TextComponent.fromLegacyText(stringValue) : stringValue);
-                    continue;
-                }
+            try {
+                converted = converter.convert(value);
+            } catch (IllegalArgumentException | DeveloperException e) {
+                throw new DeveloperException("Value " + value + " corresponding to key " + annotation.value() + " could not be assigned to field " + f.getName() + " of type " + type.getName() + ": " + e.getMessage());
             }
 
             lib.debug(this, "Setting field " + f.getName() + ".");
-            TryUtil.sneaky(() -> f.set(instance, value));
+            f.set(instance, converted);
         }
     }
 
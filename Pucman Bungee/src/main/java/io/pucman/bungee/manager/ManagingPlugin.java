@@ -3,6 +3,7 @@ package io.pucman.bungee.manager;
 import com.google.common.collect.HashMultimap;
 import io.pucman.common.exception.DeveloperException;
 import io.pucman.common.generic.GenericUtil;
+import io.pucman.common.profile.LifecycleProfiler;
 import lombok.Getter;
 import net.md_5.bungee.api.plugin.Plugin;
 
@@ -18,6 +19,13 @@ public class ManagingPlugin extends Plugin
     @Getter
     private HashMultimap<Manager.Priority, Manager> managers = HashMultimap.create();
 
+    /**
+     * Times the enabling and disabling of the managers, and whatever else
+     * the plugin starts and stops, such as modules.
+     */
+    @Getter
+    private LifecycleProfiler profiler = new LifecycleProfiler();
+
     /**
      * Add managers to the map.
      * @param managers - array of managers.
@@ -32,8 +40,8 @@ public class ManagingPlugin extends Plugin
      */
     public synchronized void enableManagers()
     {
-        this.managers.get(Manager.Priority.HIGH).forEach(Manager::init);
-        this.managers.get(Manager.Priority.NORMAL).forEach(Manager::init);
+        this.managers.get(Manager.Priority.HIGH).forEach(m -> profiler.record(m.getClass().getSimpleName(), LifecycleProfiler.Phase.ENABLE, m::init));
+        this.managers.get(Manager.Priority.NORMAL).forEach(m -> profiler.record(m.getClass().getSimpleName(), LifecycleProfiler.Phase.ENABLE, m::init));
     }
 
     /**
@@ -41,8 +49,8 @@ public class ManagingPlugin extends Plugin
      */
     public synchronized void disableManagers()
     {
-        this.managers.get(Manager.Priority.HIGH).forEach(Manager::shutdown);
-        this.managers.get(Manager.Priority.NORMAL).forEach(Manager::shutdown);
+        this.managers.get(Manager.Priority.HIGH).forEach(m -> profiler.record(m.getClass().getSimpleName(), LifecycleProfiler.Phase.DISABLE, m::shutdown));
+        this.managers.get(Manager.Priority.NORMAL).forEach(m -> profiler.record(m.getClass().getSimpleName(), LifecycleProfiler.Phase.DISABLE, m::shutdown));
     }
 
     /**
@@ -1,22 +1,35 @@
 package io.pucman.bungee.module;
 
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.module.ExecutionBudget;
 import io.pucman.module.Module;
+import io.pucman.module.ModuleExecutor;
 import io.pucman.module.ModuleInfo;
 import lombok.Getter;
 import net.md_5.bungee.api.plugin.Plugin;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
 /**
  * Base Module for Modules on a BungeeCord Plugin.
+ *
+ * A module annotated with ExecutionBudget gets its own bounded executor
+ * when it boots, which is shutdown with the module.
  * @param <T> - plugin main class.
  *
  * @see ModuleManager
  */
 public class BaseModule<T extends Plugin> implements Module
 {
+    /**
+     * Seconds the tasks of the executor have to finish when the module is shutdown.
+     */
+    private static final long EXECUTOR_SHUTDOWN_TIMEOUT = 5;
+
     private ModuleInfo info;
 
     @Getter
@@ -24,6 +37,7 @@ public class BaseModule<T extends Plugin> implements Module
 
     private AtomicBoolean enabled = new AtomicBoolean(false);
     private ReentrantLock lock = new ReentrantLock();
+    private volatile ModuleExecutor executor;
 
     public BaseModule(T instance, String name, String version, boolean immutableModule, String... authors)
     {
@@ -53,7 +67,23 @@ public class BaseModule<T extends Plugin> implements Module
                 return;
             }
 
-            enable();
+            ExecutionBudget budget = getClass().getAnnotation(ExecutionBudget.class);
+
+            if (budget != null) {
+                executor = ModuleExecutor.of(info.getName(), budget);
+            }
+
+            try {
+                enable();
+            } catch (RuntimeException e) {
+                if (executor != null) {
+                    stopExecutor(executor);
+                    executor = null;
+                }
+
+                throw e;
+            }
+
             enabled.set(true);
         } finally {
             lock.unlock();
@@ -65,21 +95,79 @@ public class BaseModule<T extends Plugin> implements Module
      */
     @Override
     public void shutdown()
+    {
+        ModuleExecutor stopping = disableLeavingExecutor();
+
+        if (stopping != null) {
+            stopExecutor(stopping);
+        }
+    }
+
+    /**
+     * Shuts down the module, but leaves its executor running for the caller
+     * to stop, so the module manager can wait for its tasks without holding
+     * its lock.
+     * @return the executor to stop, or null if the module has none.
+     */
+    ModuleExecutor disableLeavingExecutor()
     {
         try {
             lock.lock();
             if (!enabled.get()) {
                 instance.getLogger().log(Level.WARNING, "Attempted to disable " + info.getName() + " but it was already disabled.");
-                return;
+                return null;
+            }
+
+            ModuleExecutor stopping = executor;
+
+            try {
+                disable();
+            } finally {
+                executor = null;
+                enabled.set(false);
             }
 
-            disable();
-            enabled.set(false);
+            return stopping;
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Gets the executor the module declared with ExecutionBudget, for the
+     * module to run its own tasks on.
+     * @return the executor.
+     */
+    public ModuleExecutor getExecutor()
+    {
+        if (executor == null) {
+            throw new DeveloperException("Module " + info.getName() + " has no executor. Annotate it with @ExecutionBudget, it is made when the module boots.");
+        }
+
+        return executor;
+    }
+
+    /**
+     * @return true if the module has an executor running.
+     */
+    public boolean hasExecutor()
+    {
+        return executor != null;
+    }
+
+    /**
+     * Stops an executor of the module, waiting for its queued tasks to finish.
+     * @param stopping - the executor.
+     */
+    void stopExecutor(ModuleExecutor stopping)
+    {
+        List<Runnable> dropped = stopping.shutdown(EXECUTOR_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
+
+        if (!dropped.isEmpty()) {
+            instance.getLogger().log(Level.WARNING, "Module " + info.getName() + " shutdown with " + dropped.size() + " tasks that never ran.");
+        }
+    }
+
     /**
      * @return true if enabled, else false.
      */
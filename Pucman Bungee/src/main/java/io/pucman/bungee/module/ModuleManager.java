@@ -1,31 +1,103 @@
 package io.pucman.bungee.module;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.TreeTraverser;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import io.pucman.bungee.PLibrary;
 import io.pucman.bungee.manager.Manager;
 import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.exception.TryUtil;
+import io.pucman.common.profile.LifecycleProfiler;
 import io.pucman.common.reflect.ReflectUtil;
 import io.pucman.common.reflect.accessors.ConstructorAccessor;
-import io.pucman.module.DefaultModuleTraverserFunction;
-import io.pucman.module.Dependencies;
+import io.pucman.module.JarWatcher;
+import io.pucman.module.Lazy;
 import io.pucman.module.Module;
+import io.pucman.module.ModuleGraph;
+import io.pucman.module.ModuleExecutor;
+import io.pucman.module.ModuleIndex;
+import io.pucman.module.ModuleJar;
+import lombok.SneakyThrows;
 import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.api.scheduler.ScheduledTask;
 
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 /**
  * Manager for managing modules.
+ *
+ * The modules of a plugin are booted in the order of their dependency graph,
+ * modules that don't depend on each other at the same time on a work stealing
+ * pool. A module is booted as soon as its own dependencies are, so modules
+ * mustn't share state with modules they don't depend on without guarding it.
+ *
+ * Modules annotated with Lazy are booted the first time they are gotten
+ * from the manager instead, and may be shutdown again once idle.
+ *
+ * Loading, activating and shutting down modules all change which modules
+ * are loaded under one lock, whichever thread they run on, so an idle
+ * module isn't shutdown while it is activated, and a module is never
+ * constructed twice. Modules are constructed and booted outside of it,
+ * so modules still boot in parallel, and the executors of modules that
+ * were shutdown are only waited for once it is released.
+ *
+ * @see ModuleGraph
  */
 @ParametersAreNonnullByDefault
 public class ModuleManager extends Manager<PLibrary>
 {
-    private TreeMap<Plugin, List<Class<? extends Module>>> dependencyMap = new TreeMap<>();
-    private TreeMap<Plugin, List<Module>> loadedModules = new TreeMap<>();
-    private TreeTraverser traverser = TreeTraverser.using(new DefaultModuleTraverserFunction(Manager.class));
-    private ArrayList<Class<? extends Module>> cannotLoad = Lists.newArrayList();
+    private Map<Plugin, Set<Class<? extends Module>>> registered = Maps.newConcurrentMap();
+    private Map<Plugin, ModuleGraph> dependencyMap = Maps.newConcurrentMap();
+    private Map<Plugin, List<Module>> loadedModules = Maps.newConcurrentMap();
+    private Map<Class<? extends Module>, Plugin> lazyModules = Maps.newConcurrentMap();
+    private Map<Class<? extends Module>, Long> idleTimeouts = Maps.newConcurrentMap();
+    private Map<Class<? extends Module>, Long> lastUsed = Maps.newConcurrentMap();
+    private ScheduledTask idleTask;
+    private List<JarWatcher> watchers = new CopyOnWriteArrayList<>();
+    private Map<ModuleExecutor, Long> executorProblems = new WeakHashMap<>();
+    private Set<Class<? extends Module>> cannotLoad = Sets.newConcurrentHashSet();
+    private ModuleIndex index = new ModuleIndex();
+
+    /**
+     * Guards which modules are loaded.
+     */
+    private final Object lifecycle = new Object();
+
+    /**
+     * Modules being constructed and booted, so a module needed by two boots
+     * at once is only loaded by the first, the other waits for it.
+     */
+    private Map<Class<? extends Module>, CompletableFuture<Module>> loading = Maps.newHashMap();
+
+    /**
+     * Modules that aren't lazy, but were only booted because a lazy module
+     * depending on them was activated, so shutting down an idle module may
+     * shut them down again. Any other module it depends on stays loaded.
+     */
+    private Set<Class<? extends Module>> onDemand = Sets.newConcurrentHashSet();
+
+    /**
+     * Executors of modules shutdown under the lock, stopped once it is
+     * released, so waiting for their tasks doesn't hold up other modules.
+     */
+    private Queue<Runnable> retiring = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Seconds between checks for idle lazy modules and saturated executors.
+     */
+    private static final long IDLE_CHECK_PERIOD = 30;
 
     public ModuleManager(PLibrary instance)
     {
@@ -36,106 +108,354 @@ public class ModuleManager extends Manager<PLibrary>
      * Registers the immutable array.
      * @param plugin - plugin the modules belong to.
      * @param modules - array of modules.
+     * @throws DeveloperException if the modules depend on each other in a cycle.
      */
     public void register(Plugin plugin, Class<? extends Module>... modules)
     {
-        ArrayList<Class<? extends Module>> examineList = Lists.newArrayList(modules);
+        register(plugin, Arrays.asList(modules));
+    }
 
-        if (dependencyMap.containsKey(plugin)) {
-            examineList.addAll(dependencyMap.get(plugin));
-            dependencyMap.put(plugin, traverser.breadthFirstTraversal(examineList).toList());
-            return;
+    /**
+     * Registers the modules.
+     * @param plugin - plugin the modules belong to.
+     * @param modules - the modules.
+     * @throws DeveloperException if the modules depend on each other in a cycle.
+     */
+    public synchronized void register(Plugin plugin, Collection<Class<? extends Module>> modules)
+    {
+        Set<Class<? extends Module>> examineSet = Sets.newLinkedHashSet(registered.getOrDefault(plugin, Collections.emptySet()));
+        examineSet.addAll(modules);
+        ModuleGraph graph = ModuleGraph.of(examineSet);
+        dependencyMap.put(plugin, graph);
+        registered.put(plugin, examineSet);
+
+        for (Class<? extends Module> module : graph.getOrder()) {
+            Lazy lazy = module.getAnnotation(Lazy.class);
+
+            if (lazy != null) {
+                lazyModules.put(module, plugin);
+
+                if (lazy.idleTimeout() > 0) {
+                    idleTimeouts.put(module, TimeUnit.SECONDS.toNanos(lazy.idleTimeout()));
+                }
+            }
         }
+    }
 
-        dependencyMap.put(plugin, traverser.breadthFirstTraversal(examineList).toList());
+    @Override
+    public void onEnable()
+    {
+        idleTask = instance.getProxy().getScheduler().schedule(instance, () -> {
+            shutdownIdle();
+            checkExecutors();
+        }, IDLE_CHECK_PERIOD, IDLE_CHECK_PERIOD, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void onDisable()
+    {
+        if (idleTask != null) {
+            idleTask.cancel();
+        }
+
+        watchers.forEach(watcher -> TryUtil.sneaky(watcher::close));
     }
 
     /**
      * Get the load order of all the modules on the server.
      * @return load order.
      */
-    public TreeMap<Plugin, List<Class<? extends Module>>> getLoadOrder()
+    public Map<Plugin, List<Class<? extends Module>>> getLoadOrder()
     {
-        return dependencyMap.descendingKeySet().stream().collect(Collectors.toMap(key -> key, this::getLoadOrder, (a, b) -> b, TreeMap::new));
+        return dependencyMap.keySet().stream().collect(Collectors.toMap(key -> key, this::getLoadOrder, (a, b) -> b, LinkedHashMap::new));
     }
 
     /**
-     * Gets the load order of the modules.
+     * Gets the load order of the modules, each module after its dependencies.
      * @param plugin - plugin the modules belong to.
      * @return load order.
      */
     public LinkedList<Class<? extends Module>> getLoadOrder(Plugin plugin)
     {
-        List<Class<? extends Module>> modules = this.dependencyMap.get(plugin);
-        Collections.reverse(modules);
-        return Lists.newLinkedList(modules);
+        ModuleGraph graph = this.dependencyMap.get(plugin);
+        return graph == null ? Lists.newLinkedList() : Lists.newLinkedList(graph.getOrder());
     }
 
     /**
-     * Boots all the modules belonging to the plugin.
+     * Boots all the modules belonging to the plugin, on a work stealing pool
+     * made for the boot.
      * @param plugin - plugin instance.
      */
     public void boot(Plugin plugin)
     {
-        List<Class<? extends Module>> modules = dependencyMap.get(plugin);
+        ExecutorService pool = Executors.newWorkStealingPool();
 
-        if (modules == null || modules.isEmpty()) {
-            return;
+        try {
+            boot(plugin, pool);
+        } finally {
+            pool.shutdown();
         }
+    }
 
-        if (!loadedModules.containsKey(plugin)) loadedModules.put(plugin, Lists.newLinkedList());
+    /**
+     * Boots all the modules belonging to the plugin, each module on the
+     * executor once its dependencies are booted. Returns when every module
+     * is booted or failed to. Lazy modules are left until they are needed,
+     * unless a module that isn't lazy depends on them.
+     * @param plugin - plugin instance.
+     * @param executor - where to boot the modules, a direct executor boots them one at a time.
+     */
+    public void boot(Plugin plugin, Executor executor)
+    {
+        ModuleGraph graph = dependencyMap.get(plugin);
 
-        for (Class<? extends Module> entry : modules) {
-            if (cannotLoad.contains(entry)) {
-                instance.getLogger().info("Cannot load module " + entry.getSimpleName() + ". Seems like on of it's dependencies has problems loading.");
-                //TODO: display the dependencies of the module that has trouble loading.
-            }
+        if (graph == null || graph.getOrder().isEmpty()) {
+            return;
+        }
 
+        boot(plugin, ModuleGraph.of(graph.getOrder().stream().filter(module -> !module.isAnnotationPresent(Lazy.class)).collect(Collectors.toList())), executor, false);
+    }
 
+    /**
+     * @param activating - true if the modules are booted because a lazy module was activated.
+     */
+    private void boot(Plugin plugin, ModuleGraph graph, Executor executor, boolean activating)
+    {
+        Map<Class<? extends Module>, CompletableFuture<Module>> booting = graph.run(entry -> load(plugin, graph, entry, activating), executor);
+
+        for (Map.Entry<Class<? extends Module>, CompletableFuture<Module>> entry : booting.entrySet()) {
             try {
-                ConstructorAccessor<? extends Module> accessor = ReflectUtil.getConstructor(entry, ReflectUtil.Type.DECLARED, Plugin.class);
-                Module m = accessor.call(plugin);
-                loadedModules.get(plugin).add(m);
-            } catch (Exception e) {
-                e.printStackTrace();
+                entry.getValue().join();
+            } catch (CompletionException e) {
                 //TODO: store the exception in the a map. Make a commend to display a formatted error on the server.
                 //TODO: or make a Bugsnag instance to direct all stacktraces too.
+                List<Class<? extends Module>> failed = graph.getDependencies(entry.getKey()).stream().filter(cannotLoad::contains).collect(Collectors.toList());
+                cannotLoad.add(entry.getKey());
 
-                cannotLoad.add(entry);
-                cannotLoad.addAll(getModulesDepending(entry));
+                if (failed.isEmpty()) {
+                    instance.getLogger().log(Level.SEVERE, "Module " + entry.getKey().getSimpleName() + " failed to load.", e.getCause());
+                } else {
+                    instance.getLogger().info("Cannot load module " + entry.getKey().getSimpleName() + ". It's dependencies " + failed.stream().map(Class::getSimpleName).collect(Collectors.joining(", ")) + " had problems loading.");
+                }
             }
         }
     }
 
+    /**
+     * Constructs and boots a module, unless it is already loaded.
+     */
+    private Module load(Plugin plugin, ModuleGraph graph, Class<? extends Module> entry, boolean activating)
+    {
+        CompletableFuture<Module> pending;
+
+        synchronized (lifecycle) {
+            Module m = index.get(entry);
 
+            if (m != null) {
+                if (!activating) {
+                    onDemand.remove(entry);
+                }
+
+                return m;
+            }
+
+            if (cannotLoad.contains(entry)) {
+                throw new DeveloperException("Module " + entry.getSimpleName() + " failed to load before.");
+            }
+
+            pending = loading.get(entry);
+
+            if (pending == null) {
+                loading.put(entry, new CompletableFuture<>());
+            }
+        }
+
+        if (pending != null) {
+            return pending.join();
+        }
+
+        if (lazyModules.containsKey(entry)) {
+            instance.getLogger().info("Activating lazy module " + entry.getSimpleName() + ".");
+        }
+
+        Module created;
+
+        try {
+            ConstructorAccessor<? extends Module> accessor = ReflectUtil.getConstructor(entry, ReflectUtil.Type.DECLARED, Plugin.class);
+            LifecycleProfiler profiler = instance.getProfiler();
+            created = profiler.record(entry.getSimpleName(), LifecycleProfiler.Phase.CONSTRUCT, () -> accessor.call(plugin));
+            profiler.record(entry.getSimpleName(), LifecycleProfiler.Phase.ENABLE, created::boot);
+        } catch (RuntimeException | Error e) {
+            synchronized (lifecycle) {
+                loading.remove(entry).completeExceptionally(e);
+            }
+
+            throw e;
+        }
+
+        synchronized (lifecycle) {
+            index.add(created, graph.getDependencies(entry));
+            loadedModules.computeIfAbsent(plugin, key -> new CopyOnWriteArrayList<>()).add(created);
+
+            if (activating && !lazyModules.containsKey(entry)) {
+                onDemand.add(entry);
+            }
+
+            if (idleTimeouts.containsKey(entry)) {
+                lastUsed.put(entry, System.nanoTime());
+            }
+
+            loading.remove(entry).complete(created);
+        }
+
+        return created;
+    }
+
+    /**
+     * Boots a lazy module, and the modules it depends on, on the calling
+     * thread if it isn't booted yet.
+     * @param module - module class.
+     * @param <M> - generic type.
+     * @return the module, or null if it isn't a registered lazy module or it failed to boot.
+     */
+    public <M extends Module> M activate(Class<M> module)
+    {
+        Plugin plugin = lazyModules.get(module);
+
+        if (plugin == null) {
+            return index.get(module);
+        }
+
+        synchronized (lifecycle) {
+            if (index.contains(module) || cannotLoad.contains(module)) {
+                return index.get(module);
+            }
+        }
+
+        // Not booted under the lock, a boot already loading the module is waited for instead.
+        boot(plugin, ModuleGraph.of(Collections.singleton(module)), Runnable::run, true);
+        return index.get(module);
+    }
+
+    /**
+     * Shuts down the lazy modules that haven't been used for longer than
+     * their idle timeout, and that no loaded module depends on. Only the
+     * dependencies that are lazy themselves, or were only booted for a lazy
+     * module, are shutdown with them.
+     */
+    public void shutdownIdle()
+    {
+        try {
+            synchronized (lifecycle) {
+                long now = System.nanoTime();
+
+                idleTimeouts.forEach((module, timeout) -> {
+                    Module loaded = index.get(module);
+                    Long used = lastUsed.get(module);
+
+                    if (loaded == null || used == null || now - used < timeout || index.getReferences(module) > 0 || loaded.getInfo().isImmutableModule()) {
+                        return;
+                    }
+
+                    instance.getLogger().info("Shutting down lazy module " + module.getSimpleName() + ", it has been idle.");
+                    shutdown(loaded, false, true, Sets.newHashSet());
+                });
+            }
+        } finally {
+            stopExecutors();
+        }
+    }
+
+    /**
+     * Shuts down the modules belonging to the plugin, each module before
+     * the modules it depends on.
+     * @param plugin - plugin instance.
+     */
     public void shutdown(Plugin plugin)
     {
-        loadedModules.get(plugin).forEach(this::shutdown);
+        try {
+            synchronized (lifecycle) {
+                lazyModules.values().removeIf(plugin::equals);
+                List<Module> modules = loadedModules.remove(plugin);
+
+                if (modules == null) {
+                    return;
+                }
+
+                for (Module module : Lists.reverse(modules)) {
+                    if (index.get(module.getClass()) == module) {
+                        shutdown(module, true, false, Sets.newHashSet());
+                    }
+                }
+            }
+        } finally {
+            stopExecutors();
+        }
     }
 
     /**
-     * Gets a list of modules depending on the dependency.
-     * @param dependency - module other modules may be depending on.
-     * @return a list of modules depending on that particular dependency.
+     * @return the executors of the loaded modules that declared one.
      */
-    public List<Class<? extends Module>> getModulesDepending(Class<? extends Module> dependency)
+    public Map<Class<? extends Module>, ModuleExecutor> getExecutors()
     {
-        if (!dependency.isAnnotationPresent(Dependencies.class)) {
-            return Lists.newArrayList();
+        LinkedHashMap<Class<? extends Module>, ModuleExecutor> executors = Maps.newLinkedHashMap();
+
+        for (List<Module> modules : loadedModules.values()) {
+            for (Module module : modules) {
+                if (module instanceof BaseModule && ((BaseModule<?>) module).hasExecutor()) {
+                    executors.put(module.getClass(), ((BaseModule<?>) module).getExecutor());
+                }
+            }
         }
 
-        Dependencies dependencies = dependency.getAnnotation(Dependencies.class);
-        List<Class<? extends Module>> modules = Lists.newLinkedList();
+        return executors;
+    }
 
-        for (Class<?> depend : dependencies.value()) {
-            if (depend.isAssignableFrom(Manager.class)) {
-                continue;
+    /**
+     * Warns about the executors of modules that are saturated, or that
+     * refused or interrupted tasks since they were last checked.
+     */
+    public void checkExecutors()
+    {
+        getExecutors().forEach((module, executor) -> {
+            long problems = executor.getRejected() + executor.getTimedOut();
+            Long previous = executorProblems.put(executor, problems);
+
+            if (executor.isSaturated() || problems > (previous == null ? 0 : previous)) {
+                instance.getLogger().warning("Executor of module " + module.getSimpleName() + " is struggling: " + executor + ".");
             }
+        });
+    }
+
+    /**
+     * Gets a module, a lazy module is booted if it isn't yet.
+     * @param module - module class.
+     * @param <M> - generic type.
+     * @return the loaded module, or null if it isn't loaded.
+     */
+    public <M extends Module> M get(Class<M> module)
+    {
+        M m = index.get(module);
+
+        if (m == null && lazyModules.containsKey(module)) {
+            m = activate(module);
+        }
 
-            modules.add((Class<? extends Module>) depend);
+        if (m != null && idleTimeouts.containsKey(module)) {
+            lastUsed.put(module, System.nanoTime());
         }
 
-        return modules;
+        return m;
+    }
+
+    /**
+     * Gets a list of the loaded modules depending on the dependency.
+     * @param dependency - module other modules may be depending on.
+     * @return a list of modules depending on that particular dependency.
+     */
+    public List<Class<? extends Module>> getModulesDepending(Class<? extends Module> dependency)
+    {
+        return Lists.newArrayList(index.getDependents(dependency));
     }
 
     /**
@@ -145,75 +465,225 @@ public class ModuleManager extends Manager<PLibrary>
      */
     public List<Class<? extends Module>> getOnlyModuleDependencies(Class<? extends Module> module)
     {
-        if (!module.isAnnotationPresent(Dependencies.class)) {
-            return Lists.newArrayList();
+        if (index.contains(module)) {
+            return Lists.newArrayList(index.getDependencies(module));
         }
 
-        Dependencies dependencies = module.getAnnotation(Dependencies.class);
-        ArrayList<Class<? extends Module>> list = Lists.newArrayList();
-
-        for (Class<?> depend : dependencies.value()) {
-            if (depend.isAssignableFrom(Manager.class)) {
-                continue;
+        for (ModuleGraph graph : dependencyMap.values()) {
+            if (graph.contains(module)) {
+                return Lists.newArrayList(graph.getDependencies(module));
             }
-
-            list.add((Class<? extends Module>) depend);
         }
 
-        return list;
+        return Lists.newArrayList(ModuleGraph.of(Collections.singleton(module)).getDependencies(module));
     }
 
     /**
      * Initiates the shutdown process of the module passed in the parameters.
      *
-     * The module will also check and, if successful, shutdown the dependencies
-     * of the module that will be shutdown to remove the concern of ram being
+     * The loaded modules depending on the module are shutdown first. The
+     * module will then shutdown the dependencies of the module that no
+     * other loaded module depends on, to remove the concern of ram being
      * unnecessarily used up.
      *
      * @param module - module to be shutdown.
      */
     public void shutdown(Module module)
     {
-        if (module.getInfo().isImmutableModule()) {
+        try {
+            synchronized (lifecycle) {
+                shutdown(module, false, false, Sets.newHashSet());
+            }
+        } finally {
+            stopExecutors();
+        }
+    }
+
+    /**
+     * @param idle - true if the module is shutdown for being idle, so only
+     * its dependencies that are lazy or were booted on demand go with it.
+     * @param stopping - the modules being shutdown, so the dependents of a
+     * module don't shut it down again as one of their dependencies.
+     */
+    private void shutdown(Module module, boolean force, boolean idle, Set<Class<? extends Module>> stopping)
+    {
+        if (!force && module.getInfo().isImmutableModule()) {
             throw new DeveloperException("Cannot shutdown module " + module.getInfo().getName() + ". It is an immutable module.");
         }
 
-        List<Class<? extends Module>> dependencies = getOnlyModuleDependencies(module.getClass());
+        Class<? extends Module> type = module.getClass();
+        stopping.add(type);
+
+        for (Class<? extends Module> dependent : index.getDependents(type)) {
+            Module depending = index.get(dependent);
 
-        if (!dependencies.isEmpty()) {
-            for (Class<? extends Module> dependency : dependencies) {
-                Module depend = null;
+            if (depending != null) {
+                shutdown(depending, force, idle, stopping);
+            }
+        }
 
-                for (List<Module> modules : loadedModules.values()) {
-                    if (modules.stream().anyMatch(singleModule -> singleModule.getClass().equals(dependency))) {
-                        depend = module;
-                        break;
+        List<Class<? extends Module>> dependencies = index.getDependencies(type);
+        index.remove(type);
+        onDemand.remove(type);
+        instance.getProfiler().record(type.getSimpleName(), LifecycleProfiler.Phase.DISABLE, () -> disable(module));
+        loadedModules.values().forEach(modules -> modules.remove(module));
+
+        for (Class<? extends Module> dependency : dependencies) {
+            Module depend = index.get(dependency);
+
+            if (stopping.contains(dependency) || (idle && !lazyModules.containsKey(dependency) && !onDemand.contains(dependency))) {
+                continue;
+            }
+
+            if (depend == null) {
+                instance.getLogger().warning("Could not get loaded dependency " + dependency.getSimpleName() + ". Maybe it wasn't loaded at all?");
+                continue;
+            }
+
+            if (index.getReferences(dependency) > 0) {
+                instance.getLogger().warning("Could not shutdown module " + dependency.getSimpleName() + " as it is being used by one or more loaded module.");
+            } else if (force || !depend.getInfo().isImmutableModule()) {
+                shutdown(depend, force, idle, stopping);
+            }
+        }
+    }
+
+    /**
+     * Loads the modules in the jars of a directory, and loads the modules of
+     * a jar again when the jar changes. Only the modules of the jars whose
+     * content changed, and the modules depending on them, are shutdown and
+     * booted again. Each jar has its own class loader, linked against the
+     * plugin, so its modules can depend on the modules of the plugin but
+     * not on the modules of other jars.
+     * @param plugin - plugin the modules belong to.
+     * @param directory - the directory of jars.
+     * @return the watcher, it is closed when the manager is disabled.
+     */
+    @SneakyThrows
+    public JarWatcher watch(Plugin plugin, File directory)
+    {
+        JarWatcher watcher = new JarWatcher(directory.toPath(), plugin.getClass().getClassLoader(), (previous, current) -> reload(plugin, previous, current), plugin.getLogger());
+        watchers.add(watcher);
+        watcher.start();
+        return watcher;
+    }
+
+    /**
+     * Replaces the modules of a jar with the modules of the jar as it is now.
+     */
+    private synchronized void reload(Plugin plugin, ModuleJar previous, ModuleJar current)
+    {
+        Set<Class<? extends Module>> stopped = Sets.newLinkedHashSet();
+
+        if (previous != null) {
+            synchronized (lifecycle) {
+                for (Class<? extends Module> module : previous.getModules()) {
+                    Module loaded = index.get(module);
+
+                    if (loaded != null) {
+                        stop(loaded, stopped);
                     }
                 }
 
-                if (depend == null) {
-                    instance.getLogger().warning("Could not get loaded dependency " + dependency.getSimpleName() + ". Maybe it wasn't loaded at all?");
-                    continue;
-                }
+                unregister(plugin, previous.getModules());
+            }
 
-                if (dependedBy(dependency) < 2) {
-                    shutdown(depend);
-                } else {
-                    instance.getLogger().warning("Could not shutdown module " + dependency.getSimpleName() + " as it is being used by one or more loaded module.");
-                }
+            stopExecutors();
+            TryUtil.sneaky(previous::close);
+            stopped.removeAll(previous.getModules());
+        }
+
+        List<Class<? extends Module>> booting = Lists.newArrayList(stopped);
+
+        if (current != null) {
+            instance.getLogger().info("Loading modules " + current.getModules().stream().map(Class::getSimpleName).collect(Collectors.joining(", ")) + " from " + current.getPath().getFileName() + ".");
+            register(plugin, current.getModules());
+            current.getModules().stream().filter(module -> !module.isAnnotationPresent(Lazy.class)).forEach(booting::add);
+        }
+
+        boot(plugin, ModuleGraph.of(booting), Runnable::run, false);
+    }
+
+    /**
+     * Shuts down a module and the loaded modules depending on it, leaving
+     * its dependencies loaded.
+     */
+    private void stop(Module module, Set<Class<? extends Module>> stopped)
+    {
+        Class<? extends Module> type = module.getClass();
+
+        if (!stopped.add(type)) {
+            return;
+        }
+
+        for (Class<? extends Module> dependent : index.getDependents(type)) {
+            Module depending = index.get(dependent);
+
+            if (depending != null) {
+                stop(depending, stopped);
             }
         }
 
-        module.shutdown();
+        index.remove(type);
+        onDemand.remove(type);
+        instance.getProfiler().record(type.getSimpleName(), LifecycleProfiler.Phase.DISABLE, () -> disable(module));
+        loadedModules.values().forEach(modules -> modules.remove(module));
+    }
+
+    /**
+     * Shuts down a module, leaving its executor to be stopped once the lock
+     * is released.
+     */
+    private void disable(Module module)
+    {
+        if (!(module instanceof BaseModule)) {
+            module.shutdown();
+            return;
+        }
+
+        BaseModule<?> base = (BaseModule<?>) module;
+        ModuleExecutor executor = base.disableLeavingExecutor();
+
+        if (executor != null) {
+            retiring.add(() -> base.stopExecutor(executor));
+        }
+    }
+
+    /**
+     * Stops the executors of the modules shutdown so far. Called outside
+     * of the lock.
+     */
+    private void stopExecutors()
+    {
+        Runnable stop;
+
+        while ((stop = retiring.poll()) != null) {
+            stop.run();
+        }
+    }
+
+    private void unregister(Plugin plugin, Collection<Class<? extends Module>> modules)
+    {
+        Set<Class<? extends Module>> examineSet = Sets.newLinkedHashSet(registered.getOrDefault(plugin, Collections.emptySet()));
+        examineSet.removeAll(modules);
+        dependencyMap.put(plugin, ModuleGraph.of(examineSet));
+        registered.put(plugin, examineSet);
+
+        for (Class<? extends Module> module : modules) {
+            lazyModules.remove(module);
+            idleTimeouts.remove(module);
+            lastUsed.remove(module);
+            cannotLoad.remove(module);
+        }
     }
 
     /**
-     * Gets the amount of modules depending on this dependency.
+     * Gets the amount of loaded modules depending on this dependency.
      * @param module - module to examine.
      * @return amount of modules depending.
      */
     public int dependedBy(Class<? extends Module> module)
     {
-        return loadedModules.values().stream().mapToInt(modules -> (int) modules.stream().filter(singleModule -> singleModule.getClass().isAnnotationPresent(Dependencies.class)).map(singleModule -> singleModule.getClass().getAnnotation(Dependencies.class)).flatMap(dependencies -> Arrays.stream(dependencies.value())).filter(depend -> depend.getClass().equals(module)).count()).sum();
+        return index.getReferences(module);
     }
 }
@@ -1,9 +1,18 @@
 package io.pucman.bungee.plugin;
 
 import io.pucman.bungee.manager.ManagingPlugin;
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.reflect.MemberKey;
+import io.pucman.common.reflect.ReflectManifest;
+import io.pucman.common.reflect.ReflectUtil;
+import lombok.SneakyThrows;
 import net.md_5.bungee.api.plugin.PluginManager;
 import net.md_5.bungee.api.scheduler.TaskScheduler;
 
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Inherited by main classes of plugins.
  *
@@ -29,4 +38,34 @@ public class LibPlugin extends ManagingPlugin
     {
         return this.getProxy().getScheduler();
     }
+
+    /**
+     * Resolves the members of a reflection manifest bundled with this plugin,
+     * in the background. Call it in onLoad so the members are resolved by the
+     * time they are needed.
+     * @see ReflectManifest
+     * @param resource - path of the manifest in the plugin jar.
+     * @return a future completed once all members are resolved, with the members that couldn't be.
+     */
+    @SneakyThrows
+    public CompletableFuture<Map<MemberKey, Throwable>> warmUp(String resource)
+    {
+        InputStream is = this.getResourceAsStream(resource);
+
+        if (is == null) {
+            throw new DeveloperException("Reflection manifest " + resource + " does not exist in " + this.getDescription().getName() + ".");
+        }
+
+        ReflectManifest manifest = ReflectManifest.read(is, this.getClass().getClassLoader());
+
+        if (!manifest.getUnresolved().isEmpty()) {
+            this.getLogger().warning("Skipped " + manifest.getUnresolved().size() + " members of " + resource + " with missing classes: " + manifest.getUnresolved());
+        }
+
+        return ReflectUtil.warmUp(manifest).whenComplete((failures, t) -> {
+            if (failures != null && !failures.isEmpty()) {
+                this.getLogger().warning("Couldn't resolve " + failures.size() + " of " + manifest.getMembers().size() + " members of " + resource + ": " + failures.keySet());
+            }
+        });
+    }
 }
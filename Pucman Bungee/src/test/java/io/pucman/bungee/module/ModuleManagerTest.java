@@ -0,0 +1,287 @@
+package io.pucman.bungee.module;
+
+import io.pucman.bungee.PLibrary;
+import io.pucman.common.profile.LifecycleProfiler;
+import io.pucman.module.Dependencies;
+import io.pucman.module.ExecutionBudget;
+import io.pucman.module.Lazy;
+import io.pucman.module.Module;
+import io.pucman.module.ModuleInfo;
+import net.md_5.bungee.api.plugin.Plugin;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+public class ModuleManagerTest
+{
+    private static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+    private static final AtomicInteger SHUTDOWN = new AtomicInteger();
+
+    private final Plugin plugin = Mockito.mock(Plugin.class);
+    private ModuleManager manager;
+
+    @Before
+    public void setUp()
+    {
+        PLibrary library = Mockito.mock(PLibrary.class);
+        Mockito.when(library.getLogger()).thenReturn(Logger.getAnonymousLogger());
+        Mockito.when(library.getProfiler()).thenReturn(new LifecycleProfiler());
+        manager = new ModuleManager(library);
+        CONSTRUCTED.set(0);
+        SHUTDOWN.set(0);
+    }
+
+    @Test
+    public void lazyActivation() throws Exception
+    {
+        manager.register(plugin, Eager.class, Deferred.class);
+        manager.boot(plugin, Runnable::run);
+
+        Assert.assertNotNull(manager.get(Eager.class));
+        Assert.assertEquals(0, CONSTRUCTED.get());
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Module> activated = new CopyOnWriteArrayList<>();
+
+        try {
+            for (int i = 0; i < 8; i++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        activated.add(manager.get(Deferred.class));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            start.countDown();
+            pool.shutdown();
+            Assert.assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Assert.assertEquals(1, CONSTRUCTED.get());
+        Assert.assertEquals(8, activated.size());
+
+        for (Module module : activated) {
+            Assert.assertSame(activated.get(0), module);
+        }
+    }
+
+    @Test
+    public void idleShutdown() throws Exception
+    {
+        manager.register(plugin, Idle.class, IdleUser.class);
+        manager.boot(plugin, Runnable::run);
+
+        Assert.assertNotNull(manager.get(IdleUser.class));
+        Assert.assertEquals(1, manager.dependedBy(Idle.class));
+
+        // Idle has been idle for longer than its timeout, but IdleUser still depends on it.
+        Thread.sleep(1100);
+        Assert.assertNotNull(manager.get(IdleUser.class));
+        manager.shutdownIdle();
+        Assert.assertEquals(0, SHUTDOWN.get());
+
+        // Once IdleUser is idle too it is shutdown, and Idle with it as nothing uses it anymore.
+        Thread.sleep(1100);
+        manager.shutdownIdle();
+        Assert.assertEquals(2, SHUTDOWN.get());
+        Assert.assertEquals(0, manager.dependedBy(Idle.class));
+
+        Assert.assertNotNull(manager.get(Idle.class));
+        Assert.assertEquals(3, CONSTRUCTED.get());
+    }
+
+    @Test
+    public void idleShutdownKeepsEagerDependency() throws Exception
+    {
+        manager.register(plugin, Eager.class, EagerUser.class);
+        manager.boot(plugin, Runnable::run);
+
+        Module eager = manager.get(Eager.class);
+        Assert.assertNotNull(eager);
+        Assert.assertNotNull(manager.get(EagerUser.class));
+        Assert.assertEquals(1, manager.dependedBy(Eager.class));
+
+        Thread.sleep(1100);
+        manager.shutdownIdle();
+
+        // EagerUser is shutdown, but Eager was booted with the plugin, not for EagerUser, so it stays.
+        Assert.assertEquals(1, SHUTDOWN.get());
+        Assert.assertEquals(0, manager.dependedBy(Eager.class));
+        Assert.assertSame(eager, manager.get(Eager.class));
+    }
+
+    @Test
+    public void executorStoppedOutsideLock() throws Exception
+    {
+        manager.register(plugin, Eager.class, Busy.class);
+        manager.boot(plugin, Runnable::run);
+
+        Busy busy = (Busy) manager.get(Busy.class);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        busy.getExecutor().execute(() -> {
+            running.countDown();
+
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Assert.assertTrue(running.await(10, TimeUnit.SECONDS));
+
+        ExecutorService stopper = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> stopping = stopper.submit(() -> manager.shutdown(busy));
+
+            while (busy.isEnabled()) {
+                Thread.sleep(10);
+            }
+
+            // The task of Busy keeps its executor from stopping, the manager is still usable meanwhile.
+            Assert.assertNotNull(manager.get(Eager.class));
+            Assert.assertFalse(stopping.isDone());
+
+            release.countDown();
+            stopping.get(10, TimeUnit.SECONDS);
+            Assert.assertFalse(busy.hasExecutor());
+        } finally {
+            release.countDown();
+            stopper.shutdownNow();
+        }
+    }
+
+    private static class TestModule implements Module
+    {
+        private TestModule(Plugin plugin)
+        {
+        }
+
+        @Override
+        public ModuleInfo getInfo()
+        {
+            return new ModuleInfo(new String[0], "1.0", getClass().getSimpleName(), false);
+        }
+
+        @Override
+        public void boot()
+        {
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+
+        @Override
+        public boolean isEnabled()
+        {
+            return true;
+        }
+    }
+
+    private static class Eager extends TestModule
+    {
+        private Eager(Plugin plugin)
+        {
+            super(plugin);
+        }
+    }
+
+    @Lazy(idleTimeout = 1)
+    @Dependencies(Eager.class)
+    private static class EagerUser extends TestModule
+    {
+        private EagerUser(Plugin plugin)
+        {
+            super(plugin);
+        }
+
+        @Override
+        public void shutdown()
+        {
+            SHUTDOWN.incrementAndGet();
+        }
+    }
+
+    @ExecutionBudget
+    private static class Busy extends BaseModule<Plugin>
+    {
+        private Busy(Plugin plugin)
+        {
+            super(plugin, "Busy", "1.0", false);
+        }
+    }
+
+    @Lazy
+    private static class Deferred extends TestModule
+    {
+        private Deferred(Plugin plugin)
+        {
+            super(plugin);
+            CONSTRUCTED.incrementAndGet();
+        }
+
+        @Override
+        public void boot()
+        {
+            // Gives other threads the time to ask for the module while it boots.
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Lazy(idleTimeout = 1)
+    private static class Idle extends TestModule
+    {
+        private Idle(Plugin plugin)
+        {
+            super(plugin);
+            CONSTRUCTED.incrementAndGet();
+        }
+
+        @Override
+        public void shutdown()
+        {
+            SHUTDOWN.incrementAndGet();
+        }
+    }
+
+    @Lazy(idleTimeout = 1)
+    @Dependencies(Idle.class)
+    private static class IdleUser extends TestModule
+    {
+        private IdleUser(Plugin plugin)
+        {
+            super(plugin);
+            CONSTRUCTED.incrementAndGet();
+        }
+
+        @Override
+        public void shutdown()
+        {
+            SHUTDOWN.incrementAndGet();
+        }
+    }
+}
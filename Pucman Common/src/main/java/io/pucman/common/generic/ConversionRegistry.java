@@ -0,0 +1,407 @@
+package io.pucman.common.generic;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Primitives;
+import io.pucman.common.exception.DeveloperException;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Converts values from one type to another, such as a Number read from a
+ * config into the int of a field, a String into an enum constant, or a List
+ * into an int[].
+ *
+ * The converter of a pair of types is resolved the first time the pair is
+ * asked for and kept, so converting a value afterwards is a lookup and a
+ * call of that converter. A converter is resolved in this order:
+ *
+ * 1. the converter registered for exactly that pair.
+ * 2. the value itself, if it is already an instance of the target type.
+ * 3. the converter registered for a superclass or interface of the source type.
+ * 4. the factories, the last registered first.
+ *
+ * Primitive target types are treated as their wrapper. Registering a
+ * converter or factory drops every resolved converter.
+ *
+ * Numbers are only narrowed when no information is lost: 3.0 converts to
+ * an int but 3.5 or 3000000000 doesn't, a Number out of the range of a
+ * float doesn't convert to one, but a double may be rounded to a float.
+ *
+ * Only numbers, booleans, characters and enum constants convert to a
+ * String, so a list or a section isn't silently turned into its toString.
+ */
+@ParametersAreNonnullByDefault
+public final class ConversionRegistry
+{
+    private static final ConversionRegistry DEFAULT = new ConversionRegistry().registerDefaults();
+
+    /**
+     * Kept for a pair of types that can't be converted, so that isn't
+     * resolved again either. It is only compared against, never called.
+     */
+    private static final Converter<Object, Object> NONE = source -> null;
+
+    private static final Converter<Object, Object> IDENTITY = source -> source;
+
+    /**
+     * Registered converters, by target and then source type.
+     */
+    private final ConcurrentHashMap<Class<?>, Map<Class<?>, Converter<Object, ?>>> converters = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<ConverterFactory> factories = new CopyOnWriteArrayList<>();
+
+    /**
+     * Resolved converters, by source and then target type. Both levels are
+     * class values, so a converter is kept by the target class itself
+     * rather than by a map of this registry or of the source class, and the
+     * classes of a plugin, such as the enums of its fields, can still be
+     * unloaded.
+     */
+    private volatile ClassValue<ClassValue<Converter<Object, ?>>> resolved = newCache();
+
+    /**
+     * Gets the shared registry, it should only be read from. A library or
+     * plugin that registers its own converters should use withDefaults().
+     * @return the shared registry of the default converters.
+     */
+    public static ConversionRegistry getDefault()
+    {
+        return DEFAULT;
+    }
+
+    /**
+     * @return a new registry of its own, starting with the default converters.
+     */
+    public static ConversionRegistry withDefaults()
+    {
+        return new ConversionRegistry().registerDefaults();
+    }
+
+    /**
+     * Registers the converter of a pair of types, it replaces any converter
+     * already registered for the pair.
+     * @param source - type converted from, the converter is also used for its subclasses.
+     * @param target - type converted to.
+     * @param converter - the converter.
+     * @param <S> - type converted from.
+     * @param <T> - type converted to.
+     * @return this registry.
+     */
+    public <S, T> ConversionRegistry register(Class<S> source, Class<T> target, Converter<? super S, ? extends T> converter)
+    {
+        converters.computeIfAbsent(Primitives.wrap(target), key -> new ConcurrentHashMap<>()).put(source, GenericUtil.cast(converter));
+        resolved = newCache();
+        return this;
+    }
+
+    /**
+     * Registers a factory, it is asked before the factories registered before it.
+     * @param factory - the factory.
+     * @return this registry.
+     */
+    public ConversionRegistry registerFactory(ConverterFactory factory)
+    {
+        factories.add(0, factory);
+        resolved = newCache();
+        return this;
+    }
+
+    /**
+     * Gets the converter of a pair of types.
+     * @param source - type converted from.
+     * @param target - type converted to.
+     * @param <T> - type converted to.
+     * @return the converter, or null if there is no converter for the pair.
+     */
+    public <T> Converter<Object, T> get(Class<?> source, Class<T> target)
+    {
+        Converter<Object, ?> converter = resolved.get(source).get(Primitives.wrap(target));
+        return converter == NONE ? null : GenericUtil.cast(converter);
+    }
+
+    /**
+     * @param source - type converted from.
+     * @param target - type converted to.
+     * @return true if there is a converter for the pair.
+     */
+    public boolean canConvert(Class<?> source, Class<?> target)
+    {
+        return get(source, target) != null;
+    }
+
+    /**
+     * Converts a value.
+     * @param value - the value, null is only converted to a type that isn't primitive.
+     * @param target - type converted to, a primitive type returns its wrapper.
+     * @param <T> - type converted to.
+     * @return the converted value.
+     * @throws DeveloperException if there is no converter for the value, or the converter rejects it.
+     */
+    public <T> T convert(Object value, Class<T> target)
+    {
+        if (value == null) {
+            if (target.isPrimitive()) {
+                throw new DeveloperException("null can't be converted to " + target.getName() + ".");
+            }
+
+            return null;
+        }
+
+        Converter<Object, T> converter = get(value.getClass(), target);
+
+        if (converter == null) {
+            throw new DeveloperException(value.getClass().getName() + " " + value + " can't be converted to " + target.getName() + ".");
+        }
+
+        try {
+            return converter.convert(value);
+        } catch (IllegalArgumentException e) {
+            throw new DeveloperException(value + " can't be converted to " + target.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private Converter<Object, ?> resolve(Class<?> source, Class<?> target)
+    {
+        Map<Class<?>, Converter<Object, ?>> registered = converters.getOrDefault(target, ImmutableMap.of());
+        Converter<Object, ?> converter = registered.get(source);
+
+        if (converter != null) {
+            return converter;
+        }
+
+        if (target.isAssignableFrom(source)) {
+            return IDENTITY;
+        }
+
+        for (Class<?> superclass = source.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+            if ((converter = registered.get(superclass)) != null) {
+                return converter;
+            }
+        }
+
+        for (Map.Entry<Class<?>, Converter<Object, ?>> entry : registered.entrySet()) {
+            if (entry.getKey().isAssignableFrom(source)) {
+                return entry.getValue();
+            }
+        }
+
+        for (ConverterFactory factory : factories) {
+            if ((converter = factory.create(source, target, this)) != null) {
+                return converter;
+            }
+        }
+
+        return NONE;
+    }
+
+    /**
+     * The converters by target are kept by the source class, which may be
+     * a class that is never unloaded, such as String, so they only hold on
+     * to this registry weakly. It is alive while it resolves a converter.
+     */
+    private ClassValue<ClassValue<Converter<Object, ?>>> newCache()
+    {
+        WeakReference<ConversionRegistry> registry = new WeakReference<>(this);
+
+        return new ClassValue<ClassValue<Converter<Object, ?>>>()
+        {
+            @Override
+            protected ClassValue<Converter<Object, ?>> computeValue(Class<?> source)
+            {
+                return new ClassValue<Converter<Object, ?>>()
+                {
+                    @Override
+                    protected Converter<Object, ?> computeValue(Class<?> target)
+                    {
+                        return registry.get().resolve(source, target);
+                    }
+                };
+            }
+        };
+    }
+
+    private ConversionRegistry registerDefaults()
+    {
+        register(Number.class, Byte.class, value -> (byte) narrow(value, Byte.MIN_VALUE, Byte.MAX_VALUE, Byte.class));
+        register(Number.class, Short.class, value -> (short) narrow(value, Short.MIN_VALUE, Short.MAX_VALUE, Short.class));
+        register(Number.class, Integer.class, value -> (int) narrow(value, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.class));
+        register(Number.class, Long.class, value -> narrow(value, Long.MIN_VALUE, Long.MAX_VALUE, Long.class));
+        register(Number.class, Float.class, ConversionRegistry::toFloat);
+        register(Number.class, Double.class, Number::doubleValue);
+
+        register(String.class, Byte.class, value -> Byte.valueOf(value.trim()));
+        register(String.class, Short.class, value -> Short.valueOf(value.trim()));
+        register(String.class, Integer.class, value -> Integer.valueOf(value.trim()));
+        register(String.class, Long.class, value -> Long.valueOf(value.trim()));
+        register(String.class, Float.class, value -> Float.valueOf(value.trim()));
+        register(String.class, Double.class, value -> Double.valueOf(value.trim()));
+        register(String.class, Boolean.class, ConversionRegistry::parseBoolean);
+        register(String.class, Character.class, ConversionRegistry::parseCharacter);
+        register(Number.class, String.class, String::valueOf);
+        register(Boolean.class, String.class, String::valueOf);
+        register(Character.class, String.class, String::valueOf);
+        register(Enum.class, String.class, Enum::name);
+
+        registerFactory(ConversionRegistry::enumConverter);
+        registerFactory(ConversionRegistry::arrayConverter);
+        return this;
+    }
+
+    /**
+     * Narrows a Number to a whole number in a range.
+     * @throws IllegalArgumentException if the number isn't whole or out of the range.
+     */
+    private static long narrow(Number value, long min, long max, Class<?> target)
+    {
+        long whole;
+
+        try {
+            if (value instanceof BigInteger) {
+                whole = ((BigInteger) value).longValueExact();
+            } else if (value instanceof BigDecimal) {
+                whole = ((BigDecimal) value).longValueExact();
+            } else if (value instanceof Double || value instanceof Float) {
+                double d = value.doubleValue();
+
+                // 2^63 itself isn't a long, so the upper bound is exclusive.
+                if (d != Math.rint(d) || d < Long.MIN_VALUE || d >= 0x1p63) {
+                    throw new ArithmeticException();
+                }
+
+                whole = (long) d;
+            } else {
+                whole = value.longValue();
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(value + " is not a whole number in the range of " + target.getSimpleName() + ".");
+        }
+
+        if (whole < min || whole > max) {
+            throw new IllegalArgumentException(value + " is out of the range of " + target.getSimpleName() + ".");
+        }
+
+        return whole;
+    }
+
+    /**
+     * Converts a Number to a float, it may be rounded but not overflow.
+     * @throws IllegalArgumentException if the number is out of the range of a float.
+     */
+    private static Float toFloat(Number value)
+    {
+        float f = value.floatValue();
+
+        if (Float.isInfinite(f) && !Double.isInfinite(value.doubleValue())) {
+            throw new IllegalArgumentException(value + " is out of the range of Float.");
+        }
+
+        return f;
+    }
+
+    private static Boolean parseBoolean(String value)
+    {
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+
+        if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+
+        throw new DeveloperException(value + " is not true or false.");
+    }
+
+    private static Character parseCharacter(String value)
+    {
+        if (value.length() != 1) {
+            throw new DeveloperException(value + " is not a single character.");
+        }
+
+        return value.charAt(0);
+    }
+
+    /**
+     * Converts a String into the constant of an enum with that name, the
+     * case of the name only matters if two constants differ only by case.
+     */
+    private static Converter<Object, ?> enumConverter(Class<?> source, Class<?> target, ConversionRegistry registry)
+    {
+        if (!target.isEnum() || source != String.class) {
+            return null;
+        }
+
+        Map<String, Enum<?>> exact = Maps.newHashMap();
+        Map<String, Enum<?>> ignoringCase = Maps.newHashMap();
+
+        for (Object constant : target.getEnumConstants()) {
+            Enum<?> e = (Enum<?>) constant;
+            exact.put(e.name(), e);
+            ignoringCase.putIfAbsent(e.name().toUpperCase(Locale.ROOT), e);
+        }
+
+        ImmutableMap<String, Enum<?>> byName = ImmutableMap.copyOf(exact);
+        ImmutableMap<String, Enum<?>> byUpperName = ImmutableMap.copyOf(ignoringCase);
+
+        return value -> {
+            String name = ((String) value).trim();
+            Enum<?> constant = byName.get(name);
+
+            if (constant == null && (constant = byUpperName.get(name.toUpperCase(Locale.ROOT))) == null) {
+                throw new DeveloperException(name + " is not a constant of " + target.getName() + ".");
+            }
+
+            return constant;
+        };
+    }
+
+    /**
+     * Converts a Collection, such as the List a config returns, into an
+     * array, each element converted to the component type of the array.
+     */
+    private static Converter<Object, ?> arrayConverter(Class<?> source, Class<?> target, ConversionRegistry registry)
+    {
+        if (!target.isArray() || !Collection.class.isAssignableFrom(source)) {
+            return null;
+        }
+
+        Class<?> component = target.getComponentType();
+
+        return value -> {
+            Collection<?> elements = (Collection<?>) value;
+            Object array = Array.newInstance(component, elements.size());
+            int i = 0;
+            Class<?> elementType = null;
+            Converter<Object, ?> converter = null;
+
+            for (Object element : elements) {
+                if (element == null) {
+                    Array.set(array, i++, registry.convert(null, component));
+                    continue;
+                }
+
+                // Elements are mostly of one type, so its converter is only looked up again when the type changes.
+                if (element.getClass() != elementType) {
+                    elementType = element.getClass();
+                    converter = registry.get(elementType, component);
+
+                    if (converter == null) {
+                        throw new DeveloperException("Element " + element + " can't be converted to " + component.getName() + ".");
+                    }
+                }
+
+                Array.set(array, i++, converter.convert(element));
+            }
+
+            return array;
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package io.pucman.common.generic;
+
+/**
+ * Converts a value of one type into another.
+ *
+ * @see ConversionRegistry
+ * @param <S> - type converted from.
+ * @param <T> - type converted to.
+ */
+@FunctionalInterface
+public interface Converter<S, T>
+{
+    /**
+     * @param source - the value, never null.
+     * @return the converted value.
+     */
+    T convert(S source);
+}
@@ -0,0 +1,20 @@
+package io.pucman.common.generic;
+
+/**
+ * Makes converters for a family of types, such as every enum or every array
+ * type, that can't each be registered by hand.
+ *
+ * @see ConversionRegistry
+ */
+@FunctionalInterface
+public interface ConverterFactory
+{
+    /**
+     * Makes the converter of a pair of types.
+     * @param source - type converted from.
+     * @param target - type converted to, primitive types are passed as their wrapper.
+     * @param registry - the registry, to get the converters of element types from.
+     * @return the converter, or null if this factory doesn't convert between those types.
+     */
+    Converter<Object, ?> create(Class<?> source, Class<?> target, ConversionRegistry registry);
+}
@@ -1,5 +1,6 @@
 package io.pucman.common.generic;
 
+import com.google.common.primitives.Primitives;
 import io.pucman.common.exception.UtilException;
 
 /**
@@ -27,13 +28,17 @@ public final class GenericUtil
         return false;
     }
 
+    /**
+     * Check if a object is an instance of the class. For converting a value
+     * into another type, use ConversionRegistry.
+     * @param o - object.
+     * @param clazz - class, a primitive class is treated as its wrapper.
+     * @param <T> - generic type.
+     * @return true if castable, false if not,
+     */
     public static <T> boolean castable(Object o, Class<T> clazz)
     {
-        try {
-            T t = (T) o;
-            return true;
-        } catch (ClassCastException ingore) {}
-        return false;
+        return Primitives.wrap(clazz).isInstance(o);
     }
 
     /**
@@ -1,11 +1,20 @@
 package io.pucman.common.math;
 
+import com.google.common.primitives.Primitives;
 import io.pucman.common.exception.DeveloperException;
 import io.pucman.common.exception.UtilException;
 import io.pucman.common.generic.GenericUtil;
 
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
 /**
  * For converting a string into a number.
+ *
+ * The tryParse methods read the characters themselves, so bad input, such
+ * as a player typing garbage into a command, returns the fallback rather
+ * than throwing and filling in a stack trace, and no number is boxed.
  */
 public final class NumberUtil
 {
@@ -15,49 +24,289 @@ public final class NumberUtil
     }
 
     /**
-     * Checking if it is parsable.
+     * Checking if it is parsable, without throwing on bad input.
      * @param value - the string number.
-     * @param type - the number you want it to be.
+     * @param type - the number you want it to be, primitive or wrapper class.
      * @return true if it can be parsed, false if not.
      */
     public static boolean parseable(String value, Class<?> type)
     {
-        return parse(value, type) != null;
+        Class<?> primitive = Primitives.unwrap(type);
+
+        if (primitive.equals(byte.class)) {
+            return isLong(value, Byte.MIN_VALUE, Byte.MAX_VALUE);
+        }
+
+        if (primitive.equals(short.class)) {
+            return isLong(value, Short.MIN_VALUE, Short.MAX_VALUE);
+        }
+
+        if (primitive.equals(int.class)) {
+            return isLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+
+        if (primitive.equals(long.class)) {
+            return isLong(value, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+
+        if (primitive.equals(double.class)) {
+            return isDouble(value, -Double.MAX_VALUE, Double.MAX_VALUE);
+        }
+
+        if (primitive.equals(float.class)) {
+            return isDouble(value, -Float.MAX_VALUE, Float.MAX_VALUE);
+        }
+
+        throw new DeveloperException("NumberUtils.parseable(" + value + ", " + type.getSimpleName() + ") is not a number type.");
     }
 
     /**
      * Parsing the string number into it's primitive type.
      * @param value - the string number.
-     * @param type - the number class.
+     * @param type - the number class, primitive or wrapper class.
      * @param <N> - generic type.
      * @return the parsed number.
      */
     public static <N extends Number> N parse(String value, Class<?> type)
     {
-        if (type.equals(byte.class)) {
+        Class<?> primitive = Primitives.unwrap(type);
+
+        if (primitive.equals(byte.class)) {
             return GenericUtil.cast(Byte.parseByte(value));
         }
 
-        if (type.equals(short.class)) {
+        if (primitive.equals(short.class)) {
             return GenericUtil.cast(Short.parseShort(value));
         }
 
-        if (type.equals(int.class)) {
+        if (primitive.equals(int.class)) {
             return GenericUtil.cast(Integer.parseInt(value));
         }
 
-        if (type.equals(double.class)) {
+        if (primitive.equals(double.class)) {
             return GenericUtil.cast(Double.parseDouble(value));
         }
 
-        if (type.equals(long.class)) {
+        if (primitive.equals(long.class)) {
             return GenericUtil.cast(Long.parseLong(value));
         }
 
-        if (type.equals(float.class)) {
+        if (primitive.equals(float.class)) {
             return GenericUtil.cast(Float.parseFloat(value));
         }
 
         throw new DeveloperException("NumberUtils.parse(" + value + ", " + type.getSimpleName() + ") returned null.");
     }
+
+    /**
+     * Parses an int.
+     * @param value - the string number.
+     * @param fallback - returned if the value isn't an int.
+     * @return the int, or the fallback.
+     */
+    public static int tryParseInt(CharSequence value, int fallback)
+    {
+        return (int) tryParseLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE, fallback);
+    }
+
+    /**
+     * Parses an int within a range, such as a page number.
+     * @param value - the string number.
+     * @param min - lowest value allowed.
+     * @param max - highest value allowed.
+     * @param fallback - returned if the value isn't an int within the range.
+     * @return the int, or the fallback.
+     */
+    public static int tryParseInt(CharSequence value, int min, int max, int fallback)
+    {
+        return (int) tryParseLong(value, min, max, fallback);
+    }
+
+    /**
+     * Parses a long.
+     * @param value - the string number.
+     * @param fallback - returned if the value isn't a long.
+     * @return the long, or the fallback.
+     */
+    public static long tryParseLong(CharSequence value, long fallback)
+    {
+        return tryParseLong(value, Long.MIN_VALUE, Long.MAX_VALUE, fallback);
+    }
+
+    /**
+     * Parses a long within a range.
+     * @param value - the string number, digits with an optional sign.
+     * @param min - lowest value allowed.
+     * @param max - highest value allowed.
+     * @param fallback - returned if the value isn't a long within the range.
+     * @return the long, or the fallback.
+     */
+    public static long tryParseLong(CharSequence value, long min, long max, long fallback)
+    {
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            i++;
+        }
+
+        if (i == length) {
+            return fallback;
+        }
+
+        // Accumulated negatively, like Long.parseLong does, so Long.MIN_VALUE fits.
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long result = 0;
+
+        for (; i < length; i++) {
+            int digit = value.charAt(i) - '0';
+
+            if (digit < 0 || digit > 9 || result < limit / 10) {
+                return fallback;
+            }
+
+            result *= 10;
+
+            if (result < limit + digit) {
+                return fallback;
+            }
+
+            result -= digit;
+        }
+
+        long parsed = negative ? result : -result;
+        return parsed < min || parsed > max ? fallback : parsed;
+    }
+
+    /**
+     * Parses a double.
+     * @param value - the string number.
+     * @param fallback - returned if the value isn't a finite double.
+     * @return the double, or the fallback.
+     */
+    public static double tryParseDouble(CharSequence value, double fallback)
+    {
+        return tryParseDouble(value, -Double.MAX_VALUE, Double.MAX_VALUE, fallback);
+    }
+
+    /**
+     * Parses a double within a range. The value is checked before it is
+     * handed to Double.parseDouble, so that never throws.
+     * @param value - the string number, as in -1.5 or 2e3. NaN and Infinity aren't accepted.
+     * @param min - lowest value allowed.
+     * @param max - highest value allowed.
+     * @param fallback - returned if the value isn't a double within the range.
+     * @return the double, or the fallback.
+     */
+    public static double tryParseDouble(CharSequence value, double min, double max, double fallback)
+    {
+        if (!isDecimal(value)) {
+            return fallback;
+        }
+
+        double parsed = Double.parseDouble(value.toString());
+        return parsed < min || parsed > max ? fallback : parsed;
+    }
+
+    /**
+     * Parses an int. Allocates the optional, use tryParseInt where that matters.
+     * @param value - the string number.
+     * @return the int, or an empty optional if the value isn't an int.
+     */
+    public static OptionalInt parseInt(CharSequence value)
+    {
+        return isLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE) ? OptionalInt.of(tryParseInt(value, 0)) : OptionalInt.empty();
+    }
+
+    /**
+     * Parses a long. Allocates the optional, use tryParseLong where that matters.
+     * @param value - the string number.
+     * @return the long, or an empty optional if the value isn't a long.
+     */
+    public static OptionalLong parseLong(CharSequence value)
+    {
+        return isLong(value, Long.MIN_VALUE, Long.MAX_VALUE) ? OptionalLong.of(tryParseLong(value, 0)) : OptionalLong.empty();
+    }
+
+    /**
+     * Parses a double. Allocates the optional, use tryParseDouble where that matters.
+     * @param value - the string number.
+     * @return the double, or an empty optional if the value isn't a finite double.
+     */
+    public static OptionalDouble parseDouble(CharSequence value)
+    {
+        return isDouble(value, -Double.MAX_VALUE, Double.MAX_VALUE) ? OptionalDouble.of(tryParseDouble(value, 0)) : OptionalDouble.empty();
+    }
+
+    /**
+     * @return true if the value is a whole number within the range.
+     */
+    private static boolean isLong(CharSequence value, long min, long max)
+    {
+        // No number can be parsed as both fallbacks.
+        return tryParseLong(value, min, max, 0) != 0 || tryParseLong(value, min, max, 1) != 1;
+    }
+
+    /**
+     * @return true if the value is a decimal number within the range.
+     */
+    private static boolean isDouble(CharSequence value, double min, double max)
+    {
+        return !Double.isNaN(tryParseDouble(value, min, max, Double.NaN));
+    }
+
+    /**
+     * @return true if the value has an optional sign, digits with an optional
+     * decimal point, and an optional exponent.
+     */
+    private static boolean isDecimal(CharSequence value)
+    {
+        int length = value.length();
+        int i = 0;
+
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+
+        int digits = 0;
+        boolean point = false;
+
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+
+        if (digits == 0) {
+            return false;
+        }
+
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+
+            if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
+            }
+
+            int exponent = 0;
+
+            for (; i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9'; i++) {
+                exponent++;
+            }
+
+            if (exponent == 0) {
+                return false;
+            }
+        }
+
+        return i == length;
+    }
 }
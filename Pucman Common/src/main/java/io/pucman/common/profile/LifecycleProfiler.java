@@ -0,0 +1,278 @@
+package io.pucman.common.profile;
+
+import com.google.common.collect.Ordering;
+import io.pucman.common.exception.DeveloperException;
+import lombok.Getter;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Records how long each step of starting and stopping a plugin takes, such
+ * as enabling a manager or booting a module, and on which thread it ran.
+ *
+ * The timeline can be written as a report for the console, or as a file in
+ * the trace event format, which chrome://tracing and other trace viewers
+ * open as a chart of the steps of each thread.
+ *
+ * Steps keep being recorded after starting, such as lazy modules booting
+ * and shutting down, so only the latest steps are kept, up to a capacity.
+ */
+@ParametersAreNonnullByDefault
+public final class LifecycleProfiler
+{
+    /**
+     * Steps kept by default.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Everything recorded is relative to when the profiler was made.
+     */
+    private final long origin = System.nanoTime();
+    private final ConcurrentLinkedQueue<Entry> entries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final int capacity;
+
+    public LifecycleProfiler()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity - the most steps kept, the oldest are dropped beyond it.
+     */
+    public LifecycleProfiler(int capacity)
+    {
+        if (capacity < 1) {
+            throw new DeveloperException("Capacity of a profiler must be at least 1, not " + capacity + ".");
+        }
+
+        this.capacity = capacity;
+    }
+
+    /**
+     * CONSTRUCT - making the component.
+     * LOAD - loading its data before it is enabled, such as off the main thread.
+     * ENABLE - enabling or booting it.
+     * DISABLE - disabling or shutting it down.
+     */
+    public enum Phase
+    {
+        CONSTRUCT, LOAD, ENABLE, DISABLE
+    }
+
+    /**
+     * A step of the timeline.
+     */
+    @Getter
+    public static final class Entry
+    {
+        private final String component;
+        private final Phase phase;
+        private final String thread;
+
+        /**
+         * Nanoseconds from when the profiler was made until the step started.
+         */
+        private final long start;
+        private final long duration;
+
+        private Entry(String component, Phase phase, String thread, long start, long duration)
+        {
+            this.component = component;
+            this.phase = phase;
+            this.thread = thread;
+            this.start = start;
+            this.duration = duration;
+        }
+    }
+
+    /**
+     * Runs a step and records it.
+     * @param component - name of the component, such as the manager or module.
+     * @param phase - the phase.
+     * @param step - the step.
+     */
+    public void record(String component, Phase phase, Runnable step)
+    {
+        record(component, phase, () -> {
+            step.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a step and records it, even if the step throws.
+     * @param component - name of the component, such as the manager or module.
+     * @param phase - the phase.
+     * @param step - the step.
+     * @param <T> - result of the step.
+     * @return the result of the step.
+     */
+    public <T> T record(String component, Phase phase, Supplier<T> step)
+    {
+        long start = System.nanoTime();
+
+        try {
+            return step.get();
+        } finally {
+            add(new Entry(component, phase, Thread.currentThread().getName(), start - origin, System.nanoTime() - start));
+        }
+    }
+
+    private void add(Entry entry)
+    {
+        entries.add(entry);
+
+        // Dropped one for one, so the queue only ever briefly holds more than the capacity.
+        if (size.incrementAndGet() > capacity && entries.poll() != null) {
+            size.decrementAndGet();
+            dropped.increment();
+        }
+    }
+
+    /**
+     * @return steps dropped as more than the capacity were recorded.
+     */
+    public long getDropped()
+    {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the steps recorded so far, by when they started.
+     */
+    public List<Entry> getTimeline()
+    {
+        return Ordering.from(Comparator.comparingLong(Entry::getStart)).immutableSortedCopy(entries);
+    }
+
+    /**
+     * @param limit - how many steps to return.
+     * @return the slowest steps recorded so far, the slowest first.
+     */
+    public List<Entry> getSlowest(int limit)
+    {
+        return Ordering.from(Comparator.comparingLong(Entry::getDuration)).greatestOf(entries, limit);
+    }
+
+    /**
+     * Forgets the steps recorded so far.
+     */
+    public void clear()
+    {
+        for (Entry ignored; (ignored = entries.poll()) != null; ) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Formats the timeline for the console, a line for each step with
+     * when it started, how long it took, and the thread it ran on,
+     * followed by the slowest steps.
+     * @return the report.
+     */
+    public String report()
+    {
+        List<Entry> timeline = getTimeline();
+        StringBuilder sb = new StringBuilder(64 * (timeline.size() + 8));
+        sb.append("Lifecycle timeline, ").append(timeline.size()).append(" steps");
+
+        if (getDropped() > 0) {
+            sb.append(", ").append(getDropped()).append(" older steps dropped");
+        }
+
+        sb.append(':');
+
+        for (Entry entry : timeline) {
+            sb.append(String.format("\n  +%.1fms ", entry.start / 1e6));
+            append(sb, entry);
+        }
+
+        sb.append("\nSlowest steps:");
+
+        for (Entry entry : getSlowest(5)) {
+            append(sb.append("\n  "), entry);
+        }
+
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, Entry entry)
+    {
+        sb.append(entry.phase).append(' ').append(entry.component).append(String.format(" took %.2fms on ", entry.duration / 1e6)).append(entry.thread);
+    }
+
+    /**
+     * Writes the timeline as a trace event file.
+     * @param path - the file.
+     * @throws IOException if the file can't be written.
+     */
+    public void write(Path path) throws IOException
+    {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            write(writer);
+        }
+    }
+
+    /**
+     * Writes the timeline in the trace event format, a complete event for
+     * each step, in microseconds.
+     * @param writer - where to write the timeline.
+     * @throws IOException if it can't be written.
+     */
+    public void write(Writer writer) throws IOException
+    {
+        List<Entry> timeline = getTimeline();
+        writer.write("{\"traceEvents\":[");
+
+        for (int i = 0; i < timeline.size(); i++) {
+            Entry entry = timeline.get(i);
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("{\"name\":");
+            quote(writer, entry.component);
+            writer.write(",\"cat\":\"" + entry.phase + "\",\"ph\":\"X\",\"pid\":1,\"tid\":");
+            quote(writer, entry.thread);
+            writer.write(",\"ts\":" + TimeUnit.NANOSECONDS.toMicros(entry.start) + ",\"dur\":" + TimeUnit.NANOSECONDS.toMicros(entry.duration) + "}");
+        }
+
+        writer.write("\n]}\n");
+    }
+
+    private static void quote(Writer writer, String value) throws IOException
+    {
+        writer.write('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+
+        writer.write('"');
+    }
+}
@@ -0,0 +1,310 @@
+package io.pucman.common.reflect;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.pucman.common.generic.GenericUtil;
+import io.pucman.common.reflect.accessors.FieldAccessor;
+import io.pucman.common.reflect.accessors.MethodAccessor;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Index of the members of a class. The members are read from the class
+ * once, when the index is first needed, and kept in maps by name, so
+ * finding a member doesn't scan or copy the member arrays of the class
+ * again. The index of a class is built on the index of its superclass,
+ * so each class of a hierarchy is only read once.
+ *
+ * A member is found by name, and methods and constructors by their
+ * parameters among the overloads with that name. Members can be found in
+ * the class itself, publicly as Class#getField and Class#getMethod do, or
+ * anywhere in the hierarchy whatever their visibility, the closest class
+ * first. The hierarchy stops before Object.
+ *
+ * @see ReflectUtil.Type
+ */
+@ParametersAreNonnullByDefault
+public final class MemberIndex
+{
+    private static final ClassValue<MemberIndex> INDEXES = new ClassValue<MemberIndex>()
+    {
+        @Override
+        protected MemberIndex computeValue(Class<?> type)
+        {
+            return new MemberIndex(type);
+        }
+    };
+
+    private final Class<?> type;
+
+    private final ImmutableMap<String, Field> declaredFields;
+    private final ImmutableMap<String, Method[]> declaredMethods;
+    private final Constructor<?>[] declaredConstructors;
+
+    private final ImmutableMap<String, Field> hierarchyFields;
+    private final ImmutableMap<String, Method[]> hierarchyMethods;
+
+    /**
+     * Fields and methods of the whole hierarchy, the superclasses first.
+     */
+    private final ImmutableList<Field> allFields;
+    private final ImmutableList<Method> allMethods;
+
+    /**
+     * Public members are only read the first time they are needed, as
+     * reading them also walks the interfaces of the class.
+     */
+    private volatile ImmutableMap<String, Field> publicFields;
+    private volatile ImmutableMap<String, Method[]> publicMethods;
+
+    private final ConcurrentHashMap<Class<? extends Annotation>, List<FieldAccessor<Object>>> annotatedFields = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<? extends Annotation>, List<MethodAccessor<Object>>> annotatedMethods = new ConcurrentHashMap<>();
+
+    private MemberIndex(Class<?> type)
+    {
+        this.type = type;
+        Class<?> superclass = type.getSuperclass();
+        MemberIndex parent = superclass == null || superclass == Object.class ? null : INDEXES.get(superclass);
+
+        Field[] fields = type.getDeclaredFields();
+        Method[] methods = type.getDeclaredMethods();
+        this.declaredConstructors = type.getDeclaredConstructors();
+        this.declaredFields = indexFields(fields);
+        this.declaredMethods = indexMethods(Arrays.asList(methods));
+
+        LinkedHashMap<String, Field> hierarchyFields = Maps.newLinkedHashMap(parent == null ? ImmutableMap.of() : parent.hierarchyFields);
+        hierarchyFields.putAll(declaredFields);
+        this.hierarchyFields = ImmutableMap.copyOf(hierarchyFields);
+
+        List<Method> hierarchyMethods = Lists.newArrayList(methods);
+
+        if (parent != null) {
+            for (Method[] overloads : parent.hierarchyMethods.values()) {
+                for (Method method : overloads) {
+                    // A method overridden by this class is found here rather than in its superclass.
+                    if (find(declaredMethods, method.getName(), method.getParameterTypes()) == null) {
+                        hierarchyMethods.add(method);
+                    }
+                }
+            }
+        }
+
+        this.hierarchyMethods = indexMethods(hierarchyMethods);
+        this.allFields = ImmutableList.<Field>builder().addAll(parent == null ? ImmutableList.of() : parent.allFields).add(fields).build();
+        this.allMethods = ImmutableList.<Method>builder().addAll(parent == null ? ImmutableList.of() : parent.allMethods).add(methods).build();
+    }
+
+    /**
+     * Gets the index of a class, it is only built the first time.
+     * @param type - the class.
+     * @return the index.
+     */
+    public static MemberIndex of(Class<?> type)
+    {
+        return INDEXES.get(type);
+    }
+
+    /**
+     * @return the class this is the index of.
+     */
+    public Class<?> getType()
+    {
+        return type;
+    }
+
+    /**
+     * Finds a field.
+     * @param name - name of the field.
+     * @param type - where to look for the field.
+     * @return the field, or null if there is no such field.
+     */
+    public Field getField(String name, ReflectUtil.Type type)
+    {
+        return fields(type).get(name);
+    }
+
+    /**
+     * Finds a method. If no parameters are given and no method takes none,
+     * but only one method has that name, that method is returned instead,
+     * so a method can be looked up by its name alone. Parameters that are
+     * given must match exactly.
+     * @param name - name of the method.
+     * @param type - where to look for the method.
+     * @param parameters - parameters of the method.
+     * @return the method, or null if there is no such method.
+     */
+    public Method getMethod(String name, ReflectUtil.Type type, Class<?>... parameters)
+    {
+        Map<String, Method[]> methods = methods(type);
+        Method method = find(methods, name, parameters);
+
+        if (method == null && parameters.length == 0) {
+            Method[] overloads = methods.get(name);
+            return overloads != null && overloads.length == 1 ? overloads[0] : null;
+        }
+
+        return method;
+    }
+
+    /**
+     * Finds a constructor. Constructors aren't inherited, so HIERARCHY
+     * finds the same constructors as DECLARED.
+     * @param type - where to look for the constructor.
+     * @param parameters - parameters of the constructor.
+     * @return the constructor, or null if there is no such constructor.
+     */
+    public Constructor<?> getConstructor(ReflectUtil.Type type, Class<?>... parameters)
+    {
+        for (Constructor<?> constructor : declaredConstructors) {
+            if ((type != ReflectUtil.Type.PUBLIC || Modifier.isPublic(constructor.getModifiers())) && Arrays.equals(constructor.getParameterTypes(), parameters)) {
+                return constructor;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the fields of the class and its superclasses, the superclasses first.
+     */
+    public List<Field> getFields()
+    {
+        return allFields;
+    }
+
+    /**
+     * @return the methods of the class and its superclasses, the superclasses first.
+     */
+    public List<Method> getMethods()
+    {
+        return allMethods;
+    }
+
+    /**
+     * Gets the fields of the class and its superclasses that have the
+     * annotation. The list is only computed the first time an annotation
+     * is asked for.
+     * @param annotation - the annotation.
+     * @return the accessors of those fields.
+     */
+    public List<FieldAccessor<Object>> getFields(Class<? extends Annotation> annotation)
+    {
+        List<FieldAccessor<Object>> fields = annotatedFields.get(annotation);
+        return fields != null ? fields : annotatedFields.computeIfAbsent(annotation, key -> annotated(allFields, key, ReflectUtil::wrapField));
+    }
+
+    /**
+     * Gets the methods of the class and its superclasses that have the
+     * annotation. The list is only computed the first time an annotation
+     * is asked for.
+     * @param annotation - the annotation.
+     * @return the accessors of those methods.
+     */
+    public List<MethodAccessor<Object>> getMethods(Class<? extends Annotation> annotation)
+    {
+        List<MethodAccessor<Object>> methods = annotatedMethods.get(annotation);
+        return methods != null ? methods : annotatedMethods.computeIfAbsent(annotation, key -> annotated(allMethods, key, ReflectUtil::wrapMethod));
+    }
+
+    private Map<String, Field> fields(ReflectUtil.Type type)
+    {
+        switch (type) {
+            case DECLARED:
+                return declaredFields;
+            case HIERARCHY:
+                return hierarchyFields;
+            default:
+                if (publicFields == null) {
+                    publicFields = indexFields(this.type.getFields());
+                }
+
+                return publicFields;
+        }
+    }
+
+    private Map<String, Method[]> methods(ReflectUtil.Type type)
+    {
+        switch (type) {
+            case DECLARED:
+                return declaredMethods;
+            case HIERARCHY:
+                return hierarchyMethods;
+            default:
+                if (publicMethods == null) {
+                    publicMethods = indexMethods(Arrays.asList(this.type.getMethods()));
+                }
+
+                return publicMethods;
+        }
+    }
+
+    private static Method find(Map<String, Method[]> methods, String name, Class<?>[] parameters)
+    {
+        Method[] overloads = methods.get(name);
+
+        if (overloads == null) {
+            return null;
+        }
+
+        for (Method method : overloads) {
+            if (Arrays.equals(method.getParameterTypes(), parameters)) {
+                return method;
+            }
+        }
+
+        return null;
+    }
+
+    private static ImmutableMap<String, Field> indexFields(Field[] fields)
+    {
+        LinkedHashMap<String, Field> index = Maps.newLinkedHashMap();
+
+        for (Field field : fields) {
+            // Public fields of a subclass come first, so those win over the ones they hide.
+            index.putIfAbsent(field.getName(), field);
+        }
+
+        return ImmutableMap.copyOf(index);
+    }
+
+    private static ImmutableMap<String, Method[]> indexMethods(List<Method> methods)
+    {
+        LinkedHashMap<String, List<Method>> index = Maps.newLinkedHashMap();
+
+        for (Method method : methods) {
+            index.computeIfAbsent(method.getName(), name -> Lists.newArrayList()).add(method);
+        }
+
+        ImmutableMap.Builder<String, Method[]> builder = ImmutableMap.builder();
+        index.forEach((name, overloads) -> builder.put(name, overloads.toArray(new Method[overloads.size()])));
+        return builder.build();
+    }
+
+    private static <M extends AccessibleObject, A> List<A> annotated(List<M> members, Class<? extends Annotation> annotation, Function<M, Object> wrapper)
+    {
+        ImmutableList.Builder<A> builder = ImmutableList.builder();
+
+        for (M member : members) {
+            if (member.isAnnotationPresent(annotation)) {
+                A accessor = GenericUtil.cast(wrapper.apply(member));
+                builder.add(accessor);
+            }
+        }
+
+        return builder.build();
+    }
+}
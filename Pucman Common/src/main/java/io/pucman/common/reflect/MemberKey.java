@@ -0,0 +1,167 @@
+package io.pucman.common.reflect;
+
+import java.util.Arrays;
+
+/**
+ * Identifies a reflected member in the ReflectUtil cache. The key holds
+ * the classes themselves, so resolving it never has to parse a name or
+ * load a class again.
+ *
+ * ReflectUtil looks up the cache with a reusable probe key per thread, so
+ * a lookup that hits the cache doesn't allocate anything. A key is only
+ * copied when the member is missing and has to be loaded.
+ *
+ * @see ReflectUtil
+ * @see ReflectCacheLoader
+ */
+public final class MemberKey
+{
+    private static final Class<?>[] NO_PARAMETERS = new Class<?>[0];
+
+    /**
+     * FIELD, METHOD, CONSTRUCTOR - the kind of member the key points to.
+     */
+    public enum Kind
+    {
+        FIELD, METHOD, CONSTRUCTOR
+    }
+
+    private Kind kind;
+    private Class<?> clazz;
+    private String name;
+    private ReflectUtil.Type type;
+    private Class<?>[] parameters;
+    private int hash;
+
+    MemberKey()
+    {
+    }
+
+    /**
+     * Makes a key.
+     * @param kind - kind of member.
+     * @param clazz - class the member is looked up in.
+     * @param name - name of the member, null for constructors.
+     * @param type - public or declared.
+     * @param parameters - parameters of the member, empty for fields.
+     * @return the key.
+     */
+    public static MemberKey of(Kind kind, Class<?> clazz, String name, ReflectUtil.Type type, Class<?>... parameters)
+    {
+        return new MemberKey().reset(kind, clazz, name, type, parameters.length == 0 ? NO_PARAMETERS : parameters.clone());
+    }
+
+    /**
+     * Points this key at another member, used for the probe keys. The parameter
+     * array is not copied.
+     * @return this key.
+     */
+    MemberKey reset(Kind kind, Class<?> clazz, String name, ReflectUtil.Type type, Class<?>[] parameters)
+    {
+        this.kind = kind;
+        this.clazz = clazz;
+        this.name = name;
+        this.type = type;
+        this.parameters = parameters;
+
+        int hash = kind.hashCode();
+        hash = 31 * hash + clazz.hashCode();
+        hash = 31 * hash + (name == null ? 0 : name.hashCode());
+        hash = 31 * hash + type.hashCode();
+        this.hash = 31 * hash + Arrays.hashCode(parameters);
+        return this;
+    }
+
+    /**
+     * Drops the references a probe key holds onto, so it doesn't keep classes loaded.
+     */
+    void clear()
+    {
+        this.clazz = null;
+        this.name = null;
+        this.parameters = null;
+    }
+
+    /**
+     * @return a copy of this key that is safe to store.
+     */
+    MemberKey copy()
+    {
+        return of(kind, clazz, name, type, parameters);
+    }
+
+    public Kind getKind()
+    {
+        return kind;
+    }
+
+    public Class<?> getDeclaringClass()
+    {
+        return clazz;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public ReflectUtil.Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return a copy of the parameters of the member.
+     */
+    public Class<?>[] getParameters()
+    {
+        return parameters.clone();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof MemberKey)) {
+            return false;
+        }
+
+        MemberKey key = (MemberKey) o;
+        return hash == key.hash && kind == key.kind && clazz == key.clazz && type == key.type && (name == null ? key.name == null : name.equals(key.name)) && Arrays.equals(parameters, key.parameters);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder(kind.name()).append(" ").append(clazz == null ? "null" : clazz.getName());
+
+        if (name != null) {
+            sb.append("#").append(name);
+        }
+
+        if (kind != Kind.FIELD && parameters != null) {
+            sb.append("(");
+
+            for (int i = 0; i < parameters.length; i++) {
+                sb.append(parameters[i].getName());
+
+                if (i + 1 != parameters.length) {
+                    sb.append(", ");
+                }
+            }
+
+            sb.append(")");
+        }
+
+        return sb.append(" [").append(type).append("]").toString();
+    }
+}
@@ -0,0 +1,83 @@
+package io.pucman.common.reflect;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the accessors of one class. A table is attached to its class through
+ * a ClassValue, so each member is resolved once and kept for as long as the
+ * class is loaded. When a plugin is unloaded its classloader, classes and
+ * tables are collected together, nothing here keeps them alive.
+ *
+ * @see ReflectUtil
+ */
+final class MemberTable
+{
+    /**
+     * ClassValue the tables are attached with.
+     */
+    static final ClassValue<MemberTable> TABLES = new ClassValue<MemberTable>()
+    {
+        @Override
+        protected MemberTable computeValue(Class<?> type)
+        {
+            return new MemberTable();
+        }
+    };
+
+    private final ConcurrentHashMap<MemberKey, Object> accessors = new ConcurrentHashMap<>();
+
+    private MemberTable()
+    {
+    }
+
+    /**
+     * Gets the accessor the key points to, loading it if this table doesn't have it yet.
+     * @param key - the key, may be a probe key as it is copied before being stored.
+     * @param loader - loader to resolve the member with.
+     * @param stats - statistics to record the lookup in.
+     * @param warmUp - whether this lookup is part of a warm-up.
+     * @return the accessor.
+     */
+    Object get(MemberKey key, ReflectCacheLoader loader, ReflectStats stats, boolean warmUp)
+    {
+        Object accessor = accessors.get(key);
+
+        if (accessor != null) {
+            stats.hit();
+            return accessor;
+        }
+
+        return accessors.computeIfAbsent(key.copy(), k -> {
+            long start = System.nanoTime();
+            Object loaded;
+
+            try {
+                loaded = loader.load(k);
+            } catch (Throwable t) {
+                stats.failed(System.nanoTime() - start, warmUp);
+                throw t;
+            }
+
+            stats.loaded(k, System.nanoTime() - start, warmUp);
+            return loaded;
+        });
+    }
+
+    /**
+     * Stores an accessor that was made elsewhere.
+     * @param key - key of the accessor.
+     * @param accessor - the accessor.
+     */
+    void put(MemberKey key, Object accessor)
+    {
+        accessors.put(key, accessor);
+    }
+
+    /**
+     * @return the amount of accessors in this table.
+     */
+    int size()
+    {
+        return accessors.size();
+    }
+}
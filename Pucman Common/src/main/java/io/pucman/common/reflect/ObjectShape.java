@@ -0,0 +1,246 @@
+package io.pucman.common.reflect;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.generic.GenericUtil;
+import io.pucman.common.reflect.accessors.FieldAccessor;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The field layout of a class. The instance fields of the class and its
+ * superclasses are resolved once into an array of accessors, so a whole
+ * object can be read into an Object[] or Map, or written back from one, in
+ * a single pass without looking anything up.
+ *
+ * Values are ordered the same way as getNames(), superclass fields first.
+ * Annotated fields are found through MemberIndex.getFields(Class).
+ *
+ * @param <T> - the class.
+ */
+@ParametersAreNonnullByDefault
+public final class ObjectShape<T>
+{
+    private static final ClassValue<ObjectShape<?>> SHAPES = new ClassValue<ObjectShape<?>>()
+    {
+        @Override
+        protected ObjectShape<?> computeValue(Class<?> type)
+        {
+            return new ObjectShape<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final String[] names;
+    private final FieldAccessor<Object>[] accessors;
+    private final ImmutableMap<String, Integer> indexes;
+
+    private ObjectShape(Class<T> type)
+    {
+        this.type = type;
+        LinkedList<Class<?>> hierarchy = Lists.newLinkedList();
+
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            hierarchy.addFirst(clazz);
+        }
+
+        List<FieldAccessor<Object>> accessors = Lists.newArrayList();
+        LinkedHashMap<String, Integer> indexes = Maps.newLinkedHashMap();
+
+        for (Class<?> clazz : hierarchy) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+
+                // A field hiding one of its superclass is indexed by its own name, the hidden one stays readable by position.
+                indexes.put(field.getName(), accessors.size());
+                FieldAccessor<Object> accessor = GenericUtil.cast(ReflectUtil.wrapField(field));
+                accessors.add(accessor);
+            }
+        }
+
+        this.accessors = GenericUtil.cast(accessors.toArray(new FieldAccessor<?>[accessors.size()]));
+        this.names = new String[this.accessors.length];
+        this.indexes = ImmutableMap.copyOf(indexes);
+
+        for (int i = 0; i < this.accessors.length; i++) {
+            names[i] = this.accessors[i].getName();
+        }
+    }
+
+    /**
+     * Gets the shape of a class, it is only computed the first time.
+     * @param type - the class.
+     * @param <T> - generic type.
+     * @return the shape.
+     */
+    public static <T> ObjectShape<T> of(Class<T> type)
+    {
+        return GenericUtil.cast(SHAPES.get(type));
+    }
+
+    /**
+     * @return the class this is the shape of.
+     */
+    public Class<T> getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return the amount of fields.
+     */
+    public int size()
+    {
+        return accessors.length;
+    }
+
+    /**
+     * @return the names of the fields, in the order values are read and written in.
+     */
+    public List<String> getNames()
+    {
+        return ImmutableList.copyOf(names);
+    }
+
+    /**
+     * Gets the position of a field.
+     * @param name - name of the field.
+     * @return the position, or -1 if there is no such field.
+     */
+    public int indexOf(String name)
+    {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets the accessor of a field by its position.
+     * @param index - position of the field.
+     * @return the accessor.
+     */
+    public FieldAccessor<Object> getAccessor(int index)
+    {
+        return accessors[index];
+    }
+
+    /**
+     * Reads every field of an object.
+     * @param instance - the object.
+     * @return the values.
+     */
+    public Object[] read(T instance)
+    {
+        Object[] values = new Object[accessors.length];
+        read(instance, values);
+        return values;
+    }
+
+    /**
+     * Reads every field of an object into an array, so the array can be reused.
+     * @param instance - the object.
+     * @param values - array to read into, at least as long as size().
+     */
+    public void read(T instance, Object[] values)
+    {
+        checkLength(values);
+
+        for (int i = 0; i < accessors.length; i++) {
+            values[i] = accessors[i].get(instance);
+        }
+    }
+
+    /**
+     * Writes every field of an object.
+     * @param instance - the object.
+     * @param values - the values, as read by read(T).
+     */
+    public void write(T instance, Object[] values)
+    {
+        checkLength(values);
+
+        for (int i = 0; i < accessors.length; i++) {
+            accessors[i].set(instance, values[i]);
+        }
+    }
+
+    /**
+     * Reads every field of an object into a map of field name to value.
+     * @param instance - the object.
+     * @return the map.
+     */
+    public Map<String, Object> toMap(T instance)
+    {
+        LinkedHashMap<String, Object> map = Maps.newLinkedHashMapWithExpectedSize(accessors.length);
+
+        for (int i = 0; i < accessors.length; i++) {
+            map.put(names[i], accessors[i].get(instance));
+        }
+
+        return map;
+    }
+
+    /**
+     * Writes the fields of an object that are present in the map, others are left untouched.
+     * @param instance - the object.
+     * @param values - map of field name to value.
+     */
+    public void write(T instance, Map<String, ?> values)
+    {
+        for (int i = 0; i < accessors.length; i++) {
+            if (values.containsKey(names[i])) {
+                accessors[i].set(instance, values.get(names[i]));
+            }
+        }
+    }
+
+    /**
+     * Reads every object of a batch.
+     * @param instances - the objects.
+     * @return the values of each object, in the same order.
+     */
+    public List<Object[]> readAll(Collection<? extends T> instances)
+    {
+        List<Object[]> snapshots = Lists.newArrayListWithCapacity(instances.size());
+
+        for (T instance : instances) {
+            snapshots.add(read(instance));
+        }
+
+        return snapshots;
+    }
+
+    /**
+     * Writes back a batch of objects.
+     * @param instances - the objects.
+     * @param snapshots - the values of each object, in the same order.
+     */
+    public void writeAll(List<? extends T> instances, List<Object[]> snapshots)
+    {
+        if (instances.size() != snapshots.size()) {
+            throw new DeveloperException("Got " + snapshots.size() + " snapshots for " + instances.size() + " objects of " + type.getName() + ".");
+        }
+
+        for (int i = 0; i < instances.size(); i++) {
+            write(instances.get(i), snapshots.get(i));
+        }
+    }
+
+    private void checkLength(Object[] values)
+    {
+        if (values.length < accessors.length) {
+            throw new DeveloperException("Shape of " + type.getName() + " has " + accessors.length + " fields, but the array only has room for " + values.length + ".");
+        }
+    }
+}
@@ -1,72 +1,65 @@
 package io.pucman.common.reflect;
 
-import com.google.common.cache.CacheLoader;
-import com.google.common.collect.Lists;
 import io.pucman.common.exception.DeveloperException;
-import io.pucman.common.reflect.accessors.FieldAccessor;
 import io.pucman.common.reflect.accessors.ConstructorAccessor;
+import io.pucman.common.reflect.accessors.FieldAccessor;
 import io.pucman.common.reflect.accessors.MethodAccessor;
+import lombok.SneakyThrows;
 
 import javax.annotation.ParametersAreNonnullByDefault;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.LinkedList;
+import java.util.Arrays;
 
 /**
- * @see ReflectUtil;
- * @param <T> - generic type.
+ * Resolves the member a key points to through the index of its class, and
+ * wraps it in an accessor.
+ * @see ReflectUtil
+ * @see MemberKey
+ * @see MemberIndex
  */
 @ParametersAreNonnullByDefault
-public class ReflectCacheLoader<T> extends CacheLoader<String, Object>
+public class ReflectCacheLoader
 {
-
-    @Override
-    public Object load(String key) throws Exception
+    @SneakyThrows
+    public Object load(MemberKey key)
     {
-        System.out.println("Key: " + key);
-        String[] args = key.split(";");
+        MemberIndex index = MemberIndex.of(key.getDeclaringClass());
 
-        if (args[0].equals("M")) {
-            if (!ReflectUtil.exists(args[1])) return null;
-            Class<?> clazz = ReflectUtil.getClass(args[1]);
-            LinkedList<Class<?>> parameters = Lists.newLinkedList();
+        switch (key.getKind()) {
+            case METHOD:
+                Method method = index.getMethod(key.getName(), key.getType(), key.getParameters());
 
-            if (parameters.size() == 5) {
-                for (String param : args[4].split("/")) {
-                    if (!ReflectUtil.exists(param)) throw new DeveloperException("Parameter " + param + " does not exist.");
-                    parameters.add(ReflectUtil.getClass(param));
+                if (method == null) {
+                    throw new NoSuchMethodException(describe(key));
                 }
-            }
 
-            Method method = args[3].equals("DECLARED") ? clazz.getDeclaredMethod(args[2], parameters.toArray(new Class[parameters.size()])) : clazz.getMethod(args[2], parameters.toArray(new Class[parameters.size()]));
-            return new MethodAccessor<T>(method);
-        }
-
-        if (args[0].equals("F")) {
-            if (!ReflectUtil.exists(args[1])) return null;
-            Class<?> clazz = ReflectUtil.getClass(args[1]);
+                return new MethodAccessor<>(method);
+            case FIELD:
+                Field field = index.getField(key.getName(), key.getType());
 
-            Field field = args[3].equals("DECLARED") ? clazz.getDeclaredField(args[2]) : clazz.getField(args[2]);
-            return new FieldAccessor<T>(field);
-        }
+                if (field == null) {
+                    throw new NoSuchFieldException(describe(key));
+                }
 
-        if (args[0].equals("C")) {
-            if (!ReflectUtil.exists(args[1])) return null;
-            Class<?> clazz = ReflectUtil.getClass(args[1]);
-            LinkedList<Class<?>> parameters = Lists.newLinkedList();
+                return new FieldAccessor<>(field);
+            case CONSTRUCTOR:
+                Constructor<?> constructor = index.getConstructor(key.getType(), key.getParameters());
 
-            for (String param : args[3].split("/")) {
-                if (!ReflectUtil.exists(param)) throw new DeveloperException("Parameter " + param + " does not exist.");
-                parameters.add(ReflectUtil.getClass(param));
-            }
+                if (constructor == null) {
+                    throw new NoSuchMethodException(describe(key));
+                }
 
-            Constructor constructor = args[2].equals("DECLARED") ?
-                    clazz.getDeclaredConstructor(parameters.toArray(new Class[parameters.size()])) :
-                    clazz.getConstructor(parameters.toArray(new Class[parameters.size()]));
-            return new ConstructorAccessor<T>(constructor);
+                return new ConstructorAccessor<>(constructor);
         }
 
-        throw new DeveloperException("Nothing was returned when parsing " + key + ".");
+        throw new DeveloperException("Nothing was returned when loading " + key + ".");
+    }
+
+    private static String describe(MemberKey key)
+    {
+        String name = key.getKind() == MemberKey.Kind.CONSTRUCTOR ? "<init>" : key.getName();
+        return key.getDeclaringClass().getName() + "." + name + (key.getKind() == MemberKey.Kind.FIELD ? "" : Arrays.toString(key.getParameters())) + " (" + key.getType() + ")";
     }
 }
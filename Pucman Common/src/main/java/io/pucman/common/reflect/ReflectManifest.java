@@ -0,0 +1,181 @@
+package io.pucman.common.reflect;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import io.pucman.common.exception.DeveloperException;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A list of members to resolve ahead of time, so the first lookup of each
+ * of them doesn't happen on the main thread. A manifest can be declared in
+ * code or read from a resource file, where each line declares one member:
+ *
+ * <pre>
+ * # comments start with a hash.
+ * field net.minecraft.server.v1_12_R1.EntityPlayer ping PUBLIC
+ * method net.minecraft.server.v1_12_R1.Entity getId PUBLIC
+ * method org.example.Foo bar DECLARED java.lang.String int
+ * constructor org.example.Foo DECLARED java.lang.String[]
+ * </pre>
+ *
+ * Classes that can't be found, such as those of another server version,
+ * are skipped and listed in getUnresolved().
+ *
+ * @see ReflectUtil#warmUp(ReflectManifest, java.util.concurrent.Executor)
+ */
+@ParametersAreNonnullByDefault
+public class ReflectManifest
+{
+    private static final ImmutableMap<String, Class<?>> PRIMITIVES = ImmutableMap.<String, Class<?>>builder()
+            .put("boolean", boolean.class).put("byte", byte.class).put("short", short.class).put("char", char.class)
+            .put("int", int.class).put("long", long.class).put("float", float.class).put("double", double.class)
+            .build();
+
+    private final List<MemberKey> members = Lists.newArrayList();
+    private final List<String> unresolved = Lists.newArrayList();
+
+    /**
+     * Adds a field.
+     * @return this manifest.
+     */
+    public ReflectManifest field(Class<?> clazz, String field, ReflectUtil.Type fieldType)
+    {
+        members.add(MemberKey.of(MemberKey.Kind.FIELD, clazz, field, fieldType));
+        return this;
+    }
+
+    /**
+     * Adds a method.
+     * @return this manifest.
+     */
+    public ReflectManifest method(Class<?> clazz, String method, ReflectUtil.Type methodType, Class<?>... parameters)
+    {
+        members.add(MemberKey.of(MemberKey.Kind.METHOD, clazz, method, methodType, parameters));
+        return this;
+    }
+
+    /**
+     * Adds a constructor.
+     * @return this manifest.
+     */
+    public ReflectManifest constructor(Class<?> clazz, ReflectUtil.Type constructorType, Class<?>... parameters)
+    {
+        members.add(MemberKey.of(MemberKey.Kind.CONSTRUCTOR, clazz, null, constructorType, parameters));
+        return this;
+    }
+
+    /**
+     * Reads a manifest from a resource.
+     * @param is - stream of the resource, closed once read.
+     * @param loader - classloader to load the classes in the manifest with.
+     * @return the manifest.
+     */
+    public static ReflectManifest read(InputStream is, ClassLoader loader) throws IOException
+    {
+        ReflectManifest manifest = new ReflectManifest();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            String line;
+            int number = 0;
+
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                try {
+                    manifest.parse(line.split("\\s+"), loader);
+                } catch (ClassNotFoundException e) {
+                    manifest.unresolved.add(line);
+                } catch (IllegalArgumentException e) {
+                    throw new DeveloperException("Line " + number + " of reflection manifest is malformed: " + line);
+                }
+            }
+        }
+
+        return manifest;
+    }
+
+    private void parse(String[] args, ClassLoader loader) throws ClassNotFoundException
+    {
+        switch (args[0]) {
+            case "field":
+                check(args.length == 4);
+                field(load(args[1], loader), args[2], ReflectUtil.Type.valueOf(args[3]));
+                return;
+            case "method":
+                check(args.length >= 4);
+                method(load(args[1], loader), args[2], ReflectUtil.Type.valueOf(args[3]), load(args, 4, loader));
+                return;
+            case "constructor":
+                check(args.length >= 3);
+                constructor(load(args[1], loader), ReflectUtil.Type.valueOf(args[2]), load(args, 3, loader));
+                return;
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    private static void check(boolean condition)
+    {
+        if (!condition) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private static Class<?>[] load(String[] args, int from, ClassLoader loader) throws ClassNotFoundException
+    {
+        Class<?>[] classes = new Class<?>[args.length - from];
+
+        for (int i = from; i < args.length; i++) {
+            classes[i - from] = load(args[i], loader);
+        }
+
+        return classes;
+    }
+
+    private static Class<?> load(String name, ClassLoader loader) throws ClassNotFoundException
+    {
+        if (name.endsWith("[]")) {
+            return Array.newInstance(load(name.substring(0, name.length() - 2), loader), 0).getClass();
+        }
+
+        Class<?> primitive = PRIMITIVES.get(name);
+        return primitive != null ? primitive : Class.forName(name, false, loader);
+    }
+
+    /**
+     * @return the members of this manifest.
+     */
+    public List<MemberKey> getMembers()
+    {
+        return ImmutableList.copyOf(members);
+    }
+
+    /**
+     * @return the lines of the manifest whose classes couldn't be found.
+     */
+    public List<String> getUnresolved()
+    {
+        return ImmutableList.copyOf(unresolved);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ReflectManifest{members=" + members.size() + ", unresolved=" + Arrays.toString(unresolved.toArray()) + "}";
+    }
+}
@@ -0,0 +1,139 @@
+package io.pucman.common.reflect;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the reflection cache. Counts the lookups that hit the cache,
+ * the ones that had to load a member, the ones whose member couldn't be
+ * loaded and how long loading took, and keeps
+ * track of the members that were loaded lazily rather than by a warm-up, as
+ * those are the lookups still happening on the hot path.
+ *
+ * @see ReflectUtil#getStats()
+ * @see ReflectManifest
+ */
+public final class ReflectStats
+{
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder warmedUp = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder failedWarmUps = new LongAdder();
+    private final LongAdder loadTime = new LongAdder();
+    private final ConcurrentHashMap<String, String> lazyLoads = new ConcurrentHashMap<>();
+
+    ReflectStats()
+    {
+    }
+
+    void hit()
+    {
+        hits.increment();
+    }
+
+    void loaded(MemberKey key, long nanos, boolean warmUp)
+    {
+        misses.increment();
+        loadTime.add(nanos);
+
+        if (warmUp) {
+            warmedUp.increment();
+        } else {
+            lazyLoads.put(key.toString(), Thread.currentThread().getName());
+        }
+    }
+
+    void failed(long nanos, boolean warmUp)
+    {
+        failed.increment();
+        loadTime.add(nanos);
+
+        if (warmUp) {
+            failedWarmUps.increment();
+        }
+    }
+
+    /**
+     * @return amount of lookups that were already cached.
+     */
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * @return amount of lookups that had to load the member, warm-ups included.
+     */
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * @return amount of members loaded by a warm-up.
+     */
+    public long getWarmedUp()
+    {
+        return warmedUp.sum();
+    }
+
+    /**
+     * @return amount of lookups whose member couldn't be loaded, warm-ups included.
+     */
+    public long getFailed()
+    {
+        return failed.sum();
+    }
+
+    /**
+     * @return amount of members a warm-up couldn't load.
+     */
+    public long getFailedWarmUps()
+    {
+        return failedWarmUps.sum();
+    }
+
+    /**
+     * Gets the total time spent loading members.
+     * @param unit - unit to convert to.
+     * @return the time.
+     */
+    public long getLoadTime(TimeUnit unit)
+    {
+        return unit.convert(loadTime.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Members are described by name, so this doesn't keep the classes of unloaded plugins alive.
+     * @return the members that were loaded lazily, mapped to the name of the thread that loaded them.
+     */
+    public Map<String, String> getLazyLoads()
+    {
+        return ImmutableMap.copyOf(lazyLoads);
+    }
+
+    /**
+     * Resets all statistics.
+     */
+    public void reset()
+    {
+        hits.reset();
+        misses.reset();
+        warmedUp.reset();
+        failed.reset();
+        failedWarmUps.reset();
+        loadTime.reset();
+        lazyLoads.clear();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ReflectStats{hits=" + getHits() + ", misses=" + getMisses() + ", warmedUp=" + getWarmedUp() + ", failed=" + getFailed() + ", failedWarmUps=" + getFailedWarmUps() + ", lazyLoads=" + lazyLoads.size() + ", loadTime=" + getLoadTime(TimeUnit.MICROSECONDS) + "us}";
+    }
+}
@@ -1,7 +1,5 @@
 package io.pucman.common.reflect;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.LoadingCache;
 import io.pucman.common.exception.UtilException;
 import io.pucman.common.reflect.accessors.ConstructorAccessor;
 import io.pucman.common.reflect.accessors.FieldAccessor;
@@ -11,8 +9,11 @@ import lombok.SneakyThrows;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.IntStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * For easy management of reflected objects.
@@ -20,12 +21,23 @@ import java.util.stream.IntStream;
 public final class ReflectUtil
 {
     /**
-     * All objects reflected will be stored here for 5 minutes,
-     * after that it will be invalidated. This will remove the
-     * process of creating a new instance of the same object
-     * when manipulating it.
+     * All objects reflected are stored in a table attached to the class they
+     * belong to, for as long as that class is loaded. This will remove the
+     * process of creating a new instance of the same object when manipulating
+     * it, and tables of unloaded plugins are collected with their classes.
+     * @see MemberTable
      */
-    private static final LoadingCache<String, Object> REFLECT_CACHE = CacheBuilder.newBuilder().expireAfterAccess(5, TimeUnit.MINUTES).build(new ReflectCacheLoader<>());
+    private static final ReflectCacheLoader LOADER = new ReflectCacheLoader();
+
+    /**
+     * Reusable key for each thread to look up the cache with, so a hit
+     * doesn't allocate a key.
+     */
+    private static final ThreadLocal<MemberKey> PROBE = ThreadLocal.withInitial(MemberKey::new);
+
+    private static final Class<?>[] NO_PARAMETERS = new Class<?>[0];
+
+    private static final ReflectStats STATS = new ReflectStats();
 
     public ReflectUtil()
     {
@@ -36,10 +48,13 @@ public final class ReflectUtil
      * PUBLIC - Gets all objects up the entire class hierarchy.
      * DECLARED - Gets the object only in the class isn't being
      * invoked upon.
+     * HIERARCHY - Gets the object from the class or the closest of
+     * its superclasses, whatever its visibility.
+     * @see MemberIndex
      */
     public enum Type
     {
-        PUBLIC, DECLARED
+        PUBLIC, DECLARED, HIERARCHY
     }
 
 
@@ -73,22 +88,9 @@ public final class ReflectUtil
      * @param parameters - parameters of that method.
      * @return the wrapped method.
      */
-    @SneakyThrows
     public static <T> MethodAccessor<T> getMethod(Class<?> clazz, String method, Type methodType, Class<?>... parameters)
     {
-        StringBuilder sb = new StringBuilder("M;").append(clazz.getName()).append(";").append(method).append(";").append(methodType.name()).append(";");
-
-        if (parameters.length != 0) {
-            IntStream.range(0, parameters.length).forEachOrdered(i -> {
-                sb.append(parameters[i].getName());
-
-                if (i + 1 != parameters.length) {
-                    sb.append("/");
-                }
-            });
-        }
-
-        return (MethodAccessor<T>) REFLECT_CACHE.get(sb.toString());
+        return (MethodAccessor<T>) lookup(MemberKey.Kind.METHOD, clazz, method, methodType, parameters);
     }
 
     /**
@@ -99,10 +101,9 @@ public final class ReflectUtil
      * @param fieldType - type of field, public or declared.
      * @return the wrapped field.
      */
-    @SneakyThrows
     public static <T> FieldAccessor<T> getField(Class clazz, String field, Type fieldType)
     {
-        return (FieldAccessor) REFLECT_CACHE.get("F;" + clazz.getName() + ";" + field + ";" + fieldType.name());
+        return (FieldAccessor) lookup(MemberKey.Kind.FIELD, clazz, field, fieldType, NO_PARAMETERS);
     }
 
     /**
@@ -113,23 +114,65 @@ public final class ReflectUtil
      * @param parameters
      * @return
      */
-    @SneakyThrows
     public static <T> ConstructorAccessor<T> getConstructor(Class<T> clazz, Type constructorType, Class<?>... parameters)
     {
-        StringBuilder sb = new StringBuilder("C;").append(clazz.getName()).append(";").append(constructorType.name()).append(";");
+        return (ConstructorAccessor<T>) lookup(MemberKey.Kind.CONSTRUCTOR, clazz, null, constructorType, parameters);
+    }
 
-        int bound = parameters.length;
+    /**
+     * Gets an accessor from the table of the class, loading it if it isn't present.
+     * A hit is a single probe into the table with this threads probe key.
+     * @return the accessor.
+     */
+    private static Object lookup(MemberKey.Kind kind, Class<?> clazz, String name, Type type, Class<?>[] parameters)
+    {
+        MemberKey probe = PROBE.get().reset(kind, clazz, name, type, parameters);
 
-        if (parameters.length != 0) {
-            IntStream.range(0, bound).forEachOrdered(i -> {
-                sb.append(parameters[i].getName());
-                if (i + 1 != parameters.length) {
-                    sb.append("/");
-                }
-            });
+        try {
+            return MemberTable.TABLES.get(clazz).get(probe, LOADER, STATS, false);
+        } finally {
+            probe.clear();
         }
+    }
+
+    /**
+     * @return statistics of the reflection cache.
+     */
+    public static ReflectStats getStats()
+    {
+        return STATS;
+    }
+
+    /**
+     * Resolves every member of the manifest on the common pool.
+     * @see #warmUp(ReflectManifest, Executor)
+     */
+    public static CompletableFuture<Map<MemberKey, Throwable>> warmUp(ReflectManifest manifest)
+    {
+        return warmUp(manifest, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Resolves every member of the manifest in parallel, so later lookups of
+     * them are hits. Meant to be called while a plugin loads, before the
+     * members are needed on the main thread.
+     * @param manifest - members to resolve.
+     * @param executor - executor to resolve them on.
+     * @return a future completed once all members are resolved, with the members that couldn't be.
+     */
+    public static CompletableFuture<Map<MemberKey, Throwable>> warmUp(ReflectManifest manifest, Executor executor)
+    {
+        Map<MemberKey, Throwable> failures = new ConcurrentHashMap<>();
+
+        CompletableFuture<?>[] futures = manifest.getMembers().stream().map(key -> CompletableFuture.runAsync(() -> {
+            try {
+                MemberTable.TABLES.get(key.getDeclaringClass()).get(key, LOADER, STATS, true);
+            } catch (Throwable t) {
+                failures.put(key, t);
+            }
+        }, executor)).toArray(CompletableFuture[]::new);
 
-        return (ConstructorAccessor<T>) REFLECT_CACHE.get(sb.toString());
+        return CompletableFuture.allOf(futures).thenApply(v -> failures);
     }
 
 
@@ -142,7 +185,7 @@ public final class ReflectUtil
     public static MethodAccessor wrapMethod(Method method)
     {
         MethodAccessor accessor = new MethodAccessor(method);
-        REFLECT_CACHE.put("F;" + method.getClass().getName() + ";" + method.getName() + ";" + (method.getDeclaringClass().getDeclaredMethod(method.getName(), method.getParameterTypes()) == null ? Type.PUBLIC : Type.DECLARED), accessor);
+        MemberTable.TABLES.get(method.getDeclaringClass()).put(MemberKey.of(MemberKey.Kind.METHOD, method.getDeclaringClass(), method.getName(), Type.DECLARED, method.getParameterTypes()), accessor);
         return accessor;
     }
 
@@ -157,7 +200,7 @@ public final class ReflectUtil
     public static FieldAccessor wrapField(Field field)
     {
         FieldAccessor accessor = new FieldAccessor(field);
-        REFLECT_CACHE.put("F;" + field.getClass().getName() + ";" + field.getName() + ";" + (field.getDeclaringClass().getDeclaredField(field.getName()) == null ? Type.PUBLIC : Type.DECLARED), accessor);
+        MemberTable.TABLES.get(field.getDeclaringClass()).put(MemberKey.of(MemberKey.Kind.FIELD, field.getDeclaringClass(), field.getName(), Type.DECLARED), accessor);
         return accessor;
     }
 
@@ -170,7 +213,7 @@ public final class ReflectUtil
     public static ConstructorAccessor wrapConstructor(Constructor constructor)
     {
         ConstructorAccessor accessor = new ConstructorAccessor(constructor);
-        REFLECT_CACHE.put("F;" + constructor.getClass().getName() + ";" + constructor.getName() + ";" + (constructor.getDeclaringClass().getDeclaredConstructor(constructor.getParameterTypes()) == null ? Type.PUBLIC : Type.DECLARED), accessor);
+        MemberTable.TABLES.get(constructor.getDeclaringClass()).put(MemberKey.of(MemberKey.Kind.CONSTRUCTOR, constructor.getDeclaringClass(), null, Type.DECLARED, constructor.getParameterTypes()), accessor);
         return accessor;
     }
 }
@@ -5,6 +5,7 @@ import io.pucman.common.reflect.ReflectUtil;
 import lombok.SneakyThrows;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Parameter;
 
@@ -17,10 +18,25 @@ public class ConstructorAccessor<T>
 {
     private Constructor<T> constructor;
 
+    /**
+     * Handle of the type (Object... parameters)Object.
+     */
+    private MethodHandle invoker;
+
+    /**
+     * Same as the invoker but takes the parameters as an array.
+     */
+    private MethodHandle spreader;
+
+    private int arity;
+
     public ConstructorAccessor(Constructor<T> constructor)
     {
         this.constructor = constructor;
         constructor.setAccessible(true);
+        this.arity = constructor.getParameterCount();
+        this.invoker = Invokers.constructor(constructor);
+        this.spreader = invoker.asSpreader(Object[].class, arity);
     }
 
     /**
@@ -31,7 +47,59 @@ public class ConstructorAccessor<T>
     @SneakyThrows
     public T call(Object... parameters)
     {
-        return GenericUtil.cast(constructor.newInstance(parameters));
+        parameters = Invokers.parameters(parameters);
+        Invokers.checkArity(constructor.getName(), arity, parameters.length);
+        return GenericUtil.cast((Object) spreader.invokeExact(parameters));
+    }
+
+    /**
+     * Creates a new instance of the class with a constructor that has no parameters.
+     * @return new instance.
+     */
+    @SneakyThrows
+    public T call0()
+    {
+        Invokers.checkArity(constructor.getName(), arity, 0);
+        return GenericUtil.cast((Object) invoker.invokeExact());
+    }
+
+    /**
+     * Creates a new instance of the class with a constructor that has one parameter.
+     * @param parameter - the init argument.
+     * @return new instance.
+     */
+    @SneakyThrows
+    public T call1(Object parameter)
+    {
+        Invokers.checkArity(constructor.getName(), arity, 1);
+        return GenericUtil.cast((Object) invoker.invokeExact(parameter));
+    }
+
+    /**
+     * Creates a new instance of the class with a constructor that has two parameters.
+     * @param first - the first init argument.
+     * @param second - the second init argument.
+     * @return new instance.
+     */
+    @SneakyThrows
+    public T call2(Object first, Object second)
+    {
+        Invokers.checkArity(constructor.getName(), arity, 2);
+        return GenericUtil.cast((Object) invoker.invokeExact(first, second));
+    }
+
+    /**
+     * Creates a new instance of the class with a constructor that has three parameters.
+     * @param first - the first init argument.
+     * @param second - the second init argument.
+     * @param third - the third init argument.
+     * @return new instance.
+     */
+    @SneakyThrows
+    public T call3(Object first, Object second, Object third)
+    {
+        Invokers.checkArity(constructor.getName(), arity, 3);
+        return GenericUtil.cast((Object) invoker.invokeExact(first, second, third));
     }
 
     /**
@@ -94,4 +162,12 @@ public class ConstructorAccessor<T>
     {
         return constructor;
     }
+
+    /**
+     * @return the handle this accessor invokes, of the type (Object... parameters)Object.
+     */
+    public MethodHandle getHandle()
+    {
+        return invoker;
+    }
 }
@@ -1,14 +1,21 @@
 package io.pucman.common.reflect.accessors;
 
+import io.pucman.common.exception.DeveloperException;
 import io.pucman.common.generic.GenericUtil;
 import io.pucman.common.reflect.ReflectUtil;
 import lombok.SneakyThrows;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 
 /**
  * Wrapper for reflected fields.
+ *
+ * Fields of a primitive type can be read and written with the get and set
+ * methods named after the type, such as getInt and setInt. Those never box
+ * the value.
+ *
  * @see ReflectUtil#getField(Class, String, ReflectUtil.Type).
  * @param <T> - return type of the field.
  */
@@ -16,11 +23,34 @@ public class FieldAccessor<T>
 {
     private Field field;
 
+    /**
+     * Handle of the type (Object instance)Object.
+     */
+    private MethodHandle getter;
+
+    /**
+     * Handle of the type (Object instance, Object value)void.
+     */
+    private MethodHandle setter;
+
+    /**
+     * Handle of the type (Object instance)fieldType, used by the primitive getters.
+     */
+    private MethodHandle typedGetter;
+
+    /**
+     * Handle of the type (Object instance, fieldType value)void, used by the primitive setters.
+     */
+    private MethodHandle typedSetter;
 
     public FieldAccessor(Field field)
     {
         this.field = field;
         field.setAccessible(true);
+        this.typedGetter = Invokers.getter(field);
+        this.typedSetter = Invokers.setter(field);
+        this.getter = Invokers.generic(typedGetter);
+        this.setter = Invokers.generic(typedSetter);
     }
 
     /**
@@ -31,7 +61,7 @@ public class FieldAccessor<T>
     @SneakyThrows
     public T get(Object instance)
     {
-        return GenericUtil.cast(field.get(instance));
+        return GenericUtil.cast((Object) getter.invokeExact(instance));
     }
 
     /**
@@ -42,7 +72,210 @@ public class FieldAccessor<T>
     @SneakyThrows
     public void set(Object instance, T value)
     {
-        field.set(instance, value);
+        setter.invokeExact(instance, (Object) value);
+    }
+
+    /**
+     * Gets the value of an int field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @return the value.
+     */
+    @SneakyThrows
+    public int getInt(Object instance)
+    {
+        checkType(int.class);
+        return (int) typedGetter.invokeExact(instance);
+    }
+
+    /**
+     * Sets the value of an int field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @param value - value the field will be set to.
+     */
+    @SneakyThrows
+    public void setInt(Object instance, int value)
+    {
+        checkType(int.class);
+        typedSetter.invokeExact(instance, value);
+    }
+
+    /**
+     * Gets the value of a long field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @return the value.
+     */
+    @SneakyThrows
+    public long getLong(Object instance)
+    {
+        checkType(long.class);
+        return (long) typedGetter.invokeExact(instance);
+    }
+
+    /**
+     * Sets the value of a long field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @param value - value the field will be set to.
+     */
+    @SneakyThrows
+    public void setLong(Object instance, long value)
+    {
+        checkType(long.class);
+        typedSetter.invokeExact(instance, value);
+    }
+
+    /**
+     * Gets the value of a double field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @return the value.
+     */
+    @SneakyThrows
+    public double getDouble(Object instance)
+    {
+        checkType(double.class);
+        return (double) typedGetter.invokeExact(instance);
+    }
+
+    /**
+     * Sets the value of a double field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @param value - value the field will be set to.
+     */
+    @SneakyThrows
+    public void setDouble(Object instance, double value)
+    {
+        checkType(double.class);
+        typedSetter.invokeExact(instance, value);
+    }
+
+    /**
+     * Gets the value of a float field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @return the value.
+     */
+    @SneakyThrows
+    public float getFloat(Object instance)
+    {
+        checkType(float.class);
+        return (float) typedGetter.invokeExact(instance);
+    }
+
+    /**
+     * Sets the value of a float field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @param value - value the field will be set to.
+     */
+    @SneakyThrows
+    public void setFloat(Object instance, float value)
+    {
+        checkType(float.class);
+        typedSetter.invokeExact(instance, value);
+    }
+
+    /**
+     * Gets the value of a boolean field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @return the value.
+     */
+    @SneakyThrows
+    public boolean getBoolean(Object instance)
+    {
+        checkType(boolean.class);
+        return (boolean) typedGetter.invokeExact(instance);
+    }
+
+    /**
+     * Sets the value of a boolean field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @param value - value the field will be set to.
+     */
+    @SneakyThrows
+    public void setBoolean(Object instance, boolean value)
+    {
+        checkType(boolean.class);
+        typedSetter.invokeExact(instance, value);
+    }
+
+    /**
+     * Gets the value of a short field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @return the value.
+     */
+    @SneakyThrows
+    public short getShort(Object instance)
+    {
+        checkType(short.class);
+        return (short) typedGetter.invokeExact(instance);
+    }
+
+    /**
+     * Sets the value of a short field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @param value - value the field will be set to.
+     */
+    @SneakyThrows
+    public void setShort(Object instance, short value)
+    {
+        checkType(short.class);
+        typedSetter.invokeExact(instance, value);
+    }
+
+    /**
+     * Gets the value of a byte field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @return the value.
+     */
+    @SneakyThrows
+    public byte getByte(Object instance)
+    {
+        checkType(byte.class);
+        return (byte) typedGetter.invokeExact(instance);
+    }
+
+    /**
+     * Sets the value of a byte field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @param value - value the field will be set to.
+     */
+    @SneakyThrows
+    public void setByte(Object instance, byte value)
+    {
+        checkType(byte.class);
+        typedSetter.invokeExact(instance, value);
+    }
+
+    /**
+     * Gets the value of a char field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @return the value.
+     */
+    @SneakyThrows
+    public char getChar(Object instance)
+    {
+        checkType(char.class);
+        return (char) typedGetter.invokeExact(instance);
+    }
+
+    /**
+     * Sets the value of a char field without boxing it.
+     * @param instance - instance that this will be invoked on.
+     * @param value - value the field will be set to.
+     */
+    @SneakyThrows
+    public void setChar(Object instance, char value)
+    {
+        checkType(char.class);
+        typedSetter.invokeExact(instance, value);
+    }
+
+    /**
+     * Checks the field is of the type a primitive getter or setter was called for.
+     * @param type - the primitive type.
+     */
+    private void checkType(Class<?> type)
+    {
+        if (field.getType() != type) {
+            throw new DeveloperException("Field " + field.getName() + " is of type " + field.getType().getName() + ", not " + type.getName() + ".");
+        }
     }
 
     /**
@@ -104,4 +337,20 @@ public class FieldAccessor<T>
     {
         return field.getName();
     }
-}
\ No newline at end of file
+
+    /**
+     * @return the handle get(Object) invokes, of the type (Object instance)Object.
+     */
+    public MethodHandle getGetterHandle()
+    {
+        return getter;
+    }
+
+    /**
+     * @return the handle set(Object, T) invokes, of the type (Object instance, Object value)void.
+     */
+    public MethodHandle getSetterHandle()
+    {
+        return setter;
+    }
+}
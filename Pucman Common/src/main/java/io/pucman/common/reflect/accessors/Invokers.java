@@ -0,0 +1,173 @@
+package io.pucman.common.reflect.accessors;
+
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.exception.UtilException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invocation engine behind the accessors. Every reflected member is turned
+ * into a MethodHandle once, when the accessor is made, so invoking it later
+ * skips the access checks and argument copying of Method#invoke, Field#get
+ * and Constructor#newInstance.
+ *
+ * If a handle cannot be made for a member the reflective call is bound into
+ * a handle instead, so the accessors always have something to invoke.
+ */
+final class Invokers
+{
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Object[] NO_PARAMETERS = new Object[0];
+
+    private static final MethodHandle METHOD_INVOKE;
+    private static final MethodHandle CONSTRUCTOR_NEW_INSTANCE;
+    private static final MethodHandle FIELD_GET;
+    private static final MethodHandle FIELD_SET;
+
+    static
+    {
+        try {
+            METHOD_INVOKE = LOOKUP.findVirtual(Method.class, "invoke", MethodType.methodType(Object.class, Object.class, Object[].class));
+            CONSTRUCTOR_NEW_INSTANCE = LOOKUP.findVirtual(Constructor.class, "newInstance", MethodType.methodType(Object.class, Object[].class));
+            FIELD_GET = LOOKUP.findVirtual(Field.class, "get", MethodType.methodType(Object.class, Object.class));
+            FIELD_SET = LOOKUP.findVirtual(Field.class, "set", MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new DeveloperException(e);
+        }
+    }
+
+    private Invokers()
+    {
+        throw new UtilException();
+    }
+
+    /**
+     * Makes a handle of the type (Object instance, Object... parameters)Object for a method, where the
+     * amount of parameters is fixed to the methods parameter count. Static methods ignore the instance.
+     * @param method - the method, already set accessible.
+     * @return the handle.
+     */
+    static MethodHandle method(Method method)
+    {
+        int arity = method.getParameterCount();
+        MethodHandle handle;
+
+        try {
+            handle = LOOKUP.unreflect(method);
+
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+        } catch (IllegalAccessException e) {
+            handle = METHOD_INVOKE.bindTo(method).asCollector(Object[].class, arity);
+        }
+
+        return handle.asType(MethodType.genericMethodType(arity + 1));
+    }
+
+    /**
+     * Makes a handle of the type (Object... parameters)Object for a constructor, where the amount
+     * of parameters is fixed to the constructors parameter count.
+     * @param constructor - the constructor, already set accessible.
+     * @return the handle.
+     */
+    static MethodHandle constructor(Constructor<?> constructor)
+    {
+        int arity = constructor.getParameterCount();
+        MethodHandle handle;
+
+        try {
+            handle = LOOKUP.unreflectConstructor(constructor);
+        } catch (IllegalAccessException e) {
+            handle = CONSTRUCTOR_NEW_INSTANCE.bindTo(constructor).asCollector(Object[].class, arity);
+        }
+
+        return handle.asType(MethodType.genericMethodType(arity));
+    }
+
+    /**
+     * Makes a getter handle of the type (Object instance)fieldType. Static fields ignore the instance.
+     * @param field - the field, already set accessible.
+     * @return the handle.
+     */
+    static MethodHandle getter(Field field)
+    {
+        MethodHandle handle;
+
+        try {
+            handle = LOOKUP.unreflectGetter(field);
+
+            if (Modifier.isStatic(field.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+        } catch (IllegalAccessException e) {
+            handle = FIELD_GET.bindTo(field);
+        }
+
+        return handle.asType(MethodType.methodType(field.getType(), Object.class));
+    }
+
+    /**
+     * Makes a setter handle of the type (Object instance, fieldType value)void. Static fields ignore the
+     * instance. Final fields can't be written through a handle, so those fall back onto Field#set.
+     * @param field - the field, already set accessible.
+     * @return the handle.
+     */
+    static MethodHandle setter(Field field)
+    {
+        MethodHandle handle;
+
+        try {
+            handle = LOOKUP.unreflectSetter(field);
+
+            if (Modifier.isStatic(field.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+        } catch (IllegalAccessException e) {
+            handle = FIELD_SET.bindTo(field);
+        }
+
+        return handle.asType(MethodType.methodType(void.class, Object.class, field.getType()));
+    }
+
+    /**
+     * Changes a handle to only use Object for its parameters and return type, void stays void.
+     * @param handle - the handle.
+     * @return the generic handle.
+     */
+    static MethodHandle generic(MethodHandle handle)
+    {
+        MethodType type = handle.type().generic();
+        return handle.asType(handle.type().returnType() == void.class ? type.changeReturnType(void.class) : type);
+    }
+
+    /**
+     * Parameters are passed as null when calling with (Object[]) null,
+     * which reflection takes as no parameters.
+     * @param parameters - the parameters, or null.
+     * @return the parameters, or an empty array if null.
+     */
+    static Object[] parameters(Object[] parameters)
+    {
+        return (parameters == null) ? NO_PARAMETERS : parameters;
+    }
+
+    /**
+     * Checks that the amount of parameters given to an accessor matches the member.
+     * @param name - name of the member, used in the exception message.
+     * @param expected - parameter count of the member.
+     * @param given - amount of parameters given.
+     */
+    static void checkArity(String name, int expected, int given)
+    {
+        if (expected != given) {
+            throw new DeveloperException(name + " takes " + expected + " parameter(s) but was called with " + given + ".");
+        }
+    }
+}
@@ -5,6 +5,7 @@ import io.pucman.common.reflect.ReflectUtil;
 import lombok.SneakyThrows;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 
@@ -17,10 +18,25 @@ public class MethodAccessor<T>
 {
     private Method method;
 
+    /**
+     * Handle of the type (Object instance, Object... parameters)Object.
+     */
+    private MethodHandle invoker;
+
+    /**
+     * Same as the invoker but takes the parameters as an array.
+     */
+    private MethodHandle spreader;
+
+    private int arity;
+
     public MethodAccessor(Method method)
     {
         this.method = method;
         method.setAccessible(true);
+        this.arity = method.getParameterCount();
+        this.invoker = Invokers.method(method);
+        this.spreader = invoker.asSpreader(Object[].class, arity);
     }
 
     /**
@@ -32,7 +48,63 @@ public class MethodAccessor<T>
     @SneakyThrows
     public T call(Object instance, Object... parameters)
     {
-        return GenericUtil.cast(method.invoke(instance, parameters));
+        parameters = Invokers.parameters(parameters);
+        Invokers.checkArity(method.getName(), arity, parameters.length);
+        return GenericUtil.cast((Object) spreader.invokeExact(instance, parameters));
+    }
+
+    /**
+     * Invokes a method that has no parameters.
+     * @param instance - object it will invoke the method on.
+     * @return T
+     */
+    @SneakyThrows
+    public T call0(Object instance)
+    {
+        Invokers.checkArity(method.getName(), arity, 0);
+        return GenericUtil.cast((Object) invoker.invokeExact(instance));
+    }
+
+    /**
+     * Invokes a method that has one parameter, without putting it in an array.
+     * @param instance - object it will invoke the method on.
+     * @param parameter - the parameter.
+     * @return T
+     */
+    @SneakyThrows
+    public T call1(Object instance, Object parameter)
+    {
+        Invokers.checkArity(method.getName(), arity, 1);
+        return GenericUtil.cast((Object) invoker.invokeExact(instance, parameter));
+    }
+
+    /**
+     * Invokes a method that has two parameters, without putting them in an array.
+     * @param instance - object it will invoke the method on.
+     * @param first - the first parameter.
+     * @param second - the second parameter.
+     * @return T
+     */
+    @SneakyThrows
+    public T call2(Object instance, Object first, Object second)
+    {
+        Invokers.checkArity(method.getName(), arity, 2);
+        return GenericUtil.cast((Object) invoker.invokeExact(instance, first, second));
+    }
+
+    /**
+     * Invokes a method that has three parameters, without putting them in an array.
+     * @param instance - object it will invoke the method on.
+     * @param first - the first parameter.
+     * @param second - the second parameter.
+     * @param third - the third parameter.
+     * @return T
+     */
+    @SneakyThrows
+    public T call3(Object instance, Object first, Object second, Object third)
+    {
+        Invokers.checkArity(method.getName(), arity, 3);
+        return GenericUtil.cast((Object) invoker.invokeExact(instance, first, second, third));
     }
 
     /**
@@ -99,4 +171,12 @@ public class MethodAccessor<T>
     {
         return method;
     }
+
+    /**
+     * @return the handle this accessor invokes, of the type (Object instance, Object... parameters)Object.
+     */
+    public MethodHandle getHandle()
+    {
+        return invoker;
+    }
 }
\ No newline at end of file
@@ -1,20 +1,53 @@
 package io.pucman.common.time;
 
 import io.pucman.common.exception.UtilException;
+import lombok.SneakyThrows;
 
-import java.util.Calendar;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.concurrent.TimeUnit;
 
 /**
  * To map a time into a written, formatted, time.
+ *
+ * Durations are written straight into a StringBuilder or other Appendable,
+ * one unit at a time from a fixed table of units, so formatting a countdown
+ * every second allocates nothing but the output.
  */
 public final class TimeUtil
 {
+    /**
+     * The date format of millisecondsToMetricDate, day/month/year. Dates are
+     * put in the default time zone when they are formatted, as it may change
+     * while the server runs.
+     */
+    private static final DateTimeFormatter METRIC_DATE = DateTimeFormatter.ofPattern("d/M/y");
+
+    /**
+     * Units a duration is split into, largest first, with their names in each style.
+     */
+    private static final long[] UNITS = {TimeUnit.DAYS.toMillis(1), TimeUnit.HOURS.toMillis(1), TimeUnit.MINUTES.toMillis(1), TimeUnit.SECONDS.toMillis(1), 1};
+    private static final String[] SHORT_NAMES = {"d", "h", "m", "s", "ms"};
+    private static final String[] SINGULAR_NAMES = {" day", " hour", " minute", " second", " millisecond"};
+    private static final String[] PLURAL_NAMES = {" days", " hours", " minutes", " seconds", " milliseconds"};
+
     private TimeUtil()
     {
         throw new UtilException();
     }
 
+    /**
+     * LONG - 1 day, 2 hours, 30 minutes.
+     * SHORT - 1d, 2h, 30m.
+     * COMPACT - 1d2h30m, the format parseDuration reads.
+     */
+    public enum Style
+    {
+        LONG, SHORT, COMPACT
+    }
+
     /**
      * Converts milliseconds to a date.
      * @param milliseconds - milliseconds.
@@ -22,33 +55,204 @@ public final class TimeUtil
      */
     public static String millisecondsToMetricDate(long milliseconds)
     {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(milliseconds);
-        return calendar.get(Calendar.DATE) + "/" + (calendar.get(Calendar.MONTH) + 1) + "/" + calendar.get(Calendar.YEAR);
+        return METRIC_DATE.format(Instant.ofEpochMilli(milliseconds).atZone(ZoneId.systemDefault()));
+    }
+
+    /**
+     * Writes milliseconds as a date, day/month/year.
+     * @param out - where to write the date.
+     * @param milliseconds - milliseconds.
+     */
+    public static void appendMetricDate(Appendable out, long milliseconds)
+    {
+        METRIC_DATE.formatTo(Instant.ofEpochMilli(milliseconds).atZone(ZoneId.systemDefault()), out);
     }
 
     /**
-     * Converts milliseconds to a formatted time.
-     * @param unit - the highest time unit you want it for format to.
-     * @param time - the time in milliseconds.
+     * Converts a time to a formatted time, in the SHORT or LONG style of
+     * formatDuration. Since it uses formatDuration its output differs from
+     * older versions in a few cases: a zero time is written as
+     * "0 milliseconds" rather than "0 millisecond", milliseconds are
+     * labelled by their own count rather than the count of seconds, and
+     * shortened output uses the short suffix for amounts of one too.
+     * @param unit - the unit the time is in.
+     * @param time - the time.
      * @param shorten - short date or long date.
      * @return the formatted time.
      */
     public static String millisecondsToTimeUnits(TimeUnit unit, long time, boolean shorten)
     {
-        long days = unit.toDays(time);
-        long hours = unit.toHours(time) - TimeUnit.DAYS.toHours(unit.toDays(time));
-        long minutes = unit.toMinutes(time) - TimeUnit.HOURS.toMinutes(unit.toHours(time));
-        long seconds = unit.toSeconds(time) - TimeUnit.MINUTES.toSeconds(unit.toMinutes(time));
-        long milliseconds = unit.toMillis(time) - TimeUnit.SECONDS.toMillis(unit.toSeconds(time));
-        String string = "";
-
-        if (days > 0L) string = string + days + (days == 1L ? " day" : shorten ? "d" : " days");
-        if (hours > 0L) string = string + (!string.isEmpty() ? ", " : "") + hours + (hours == 1L ? " hour" : shorten ? "h" : " hours");
-        if (minutes > 0L) string = string + (!string.isEmpty() ? ", " : "") + minutes + (minutes == 1L ? " minute" : shorten ? "m" : " minutes");
-        if (seconds > 0L) string = string + (!string.isEmpty() ? ", " : "") + seconds + (seconds == 1L ? " second" : shorten ? "s" : " seconds");
-        if (milliseconds > 0L) string = string + (!string.isEmpty() ? ", " : "") + milliseconds + (seconds == 1L ? " millisecond" : shorten ? "ms" : " milliseconds");
-        if (string.isEmpty()) string = "0" + (shorten ? "ms" : " millisecond");
-        return string;
+        return formatDuration(unit.toMillis(time), shorten ? Style.SHORT : Style.LONG);
+    }
+
+    /**
+     * Formats a duration.
+     * @param milliseconds - the duration.
+     * @param style - how to write it.
+     * @return the formatted duration.
+     */
+    public static String formatDuration(long milliseconds, Style style)
+    {
+        StringBuilder sb = new StringBuilder(32);
+        appendDuration(sb, milliseconds, style, UNITS.length);
+        return sb.toString();
+    }
+
+    /**
+     * Writes a duration, every unit that isn't zero.
+     * @see #appendDuration(StringBuilder, long, Style, int)
+     */
+    public static void appendDuration(StringBuilder out, long milliseconds, Style style)
+    {
+        appendDuration(out, milliseconds, style, UNITS.length);
+    }
+
+    /**
+     * Writes a duration into a builder, such as one reused for a scoreboard line.
+     * @param out - where to write the duration.
+     * @param milliseconds - the duration, negative durations are written as zero.
+     * @param style - how to write it.
+     * @param maxUnits - the most units to write, 2 writes 1d, 2h rather than 1d, 2h, 30m.
+     */
+    @SneakyThrows
+    public static void appendDuration(StringBuilder out, long milliseconds, Style style, int maxUnits)
+    {
+        append((Appendable) out, milliseconds, style, maxUnits);
+    }
+
+    /**
+     * Writes a duration into any appendable.
+     * @see #appendDuration(StringBuilder, long, Style, int)
+     */
+    public static void appendDuration(Appendable out, long milliseconds, Style style, int maxUnits) throws IOException
+    {
+        append(out, milliseconds, style, maxUnits);
+    }
+
+    private static void append(Appendable out, long milliseconds, Style style, int maxUnits) throws IOException
+    {
+        long remaining = Math.max(0, milliseconds);
+        int written = 0;
+
+        for (int i = 0; i < UNITS.length && written < maxUnits; i++) {
+            long amount = remaining / UNITS[i];
+
+            if (amount == 0) {
+                continue;
+            }
+
+            remaining -= amount * UNITS[i];
+
+            if (written++ > 0 && style != Style.COMPACT) {
+                out.append(", ");
+            }
+
+            appendUnit(out, amount, i, style);
+        }
+
+        if (written == 0) {
+            appendUnit(out, 0, UNITS.length - 1, style);
+        }
+    }
+
+    private static void appendUnit(Appendable out, long amount, int unit, Style style) throws IOException
+    {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(amount);
+        } else {
+            appendDigits(out, amount);
+        }
+
+        out.append(style == Style.LONG ? (amount == 1 ? SINGULAR_NAMES[unit] : PLURAL_NAMES[unit]) : SHORT_NAMES[unit]);
+    }
+
+    private static void appendDigits(Appendable out, long value) throws IOException
+    {
+        long divisor = 1;
+
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * Parses a duration such as 1d2h30m, 90s or 1d 12h. The units are d, h,
+     * m, s and ms, and may be separated by spaces or commas.
+     * @param value - the duration.
+     * @param fallback - returned if the value isn't a duration.
+     * @return the duration in milliseconds, or the fallback.
+     */
+    public static long tryParseDuration(CharSequence value, long fallback)
+    {
+        int length = value.length();
+        long total = 0;
+        int i = 0;
+        boolean any = false;
+
+        while (i < length) {
+            char c = value.charAt(i);
+
+            if (c == ' ' || c == ',') {
+                i++;
+                continue;
+            }
+
+            long amount = 0;
+            int start = i;
+
+            for (; i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9'; i++) {
+                amount = amount * 10 + (value.charAt(i) - '0');
+
+                if (amount > Long.MAX_VALUE / UNITS[0]) {
+                    return fallback;
+                }
+            }
+
+            if (i == start || i == length) {
+                return fallback;
+            }
+
+            int unit = unit(value, i);
+
+            if (unit == -1) {
+                return fallback;
+            }
+
+            i += SHORT_NAMES[unit].length();
+            total += amount * UNITS[unit];
+            any = true;
+
+            if (total < 0) {
+                return fallback;
+            }
+        }
+
+        return any ? total : fallback;
+    }
+
+    /**
+     * @return the unit whose short name is at the index, or -1.
+     */
+    private static int unit(CharSequence value, int index)
+    {
+        char c = Character.toLowerCase(value.charAt(index));
+        boolean ms = c == 'm' && index + 1 < value.length() && Character.toLowerCase(value.charAt(index + 1)) == 's';
+
+        switch (c) {
+            case 'd':
+                return 0;
+            case 'h':
+                return 1;
+            case 'm':
+                return ms ? 4 : 2;
+            case 's':
+                return 3;
+            default:
+                return -1;
+        }
     }
 }
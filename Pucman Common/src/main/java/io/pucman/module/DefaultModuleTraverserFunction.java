@@ -4,6 +4,10 @@ import com.google.common.collect.Lists;
 
 import java.util.LinkedList;
 
+/**
+ * @deprecated the traversal neither puts dependencies first nor detects cycles, use ModuleGraph.
+ */
+@Deprecated
 public class DefaultModuleTraverserFunction implements com.google.common.base.Function<Class<? extends Module>, Iterable<Class<? extends Module>>>
 {
     private Class<?> managerClass;
@@ -0,0 +1,33 @@
+package io.pucman.module;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Gives a module its own executor, so the tasks of one module can't take
+ * the threads every other module runs on. The executor is made when the
+ * module boots and shutdown with it.
+ *
+ * @see ModuleExecutor
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ExecutionBudget
+{
+    /**
+     * @return threads of the executor.
+     */
+    int threads() default 1;
+
+    /**
+     * @return tasks that may wait for a thread, more are refused.
+     */
+    int queueDepth() default 64;
+
+    /**
+     * @return seconds a task may run before it is interrupted, 0 lets it run.
+     */
+    long taskTimeout() default 0;
+}
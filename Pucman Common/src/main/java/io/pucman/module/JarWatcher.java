@@ -0,0 +1,183 @@
+package io.pucman.module;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches a directory of module jars, and loads a jar again when its
+ * content changes. The directory is watched, and the jars hashed and
+ * loaded, on a thread of the watcher, so the listener is only called for
+ * a jar that was added, removed, or whose hash is different. Writing a jar
+ * fires several events, so events are gathered until the directory has
+ * been quiet for a moment.
+ *
+ * @see ModuleJar
+ */
+@ParametersAreNonnullByDefault
+public final class JarWatcher implements Closeable
+{
+    /**
+     * Milliseconds the directory must be quiet before the changed jars are loaded.
+     */
+    private static final long QUIET_PERIOD = 500;
+
+    private final Path directory;
+    private final ClassLoader parent;
+    private final Listener listener;
+    private final Logger logger;
+    private final Map<Path, ModuleJar> jars = Maps.newConcurrentMap();
+    private WatchService service;
+    private Thread thread;
+
+    /**
+     * @param directory - the directory of jars.
+     * @param parent - the class loader the classes of the jars are linked against.
+     * @param listener - called when a jar is loaded, loaded again or removed.
+     * @param logger - where to log jars that fail to load.
+     */
+    public JarWatcher(Path directory, ClassLoader parent, Listener listener, Logger logger)
+    {
+        this.directory = directory;
+        this.parent = parent;
+        this.listener = listener;
+        this.logger = logger;
+    }
+
+    /**
+     * Called on the thread of the watcher.
+     */
+    @FunctionalInterface
+    public interface Listener
+    {
+        /**
+         * @param previous - the jar as it was loaded before, or null if it is new.
+         * @param current - the jar as it is loaded now, or null if it was removed.
+         */
+        void changed(ModuleJar previous, ModuleJar current);
+    }
+
+    /**
+     * Loads the jars in the directory, then watches it for changes.
+     * @throws IOException if the directory can't be watched.
+     */
+    public synchronized void start() throws IOException
+    {
+        if (thread != null) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        service = directory.getFileSystem().newWatchService();
+        directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+        TreeSet<Path> present = Sets.newTreeSet();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.jar")) {
+            stream.forEach(present::add);
+        }
+
+        thread = new Thread(() -> {
+            update(present);
+            watch();
+        }, "JarWatcher " + directory.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return the loaded jars, by their path.
+     */
+    public Map<Path, ModuleJar> getJars()
+    {
+        return jars;
+    }
+
+    /**
+     * Stops watching. The jars stay loaded, and are closed by whoever
+     * shuts down their modules.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (thread != null) {
+            service.close();
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void watch()
+    {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                // Sorted, so jars changed together are loaded in the same order every time.
+                TreeSet<Path> changed = Sets.newTreeSet();
+
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path && event.context().toString().endsWith(".jar")) {
+                            changed.add(directory.resolve((Path) event.context()));
+                        }
+                    }
+
+                    key.reset();
+                    key = service.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+                }
+
+                update(changed);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignore) {
+            // Closed.
+        }
+    }
+
+    private void update(Set<Path> changed)
+    {
+        for (Path path : changed) {
+            ModuleJar previous = jars.get(path);
+
+            try {
+                if (!Files.exists(path)) {
+                    if (previous != null) {
+                        jars.remove(path);
+                        listener.changed(previous, null);
+                    }
+
+                    continue;
+                }
+
+                HashCode hash = ModuleJar.hash(path);
+
+                if (previous != null && previous.getHash().equals(hash)) {
+                    continue;
+                }
+
+                ModuleJar current = ModuleJar.load(path, parent);
+                jars.put(path, current);
+                listener.changed(previous, current);
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Could not load module jar " + path.getFileName() + ".", e);
+            }
+        }
+    }
+}
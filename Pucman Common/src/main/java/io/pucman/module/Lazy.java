@@ -0,0 +1,23 @@
+package io.pucman.module;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a module that isn't booted with the rest of the modules of its
+ * plugin, but the first time it is needed, such as when a command or
+ * listener gets it from the module manager. A lazy module that a module
+ * booted with the plugin depends on is booted with the plugin too.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Lazy
+{
+    /**
+     * @return seconds the module may go without being used before it is
+     * shutdown again, 0 keeps it booted once it is.
+     */
+    long idleTimeout() default 0;
+}
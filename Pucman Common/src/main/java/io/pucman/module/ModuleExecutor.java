@@ -0,0 +1,265 @@
+package io.pucman.module;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded executor of a module. It has a fixed number of threads and
+ * a queue of a fixed depth, tasks beyond that are refused rather than
+ * piling up, and a task that runs for longer than the time limit is
+ * interrupted. How full it is can be read at any time.
+ *
+ * @see ExecutionBudget
+ */
+@ParametersAreNonnullByDefault
+public final class ModuleExecutor implements Executor
+{
+    /**
+     * Interrupts the tasks that run for too long, of every module.
+     */
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("ModuleExecutor Watchdog").setDaemon(true).build());
+
+    private final String name;
+    private final ThreadPoolExecutor pool;
+    private final int queueDepth;
+    private final long taskTimeout;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * @param name - name of the module, the threads are named after it.
+     * @param threads - threads of the executor.
+     * @param queueDepth - tasks that may wait for a thread, 0 refuses a task unless a thread is free.
+     * @param taskTimeout - how long a task may run, 0 lets it run.
+     * @param unit - unit of the time limit.
+     */
+    public ModuleExecutor(String name, int threads, int queueDepth, long taskTimeout, TimeUnit unit)
+    {
+        this.name = name;
+        this.queueDepth = queueDepth;
+        this.taskTimeout = unit.toNanos(taskTimeout);
+        BlockingQueue<Runnable> queue = queueDepth == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueDepth);
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, new ThreadFactoryBuilder().setNameFormat(name + " %d").setDaemon(true).build());
+    }
+
+    /**
+     * Makes the executor a module declared.
+     * @param name - name of the module.
+     * @param budget - the budget of the module.
+     * @return the executor.
+     */
+    public static ModuleExecutor of(String name, ExecutionBudget budget)
+    {
+        return new ModuleExecutor(name, budget.threads(), budget.queueDepth(), budget.taskTimeout(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues a task nobody waits on. A task that throws is reported to the
+     * uncaught exception handler of the thread it ran on.
+     * @param task - the task.
+     * @throws RejectedExecutionException if the queue is full or the executor is shutdown.
+     */
+    @Override
+    public void execute(Runnable task)
+    {
+        queue(new FutureTask<>(task, null), true);
+    }
+
+    /**
+     * Queues a task.
+     * @param task - the task.
+     * @param <T> - result of the task.
+     * @return the result of the task, cancelled if the task ran for too long.
+     * @throws RejectedExecutionException if the queue is full or the executor is shutdown.
+     */
+    public <T> Future<T> submit(Callable<T> task)
+    {
+        FutureTask<T> future = new FutureTask<>(task);
+        queue(future, false);
+        return future;
+    }
+
+    private void queue(FutureTask<?> future, boolean report)
+    {
+        try {
+            pool.execute(new Task(future, report));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new RejectedExecutionException(name + " refused a task, " + this + ".", e);
+        }
+    }
+
+    private void run(FutureTask<?> future, boolean report)
+    {
+        // Only time spent running counts towards the limit, not time spent queued.
+        ScheduledFuture<?> watchdog = taskTimeout <= 0 ? null : WATCHDOG.schedule(() -> {
+            // Counted before cancelling, as cancelling wakes whoever waits on the task.
+            timedOut.increment();
+
+            if (!future.cancel(true)) {
+                timedOut.decrement();
+            }
+        }, taskTimeout, TimeUnit.NANOSECONDS);
+
+        try {
+            future.run();
+        } finally {
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+        }
+
+        if (report && !future.isCancelled()) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * A queued task, it keeps its future so the future can be cancelled
+     * if the task never runs.
+     */
+    private final class Task implements Runnable
+    {
+        private final FutureTask<?> future;
+        private final boolean report;
+
+        private Task(FutureTask<?> future, boolean report)
+        {
+            this.future = future;
+            this.report = report;
+        }
+
+        @Override
+        public void run()
+        {
+            ModuleExecutor.this.run(future, report);
+        }
+    }
+
+    /**
+     * @return name of the module.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return threads running a task.
+     */
+    public int getActive()
+    {
+        return pool.getActiveCount();
+    }
+
+    /**
+     * @return tasks waiting for a thread.
+     */
+    public int getQueued()
+    {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * @return tasks that may wait for a thread.
+     */
+    public int getQueueDepth()
+    {
+        return queueDepth;
+    }
+
+    /**
+     * @return tasks that have finished.
+     */
+    public long getCompleted()
+    {
+        return pool.getCompletedTaskCount();
+    }
+
+    /**
+     * @return tasks refused as the queue was full.
+     */
+    public long getRejected()
+    {
+        return rejected.sum();
+    }
+
+    /**
+     * @return tasks interrupted as they ran for too long.
+     */
+    public long getTimedOut()
+    {
+        return timedOut.sum();
+    }
+
+    /**
+     * @return true if every thread is busy and the queue is at least three quarters full.
+     */
+    public boolean isSaturated()
+    {
+        return getActive() >= pool.getMaximumPoolSize() && getQueued() * 4 >= queueDepth * 3;
+    }
+
+    /**
+     * Stops taking tasks, and waits for the queued tasks to finish before
+     * interrupting the ones still running. The queued tasks that never ran
+     * are cancelled, so whoever waits on them is woken.
+     * @param timeout - how long to wait.
+     * @param unit - unit of the time.
+     * @return the queued tasks that never ran, as their cancelled futures.
+     */
+    public List<Runnable> shutdown(long timeout, TimeUnit unit)
+    {
+        pool.shutdown();
+
+        try {
+            if (pool.awaitTermination(timeout, unit)) {
+                return Collections.emptyList();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Runnable> never = Lists.newArrayList();
+
+        for (Runnable runnable : pool.shutdownNow()) {
+            FutureTask<?> future = ((Task) runnable).future;
+            future.cancel(false);
+            never.add(future);
+        }
+
+        return never;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name + " " + getActive() + "/" + pool.getMaximumPoolSize() + " threads busy, " + getQueued() + "/" + queueDepth + " queued, " + getCompleted() + " completed, " + getRejected() + " rejected, " + getTimedOut() + " timed out";
+    }
+}
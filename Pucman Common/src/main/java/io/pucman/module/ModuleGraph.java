@@ -0,0 +1,176 @@
+package io.pucman.module;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.generic.GenericUtil;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The dependency graph of a set of modules, read from their Dependencies
+ * annotations. Dependencies that aren't modules, such as managers, are
+ * left out, and modules that are depended on but weren't given are added.
+ *
+ * The modules are sorted so every module comes after its dependencies,
+ * and a cycle of dependencies is refused when the graph is made.
+ *
+ * @see Dependencies
+ */
+@ParametersAreNonnullByDefault
+public final class ModuleGraph
+{
+    private final ImmutableList<Class<? extends Module>> order;
+    private final ImmutableMap<Class<? extends Module>, ImmutableList<Class<? extends Module>>> dependencies;
+    private final ImmutableMap<Class<? extends Module>, ImmutableList<Class<? extends Module>>> dependents;
+
+    private ModuleGraph(ImmutableList<Class<? extends Module>> order, ImmutableMap<Class<? extends Module>, ImmutableList<Class<? extends Module>>> dependencies)
+    {
+        this.order = order;
+        this.dependencies = dependencies;
+
+        LinkedHashMap<Class<? extends Module>, List<Class<? extends Module>>> dependents = Maps.newLinkedHashMap();
+        order.forEach(module -> dependents.put(module, Lists.newArrayList()));
+        order.forEach(module -> dependencies.get(module).forEach(dependency -> dependents.get(dependency).add(module)));
+        this.dependents = ImmutableMap.copyOf(Maps.transformValues(dependents, ImmutableList::copyOf));
+    }
+
+    /**
+     * Makes the graph of modules.
+     * @param modules - the modules.
+     * @return the graph.
+     * @throws DeveloperException if the modules depend on each other in a cycle.
+     */
+    public static ModuleGraph of(Collection<Class<? extends Module>> modules)
+    {
+        LinkedHashMap<Class<? extends Module>, ImmutableList<Class<? extends Module>>> dependencies = Maps.newLinkedHashMap();
+        ImmutableList.Builder<Class<? extends Module>> order = ImmutableList.builder();
+        LinkedHashMap<Class<? extends Module>, Boolean> visiting = Maps.newLinkedHashMap();
+
+        for (Class<? extends Module> module : modules) {
+            visit(module, dependencies, visiting, order);
+        }
+
+        return new ModuleGraph(order.build(), ImmutableMap.copyOf(dependencies));
+    }
+
+    /**
+     * Depth first, so a module is added to the order after all of its
+     * dependencies. The modules being visited are the path from the first
+     * module, so finding one of them again is a cycle.
+     */
+    private static void visit(Class<? extends Module> module, Map<Class<? extends Module>, ImmutableList<Class<? extends Module>>> dependencies, LinkedHashMap<Class<? extends Module>, Boolean> visiting, ImmutableList.Builder<Class<? extends Module>> order)
+    {
+        if (dependencies.containsKey(module)) {
+            return;
+        }
+
+        if (visiting.containsKey(module)) {
+            List<Class<?>> path = Lists.newArrayList(visiting.keySet());
+            path = path.subList(path.indexOf(module), path.size());
+            path.add(module);
+            throw new DeveloperException("Modules depend on each other in a cycle: " + path.stream().map(Class::getSimpleName).collect(Collectors.joining(" -> ")) + ".");
+        }
+
+        visiting.put(module, true);
+        ImmutableList<Class<? extends Module>> direct = read(module);
+
+        for (Class<? extends Module> dependency : direct) {
+            visit(dependency, dependencies, visiting, order);
+        }
+
+        visiting.remove(module);
+        dependencies.put(module, direct);
+        order.add(module);
+    }
+
+    private static ImmutableList<Class<? extends Module>> read(Class<? extends Module> module)
+    {
+        Dependencies annotation = module.getAnnotation(Dependencies.class);
+
+        if (annotation == null) {
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<Class<? extends Module>> builder = ImmutableList.builder();
+
+        for (Class<?> dependency : annotation.value()) {
+            if (Module.class.isAssignableFrom(dependency)) {
+                Class<? extends Module> moduleDependency = GenericUtil.cast(dependency);
+                builder.add(moduleDependency);
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @return the modules, each after its dependencies.
+     */
+    public List<Class<? extends Module>> getOrder()
+    {
+        return order;
+    }
+
+    /**
+     * @param module - the module.
+     * @return true if the module is in the graph.
+     */
+    public boolean contains(Class<? extends Module> module)
+    {
+        return dependencies.containsKey(module);
+    }
+
+    /**
+     * @param module - the module.
+     * @return the modules the module directly depends on.
+     */
+    public List<Class<? extends Module>> getDependencies(Class<? extends Module> module)
+    {
+        return dependencies.getOrDefault(module, ImmutableList.of());
+    }
+
+    /**
+     * @param module - the module.
+     * @return the modules that directly depend on the module.
+     */
+    public List<Class<? extends Module>> getDependents(Class<? extends Module> module)
+    {
+        return dependents.getOrDefault(module, ImmutableList.of());
+    }
+
+    /**
+     * Runs a task for every module, such as constructing and booting it.
+     * The task of a module is run on the executor as soon as the tasks of
+     * all of its dependencies have finished, so modules that don't depend
+     * on each other run at the same time. If the task of a module fails,
+     * the tasks of the modules depending on it aren't run, and fail with
+     * the same exception.
+     * @param task - the task.
+     * @param executor - where to run the tasks, a direct executor runs them one at a time in order.
+     * @param <R> - result of the task.
+     * @return the result of the task of each module, in order.
+     */
+    public <R> Map<Class<? extends Module>, CompletableFuture<R>> run(Function<Class<? extends Module>, R> task, Executor executor)
+    {
+        LinkedHashMap<Class<? extends Module>, CompletableFuture<R>> results = Maps.newLinkedHashMap();
+
+        for (Class<? extends Module> module : order) {
+            List<Class<? extends Module>> direct = dependencies.get(module);
+            CompletableFuture<?> ready = direct.isEmpty() ? CompletableFuture.completedFuture(null) : CompletableFuture.allOf(direct.stream().map(results::get).toArray(CompletableFuture[]::new));
+            results.put(module, ready.thenApplyAsync(ignored -> task.apply(module), executor));
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,115 @@
+package io.pucman.module;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import io.pucman.common.generic.GenericUtil;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the loaded modules, their instances by class and the edges
+ * between them in both directions. It is updated as modules are loaded and
+ * unloaded, so finding the dependencies or dependents of a module, or how
+ * many loaded modules still depend on it, doesn't scan the loaded modules.
+ */
+@ParametersAreNonnullByDefault
+public final class ModuleIndex
+{
+    private final ConcurrentHashMap<Class<? extends Module>, Module> instances = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<? extends Module>, ImmutableList<Class<? extends Module>>> dependencies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<? extends Module>, Set<Class<? extends Module>>> dependents = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a loaded module.
+     * @param module - the module.
+     * @param dependencies - the modules it depends on.
+     */
+    public synchronized void add(Module module, Collection<Class<? extends Module>> dependencies)
+    {
+        Class<? extends Module> type = module.getClass();
+        remove(type);
+        instances.put(type, module);
+        this.dependencies.put(type, ImmutableList.copyOf(dependencies));
+
+        for (Class<? extends Module> dependency : dependencies) {
+            this.dependents.computeIfAbsent(dependency, key -> Sets.newConcurrentHashSet()).add(type);
+        }
+    }
+
+    /**
+     * Removes a module that is unloaded. The modules depending on it are
+     * still indexed as its dependents.
+     * @param module - the module class.
+     * @return the module, or null if it wasn't loaded.
+     */
+    public synchronized Module remove(Class<? extends Module> module)
+    {
+        Module removed = instances.remove(module);
+        List<Class<? extends Module>> removedDependencies = this.dependencies.remove(module);
+
+        if (removedDependencies != null) {
+            for (Class<? extends Module> dependency : removedDependencies) {
+                Set<Class<? extends Module>> set = this.dependents.get(dependency);
+
+                if (set != null) {
+                    set.remove(module);
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * @param module - the module class.
+     * @param <M> - generic type.
+     * @return the loaded module, or null if it isn't loaded.
+     */
+    public <M extends Module> M get(Class<M> module)
+    {
+        return GenericUtil.cast(instances.get(module));
+    }
+
+    /**
+     * @param module - the module class.
+     * @return true if the module is loaded.
+     */
+    public boolean contains(Class<? extends Module> module)
+    {
+        return instances.containsKey(module);
+    }
+
+    /**
+     * @param module - the module class.
+     * @return the modules the loaded module depends on.
+     */
+    public List<Class<? extends Module>> getDependencies(Class<? extends Module> module)
+    {
+        return dependencies.getOrDefault(module, ImmutableList.of());
+    }
+
+    /**
+     * @param module - the module class.
+     * @return the loaded modules that depend on the module.
+     */
+    public Set<Class<? extends Module>> getDependents(Class<? extends Module> module)
+    {
+        Set<Class<? extends Module>> set = dependents.get(module);
+        return set == null ? ImmutableSet.of() : ImmutableSet.copyOf(set);
+    }
+
+    /**
+     * @param module - the module class.
+     * @return how many loaded modules depend on the module.
+     */
+    public int getReferences(Class<? extends Module> module)
+    {
+        Set<Class<? extends Module>> set = dependents.get(module);
+        return set == null ? 0 : set.size();
+    }
+}
@@ -0,0 +1,182 @@
+package io.pucman.module;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.pucman.common.generic.GenericUtil;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * A jar of modules loaded by a JarWatcher. The jar is copied before it is
+ * loaded, so it can be replaced while its classes are in use, and each
+ * version of the jar has its own class loader.
+ *
+ * @see JarWatcher
+ */
+@ParametersAreNonnullByDefault
+public final class ModuleJar implements Closeable
+{
+    private final Path path;
+    private final Path copy;
+    private final HashCode hash;
+    private final URLClassLoader classLoader;
+    private final ImmutableList<String> classes;
+    private final ImmutableList<Class<? extends Module>> modules;
+
+    private ModuleJar(Path path, Path copy, HashCode hash, URLClassLoader classLoader, ImmutableList<String> classes, ImmutableList<Class<? extends Module>> modules)
+    {
+        this.path = path;
+        this.copy = copy;
+        this.hash = hash;
+        this.classLoader = classLoader;
+        this.classes = classes;
+        this.modules = modules;
+    }
+
+    /**
+     * Hashes a jar.
+     * @param path - the jar.
+     * @return the hash of its content.
+     * @throws IOException if the jar can't be read.
+     */
+    public static HashCode hash(Path path) throws IOException
+    {
+        return com.google.common.io.Files.asByteSource(path.toFile()).hash(Hashing.sha256());
+    }
+
+    /**
+     * Copies and loads a jar, and finds the modules in it.
+     * @param path - the jar.
+     * @param parent - the class loader the classes of the jar are linked against.
+     * @return the loaded jar.
+     * @throws IOException if the jar can't be read.
+     */
+    public static ModuleJar load(Path path, ClassLoader parent) throws IOException
+    {
+        Path copy = Files.createTempFile("pucman-module-", ".jar");
+        URLClassLoader classLoader = null;
+
+        try {
+            Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+            ImmutableList<String> names = listClasses(copy);
+            classLoader = new URLClassLoader(new URL[]{copy.toUri().toURL()}, parent);
+            return new ModuleJar(path, copy, hash(copy), classLoader, names, findModules(names, classLoader));
+        } catch (IOException | RuntimeException | Error e) {
+            // The copy would otherwise be left behind by every jar that fails to load.
+            try {
+                if (classLoader != null) {
+                    classLoader.close();
+                }
+
+                Files.deleteIfExists(copy);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+
+            throw e;
+        }
+    }
+
+    private static ImmutableList<String> listClasses(Path jar) throws IOException
+    {
+        ImmutableList.Builder<String> classes = ImmutableList.builder();
+
+        try (JarFile file = new JarFile(jar.toFile())) {
+            for (Enumeration<JarEntry> entries = file.entries(); entries.hasMoreElements(); ) {
+                String name = entries.nextElement().getName();
+
+                if (name.endsWith(".class") && !name.endsWith("module-info.class")) {
+                    classes.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+                }
+            }
+        }
+
+        return classes.build();
+    }
+
+    private static ImmutableList<Class<? extends Module>> findModules(ImmutableList<String> names, ClassLoader classLoader)
+    {
+        ImmutableList.Builder<Class<? extends Module>> modules = ImmutableList.builder();
+
+        for (String name : names) {
+            Class<?> clazz;
+
+            try {
+                clazz = Class.forName(name, false, classLoader);
+            } catch (ClassNotFoundException | LinkageError ignore) {
+                // Classes linked against something that isn't there, such as an optional dependency, can't be modules.
+                continue;
+            }
+
+            if (Module.class.isAssignableFrom(clazz) && !clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers())) {
+                Class<? extends Module> module = GenericUtil.cast(clazz);
+                modules.add(module);
+            }
+        }
+
+        return modules.build();
+    }
+
+    /**
+     * @return the jar.
+     */
+    public Path getPath()
+    {
+        return path;
+    }
+
+    /**
+     * @return the hash of the content of the jar when it was loaded.
+     */
+    public HashCode getHash()
+    {
+        return hash;
+    }
+
+    /**
+     * @return the class loader of the jar.
+     */
+    public ClassLoader getClassLoader()
+    {
+        return classLoader;
+    }
+
+    /**
+     * @return the names of the classes in the jar.
+     */
+    public ImmutableList<String> getClasses()
+    {
+        return classes;
+    }
+
+    /**
+     * @return the modules in the jar.
+     */
+    public ImmutableList<Class<? extends Module>> getModules()
+    {
+        return modules;
+    }
+
+    /**
+     * Closes the class loader and deletes the copy of the jar, once the
+     * modules of the jar are shutdown.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        classLoader.close();
+        Files.deleteIfExists(copy);
+    }
+}
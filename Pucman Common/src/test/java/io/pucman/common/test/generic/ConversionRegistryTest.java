@@ -0,0 +1,94 @@
+package io.pucman.common.test.generic;
+
+import com.google.common.collect.ImmutableList;
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.generic.ConversionRegistry;
+import io.pucman.common.generic.GenericUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+public class ConversionRegistryTest
+{
+    private final ConversionRegistry registry = ConversionRegistry.getDefault();
+
+    @Test
+    public void defaults()
+    {
+        Assert.assertEquals(20L, (long) registry.convert(20, long.class));
+        Assert.assertEquals(1.5D, registry.convert("1.5", Double.class), 0);
+        Assert.assertEquals(true, registry.convert("TRUE", boolean.class));
+        Assert.assertEquals("20", registry.convert(20, String.class));
+        Assert.assertEquals("SECONDS", registry.convert(TimeUnit.SECONDS, String.class));
+        Assert.assertEquals("x", registry.convert('x', String.class));
+        Assert.assertEquals(TimeUnit.SECONDS, registry.convert("seconds", TimeUnit.class));
+        Assert.assertArrayEquals(new int[]{1, 2, 3}, registry.convert(ImmutableList.of(1, 2L, "3"), int[].class));
+        Assert.assertArrayEquals(new String[]{"a", "1"}, registry.convert(ImmutableList.of("a", 1), String[].class));
+    }
+
+    @Test
+    public void resolvedOnce()
+    {
+        Assert.assertSame(registry.get(Integer.class, int.class), registry.get(Integer.class, Integer.class));
+        Assert.assertSame(registry.get(String.class, TimeUnit.class), registry.get(String.class, TimeUnit.class));
+        Assert.assertFalse(registry.canConvert(Integer.class, TimeUnit.class));
+    }
+
+    @Test
+    public void registered()
+    {
+        ConversionRegistry registry = new ConversionRegistry().register(CharSequence.class, Integer.class, CharSequence::length);
+        Assert.assertEquals(3, (int) registry.convert(new StringBuilder("abc"), int.class));
+        Assert.assertEquals(3, (int) registry.convert("abc", int.class));
+
+        ConversionRegistry local = ConversionRegistry.withDefaults().register(Integer.class, Boolean.class, value -> value != 0);
+        Assert.assertTrue(local.canConvert(Integer.class, boolean.class));
+        Assert.assertFalse(this.registry.canConvert(Integer.class, boolean.class));
+    }
+
+    @Test
+    public void narrowing()
+    {
+        Assert.assertEquals(3, (int) registry.convert(3.0D, int.class));
+        Assert.assertEquals(-128, (byte) registry.convert(-128L, byte.class));
+        Assert.assertEquals(Long.MAX_VALUE, (long) registry.convert(BigInteger.valueOf(Long.MAX_VALUE), long.class));
+
+        for (Object lossy : new Object[]{3.5D, 3000000000L, 1e19D, Double.NaN, BigInteger.ONE.shiftLeft(64)}) {
+            try {
+                Class<?> target = lossy instanceof BigInteger ? long.class : int.class;
+                registry.convert(lossy, target);
+                Assert.fail(lossy + " was narrowed.");
+            } catch (DeveloperException ignore) {
+            }
+        }
+
+        try {
+            registry.convert(1e300D, float.class);
+            Assert.fail("1e300 was narrowed to a float.");
+        } catch (DeveloperException ignore) {
+        }
+    }
+
+    @Test
+    public void onlyScalarsToString()
+    {
+        Assert.assertFalse(registry.canConvert(ImmutableList.class, String.class));
+        Assert.assertFalse(registry.canConvert(Object.class, String.class));
+        Assert.assertTrue(registry.canConvert(Boolean.class, String.class));
+    }
+
+    @Test(expected = DeveloperException.class)
+    public void unconvertible()
+    {
+        registry.convert("hours", int.class);
+    }
+
+    @Test
+    public void castable()
+    {
+        Assert.assertTrue(GenericUtil.castable(1, int.class));
+        Assert.assertFalse(GenericUtil.castable("1", Integer.class));
+    }
+}
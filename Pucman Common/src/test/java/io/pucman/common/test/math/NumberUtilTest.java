@@ -19,4 +19,47 @@ public class NumberUtilTest
     {
         Assert.assertEquals(4, (int) NumberUtil.parse(testField, int.class));
     }
+
+    @Test
+    public void wrapperClasses()
+    {
+        Assert.assertTrue(NumberUtil.parseable(testField, Integer.class));
+        Assert.assertFalse(NumberUtil.parseable("four", Integer.class));
+        Assert.assertFalse(NumberUtil.parseable("300", Byte.class));
+        Assert.assertEquals(4L, (long) NumberUtil.parse(testField, Long.class));
+    }
+
+    @Test
+    public void tryParseInt()
+    {
+        Assert.assertEquals(4, NumberUtil.tryParseInt(testField, -1));
+        Assert.assertEquals(-42, NumberUtil.tryParseInt("-42", -1));
+        Assert.assertEquals(Integer.MIN_VALUE, NumberUtil.tryParseInt("-2147483648", -1));
+        Assert.assertEquals(-1, NumberUtil.tryParseInt("2147483648", -1));
+        Assert.assertEquals(-1, NumberUtil.tryParseInt("", -1));
+        Assert.assertEquals(-1, NumberUtil.tryParseInt("-", -1));
+        Assert.assertEquals(-1, NumberUtil.tryParseInt("4a", -1));
+        Assert.assertEquals(-1, NumberUtil.tryParseInt("11", 1, 10, -1));
+    }
+
+    @Test
+    public void tryParseLongAndDouble()
+    {
+        Assert.assertEquals(Long.MIN_VALUE, NumberUtil.tryParseLong("-9223372036854775808", 0));
+        Assert.assertEquals(0, NumberUtil.tryParseLong("9223372036854775808", 0));
+        Assert.assertEquals(-1.5e3, NumberUtil.tryParseDouble("-1.5e3", 0), 0);
+        Assert.assertEquals(0.5, NumberUtil.tryParseDouble(".5", 0), 0);
+        Assert.assertEquals(0, NumberUtil.tryParseDouble("NaN", 0), 0);
+        Assert.assertEquals(0, NumberUtil.tryParseDouble("1e999", 0), 0);
+        Assert.assertEquals(0, NumberUtil.tryParseDouble("1.", 0, 0.5, 0), 0);
+    }
+
+    @Test
+    public void optionals()
+    {
+        Assert.assertEquals(0, NumberUtil.parseInt("0").getAsInt());
+        Assert.assertFalse(NumberUtil.parseInt("zero").isPresent());
+        Assert.assertEquals(1L, NumberUtil.parseLong("1").getAsLong());
+        Assert.assertFalse(NumberUtil.parseDouble("1e").isPresent());
+    }
 }
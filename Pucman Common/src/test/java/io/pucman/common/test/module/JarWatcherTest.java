@@ -0,0 +1,163 @@
+package io.pucman.common.test.module;
+
+import io.pucman.module.JarWatcher;
+import io.pucman.module.Module;
+import io.pucman.module.ModuleInfo;
+import io.pucman.module.ModuleJar;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarOutputStream;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+public class JarWatcherTest
+{
+    @Test
+    public void reloadsChangedJars() throws Exception
+    {
+        Path directory = Files.createTempDirectory("modules");
+        Path jar = directory.resolve("example.jar");
+        write(jar, false);
+
+        List<ModuleJar> received = new CopyOnWriteArrayList<>();
+        BlockingQueue<ModuleJar[]> changes = new LinkedBlockingQueue<>();
+        JarWatcher watcher = new JarWatcher(directory, new HidingClassLoader(getClass().getClassLoader()), (previous, current) -> {
+            if (current != null) {
+                received.add(current);
+            }
+
+            changes.add(new ModuleJar[]{previous, current});
+        }, Logger.getAnonymousLogger());
+        watcher.start();
+
+        try {
+            ModuleJar[] loaded = changes.poll(10, TimeUnit.SECONDS);
+            Assert.assertNull(loaded[0]);
+            Assert.assertEquals(1, loaded[1].getModules().size());
+            Assert.assertSame(loaded[1].getClassLoader(), loaded[1].getModules().get(0).getClassLoader());
+
+            write(jar, true);
+            ModuleJar[] reloaded = changes.poll(10, TimeUnit.SECONDS);
+            Assert.assertSame(loaded[1], reloaded[0]);
+            Assert.assertEquals(2, reloaded[1].getClasses().size());
+            Assert.assertNotEquals(loaded[1].getHash(), reloaded[1].getHash());
+            Assert.assertNotSame(loaded[1].getModules().get(0), reloaded[1].getModules().get(0));
+
+            Files.delete(jar);
+            ModuleJar[] removed = changes.poll(10, TimeUnit.SECONDS);
+            Assert.assertSame(reloaded[1], removed[0]);
+            Assert.assertNull(removed[1]);
+        } finally {
+            watcher.close();
+
+            for (ModuleJar moduleJar : received) {
+                moduleJar.close();
+            }
+
+            delete(directory);
+        }
+    }
+
+    private void write(Path jar, boolean extra) throws Exception
+    {
+        Path temp = Files.createTempFile("module", ".jar");
+
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(temp))) {
+            copy(out, Example.class.getName());
+
+            if (extra) {
+                copy(out, Extra.class.getName());
+            }
+        }
+
+        // Moved in whole, as a deploy would, rather than written in place.
+        Files.move(temp, jar, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void copy(JarOutputStream out, String name) throws Exception
+    {
+        String path = name.replace('.', '/') + ".class";
+        out.putNextEntry(new ZipEntry(path));
+
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(path)) {
+            byte[] buffer = new byte[1024];
+            int read;
+
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static void delete(Path directory) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Hides the classes written into the jar, so they are only found in the jar.
+     */
+    private static class HidingClassLoader extends ClassLoader
+    {
+        private HidingClassLoader(ClassLoader parent)
+        {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+        {
+            if (name.startsWith(JarWatcherTest.class.getName() + "$")) {
+                throw new ClassNotFoundException(name);
+            }
+
+            return super.loadClass(name, resolve);
+        }
+    }
+
+    public static class Example implements Module
+    {
+        @Override
+        public ModuleInfo getInfo()
+        {
+            return new ModuleInfo(new String[0], "1.0", getClass().getSimpleName(), false);
+        }
+
+        @Override
+        public void boot()
+        {
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+
+        @Override
+        public boolean isEnabled()
+        {
+            return true;
+        }
+    }
+
+    public static class Extra
+    {
+    }
+}
@@ -0,0 +1,134 @@
+package io.pucman.common.test.module;
+
+import io.pucman.module.ModuleExecutor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ModuleExecutorTest
+{
+    @Test
+    public void boundedQueue() throws Exception
+    {
+        ModuleExecutor executor = new ModuleExecutor("Bounded", 1, 1, 0, TimeUnit.SECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            executor.execute(() -> await(release));
+            executor.execute(() -> {});
+
+            try {
+                executor.execute(() -> {});
+                Assert.fail();
+            } catch (RejectedExecutionException ignore) {}
+
+            Assert.assertEquals(1, executor.getRejected());
+
+            while (executor.getActive() == 0) {
+                Thread.sleep(1);
+            }
+
+            Assert.assertTrue(executor.isSaturated());
+        } finally {
+            release.countDown();
+            Assert.assertTrue(executor.shutdown(5, TimeUnit.SECONDS).isEmpty());
+        }
+    }
+
+    @Test
+    public void taskTimeout() throws Exception
+    {
+        ModuleExecutor executor = new ModuleExecutor("Timeout", 1, 4, 100, TimeUnit.MILLISECONDS);
+
+        try {
+            Future<?> slow = executor.submit(() -> {
+                Thread.sleep(10000);
+                return null;
+            });
+
+            try {
+                slow.get(5, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (CancellationException ignore) {}
+
+            Assert.assertEquals(1, executor.getTimedOut());
+            Assert.assertEquals("done", executor.submit(() -> "done").get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void shutdownCancelsQueued() throws Exception
+    {
+        ModuleExecutor executor = new ModuleExecutor("Shutdown", 1, 2, 0, TimeUnit.SECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> await(release));
+        Future<String> queued = executor.submit(() -> "never");
+
+        List<Runnable> never = executor.shutdown(50, TimeUnit.MILLISECONDS);
+        release.countDown();
+
+        Assert.assertEquals(1, never.size());
+        Assert.assertSame(queued, never.get(0));
+        Assert.assertTrue(queued.isCancelled());
+    }
+
+    @Test
+    public void zeroQueueDepth() throws Exception
+    {
+        ModuleExecutor executor = new ModuleExecutor("Unqueued", 1, 0, 0, TimeUnit.SECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            executor.execute(() -> await(release));
+
+            try {
+                executor.execute(() -> {});
+                Assert.fail();
+            } catch (RejectedExecutionException ignore) {}
+        } finally {
+            release.countDown();
+            executor.shutdown(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void executeReportsFailure() throws Exception
+    {
+        ModuleExecutor executor = new ModuleExecutor("Failing", 1, 1, 0, TimeUnit.SECONDS);
+        AtomicReference<Throwable> reported = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        try {
+            executor.execute(() -> Thread.currentThread().setUncaughtExceptionHandler((thread, e) -> {
+                reported.set(e);
+                done.countDown();
+            }));
+            executor.execute(() -> {
+                throw new IllegalStateException("failed");
+            });
+
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals("failed", reported.get().getMessage());
+        } finally {
+            executor.shutdown(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
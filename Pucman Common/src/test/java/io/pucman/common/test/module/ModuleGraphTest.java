@@ -0,0 +1,123 @@
+package io.pucman.common.test.module;
+
+import com.google.common.collect.ImmutableList;
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.module.Dependencies;
+import io.pucman.module.Module;
+import io.pucman.module.ModuleGraph;
+import io.pucman.module.ModuleInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ModuleGraphTest
+{
+    @Test
+    public void dependenciesFirst()
+    {
+        ModuleGraph graph = ModuleGraph.of(ImmutableList.of(Top.class, Left.class));
+        List<Class<? extends Module>> order = graph.getOrder();
+
+        Assert.assertEquals(4, order.size());
+        Assert.assertEquals(Root.class, order.get(0));
+        Assert.assertEquals(Top.class, order.get(3));
+        Assert.assertEquals(ImmutableList.of(Left.class, Right.class), graph.getDependents(Root.class));
+        Assert.assertEquals(ImmutableList.of(Left.class, Right.class), graph.getDependencies(Top.class));
+    }
+
+    @Test(expected = DeveloperException.class)
+    public void cycle()
+    {
+        ModuleGraph.of(ImmutableList.of(CycleA.class));
+    }
+
+    @Test
+    public void runCascadesFailures()
+    {
+        ExecutorService pool = Executors.newWorkStealingPool();
+
+        try {
+            Map<Class<? extends Module>, CompletableFuture<String>> results = ModuleGraph.of(ImmutableList.of(Top.class)).run(module -> {
+                if (module == Right.class) {
+                    throw new IllegalStateException();
+                }
+
+                return module.getSimpleName();
+            }, pool);
+
+            Assert.assertEquals("Left", results.get(Left.class).join());
+
+            try {
+                results.get(Top.class).join();
+                Assert.fail();
+            } catch (CompletionException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+
+            // Top only completes once Right has, so Right is checked after it.
+            Assert.assertTrue(results.get(Right.class).isCompletedExceptionally());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static abstract class TestModule implements Module
+    {
+        @Override
+        public ModuleInfo getInfo()
+        {
+            return new ModuleInfo(new String[0], "1.0", getClass().getSimpleName(), false);
+        }
+
+        @Override
+        public void boot()
+        {
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+
+        @Override
+        public boolean isEnabled()
+        {
+            return false;
+        }
+    }
+
+    private static class Root extends TestModule
+    {
+    }
+
+    @Dependencies({Root.class, Object.class})
+    private static class Left extends TestModule
+    {
+    }
+
+    @Dependencies(Root.class)
+    private static class Right extends TestModule
+    {
+    }
+
+    @Dependencies({Left.class, Right.class})
+    private static class Top extends TestModule
+    {
+    }
+
+    @Dependencies(CycleB.class)
+    private static class CycleA extends TestModule
+    {
+    }
+
+    @Dependencies(CycleA.class)
+    private static class CycleB extends TestModule
+    {
+    }
+}
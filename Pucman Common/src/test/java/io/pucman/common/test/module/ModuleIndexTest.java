@@ -0,0 +1,59 @@
+package io.pucman.common.test.module;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.pucman.module.Module;
+import io.pucman.module.ModuleIndex;
+import io.pucman.module.ModuleInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ModuleIndexTest
+{
+    @Test
+    public void edges()
+    {
+        ModuleIndex index = new ModuleIndex();
+        Module base = new Base();
+        Module user = new User();
+        index.add(base, ImmutableList.of());
+        index.add(user, ImmutableList.of(Base.class));
+
+        Assert.assertSame(base, index.get(Base.class));
+        Assert.assertEquals(ImmutableSet.of(User.class), index.getDependents(Base.class));
+        Assert.assertEquals(1, index.getReferences(Base.class));
+
+        Assert.assertSame(user, index.remove(User.class));
+        Assert.assertEquals(0, index.getReferences(Base.class));
+        Assert.assertFalse(index.contains(User.class));
+    }
+
+    private static class Base implements Module
+    {
+        @Override
+        public ModuleInfo getInfo()
+        {
+            return new ModuleInfo(new String[0], "1.0", getClass().getSimpleName(), false);
+        }
+
+        @Override
+        public void boot()
+        {
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+
+        @Override
+        public boolean isEnabled()
+        {
+            return true;
+        }
+    }
+
+    private static class User extends Base
+    {
+    }
+}
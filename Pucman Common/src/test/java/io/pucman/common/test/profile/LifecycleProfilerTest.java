@@ -0,0 +1,58 @@
+package io.pucman.common.test.profile;
+
+import io.pucman.common.profile.LifecycleProfiler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+public class LifecycleProfilerTest
+{
+    @Test
+    public void timeline() throws Exception
+    {
+        LifecycleProfiler profiler = new LifecycleProfiler();
+        profiler.record("CommandManager", LifecycleProfiler.Phase.ENABLE, () -> {});
+        Assert.assertEquals("module", profiler.record("Quote\"Module", LifecycleProfiler.Phase.CONSTRUCT, () -> "module"));
+
+        try {
+            profiler.record("Broken", LifecycleProfiler.Phase.DISABLE, () -> {
+                throw new IllegalStateException();
+            });
+            Assert.fail();
+        } catch (IllegalStateException ignore) {}
+
+        List<LifecycleProfiler.Entry> timeline = profiler.getTimeline();
+        Assert.assertEquals(3, timeline.size());
+        Assert.assertEquals("CommandManager", timeline.get(0).getComponent());
+        Assert.assertEquals(Thread.currentThread().getName(), timeline.get(0).getThread());
+        Assert.assertEquals(LifecycleProfiler.Phase.DISABLE, timeline.get(2).getPhase());
+        Assert.assertTrue(profiler.report().contains("ENABLE CommandManager took "));
+
+        StringWriter writer = new StringWriter();
+        profiler.write(writer);
+        Assert.assertTrue(writer.toString().startsWith("{\"traceEvents\":["));
+        Assert.assertTrue(writer.toString().contains("\"name\":\"Quote\\\"Module\",\"cat\":\"CONSTRUCT\",\"ph\":\"X\""));
+    }
+
+    @Test
+    public void capacity()
+    {
+        LifecycleProfiler profiler = new LifecycleProfiler(2);
+
+        for (int i = 0; i < 5; i++) {
+            profiler.record("Module" + i, LifecycleProfiler.Phase.ENABLE, () -> {});
+        }
+
+        List<LifecycleProfiler.Entry> timeline = profiler.getTimeline();
+        Assert.assertEquals(2, timeline.size());
+        Assert.assertEquals("Module3", timeline.get(0).getComponent());
+        Assert.assertEquals(3, profiler.getDropped());
+        Assert.assertTrue(profiler.report().contains("3 older steps dropped"));
+
+        profiler.clear();
+        profiler.record("Module5", LifecycleProfiler.Phase.ENABLE, () -> {});
+        Assert.assertEquals(1, profiler.getTimeline().size());
+    }
+}
@@ -22,4 +22,11 @@ public class ConstructorTest
         ReflectClass instance1 = clazz.call("hello");
         Assert.assertEquals("hello", instance1.getText());
     }
+
+    @Test
+    public void createNewInstanceExactArity()
+    {
+        ConstructorAccessor<ReflectClass> clazz = ReflectUtil.getConstructor(ReflectClass.class, ReflectUtil.Type.DECLARED, String.class);
+        Assert.assertEquals("hello", clazz.call1("hello").getText());
+    }
 }
@@ -0,0 +1,77 @@
+package io.pucman.common.test.reflect;
+
+import com.sun.management.ThreadMXBean;
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.reflect.ReflectUtil;
+import io.pucman.common.reflect.accessors.FieldAccessor;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+public class FieldAllocationTest
+{
+    private static final int CALLS = 200_000;
+
+    private final ReflectClass instance = ReflectUtil.getConstructor(ReflectClass.class, ReflectUtil.Type.DECLARED, String.class).call1("hello");
+    private final FieldAccessor<Integer> id = ReflectUtil.getField(ReflectClass.class, "id", ReflectUtil.Type.DECLARED);
+    private final FieldAccessor<Long> lastSeen = ReflectUtil.getField(ReflectClass.class, "lastSeen", ReflectUtil.Type.DECLARED);
+    private final FieldAccessor<Double> health = ReflectUtil.getField(ReflectClass.class, "health", ReflectUtil.Type.DECLARED);
+    private final FieldAccessor<Boolean> online = ReflectUtil.getField(ReflectClass.class, "online", ReflectUtil.Type.DECLARED);
+
+    @Test
+    public void primitiveAccess()
+    {
+        id.setInt(instance, 1337);
+        lastSeen.setLong(instance, Long.MAX_VALUE);
+        health.setDouble(instance, 19.5D);
+        online.setBoolean(instance, true);
+
+        Assert.assertEquals(1337, id.getInt(instance));
+        Assert.assertEquals(Long.MAX_VALUE, lastSeen.getLong(instance));
+        Assert.assertEquals(19.5D, health.getDouble(instance), 0D);
+        Assert.assertTrue(online.getBoolean(instance));
+        Assert.assertEquals(Integer.valueOf(1337), id.get(instance));
+    }
+
+    @Test(expected = DeveloperException.class)
+    public void primitiveAccessOfWrongType()
+    {
+        id.getLong(instance);
+    }
+
+    @Test
+    public void primitiveAccessDoesNotAllocate()
+    {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+        ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+        long thread = Thread.currentThread().getId();
+
+        // Warm up, so the handles are compiled before measuring.
+        long checksum = access(CALLS * 5);
+
+        long before = bean.getThreadAllocatedBytes(thread);
+        checksum += access(CALLS);
+        long allocated = bean.getThreadAllocatedBytes(thread) - before;
+
+        Assert.assertNotEquals(0L, checksum);
+        Assert.assertTrue("Allocated " + allocated + " bytes over " + CALLS + " iterations.", allocated < CALLS);
+    }
+
+    private long access(int calls)
+    {
+        long checksum = 0;
+
+        for (int i = 0; i < calls; i++) {
+            id.setInt(instance, i + 1000);
+            lastSeen.setLong(instance, i * 31L);
+            health.setDouble(instance, i / 2D);
+            online.setBoolean(instance, (i & 1) == 0);
+            checksum += id.getInt(instance) + lastSeen.getLong(instance) + (long) health.getDouble(instance) + (online.getBoolean(instance) ? 1 : 0);
+        }
+
+        return checksum;
+    }
+}
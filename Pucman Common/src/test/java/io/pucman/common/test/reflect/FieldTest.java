@@ -32,4 +32,20 @@ public class FieldTest
         fieldAccessor.set(instance, "hi");
         Assert.assertEquals("hi", fieldAccessor.get(instance));
     }
+
+    @Test
+    public void setStaticField()
+    {
+        FieldAccessor<String> fieldAccessor = ReflectUtil.getField(ReflectClass.class, "prefix", ReflectUtil.Type.DECLARED);
+        fieldAccessor.set(null, "changed");
+        Assert.assertEquals("changed", fieldAccessor.get(null));
+        fieldAccessor.set(null, "prefix");
+    }
+
+    @Test
+    public void getCachedField()
+    {
+        FieldAccessor<String> fieldAccessor = ReflectUtil.getField(ReflectClass.class, "text", ReflectUtil.Type.DECLARED);
+        Assert.assertSame(fieldAccessor, ReflectUtil.getField(ReflectClass.class, "text", ReflectUtil.Type.DECLARED));
+    }
 }
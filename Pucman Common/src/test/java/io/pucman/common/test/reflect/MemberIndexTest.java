@@ -0,0 +1,82 @@
+package io.pucman.common.test.reflect;
+
+import io.pucman.common.reflect.MemberIndex;
+import io.pucman.common.reflect.ReflectUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemberIndexTest
+{
+    @Test
+    public void hierarchyLookups()
+    {
+        Child child = new Child();
+        Assert.assertEquals("base", ReflectUtil.getField(Child.class, "secret", ReflectUtil.Type.HIERARCHY).get(child));
+        Assert.assertEquals("child", ReflectUtil.getMethod(Child.class, "describe", ReflectUtil.Type.HIERARCHY).call(child));
+        Assert.assertEquals(5, ReflectUtil.getMethod(Child.class, "twice", ReflectUtil.Type.HIERARCHY, int.class).call(child, 2));
+
+        MemberIndex index = MemberIndex.of(Child.class);
+        Assert.assertNull(index.getField("secret", ReflectUtil.Type.DECLARED));
+        Assert.assertNull(index.getField("secret", ReflectUtil.Type.PUBLIC));
+        Assert.assertNotNull(index.getField("name", ReflectUtil.Type.PUBLIC));
+        Assert.assertEquals(Base.class, index.getMethod("twice", ReflectUtil.Type.HIERARCHY, String.class).getDeclaringClass());
+        Assert.assertEquals(Child.class, index.getMethod("twice", ReflectUtil.Type.DECLARED).getDeclaringClass());
+        Assert.assertNull(index.getMethod("describe", ReflectUtil.Type.HIERARCHY, int.class));
+    }
+
+    @Test
+    public void annotationQueries()
+    {
+        MemberIndex index = MemberIndex.of(Child.class);
+        Assert.assertEquals(2, index.getFields(Deprecated.class).size());
+        Assert.assertSame(index.getFields(Deprecated.class), index.getFields(Deprecated.class));
+        Assert.assertEquals("secret", index.getFields(Deprecated.class).get(0).getName());
+        Assert.assertEquals(1, index.getMethods(Deprecated.class).size());
+    }
+
+    @Test(expected = NoSuchFieldException.class)
+    public void missingMember()
+    {
+        ReflectUtil.getField(Child.class, "missing", ReflectUtil.Type.HIERARCHY);
+    }
+
+    private static class Base
+    {
+        @Deprecated
+        private String secret = "base";
+
+        public String name = "base";
+
+        private String describe()
+        {
+            return "base";
+        }
+
+        private int twice(int value)
+        {
+            return value * 2;
+        }
+
+        private String twice(String value)
+        {
+            return value + value;
+        }
+    }
+
+    private static class Child extends Base
+    {
+        @Deprecated
+        private int level;
+
+        private String describe()
+        {
+            return "child";
+        }
+
+        @Deprecated
+        private int twice(int value)
+        {
+            return value * 2 + 1;
+        }
+    }
+}
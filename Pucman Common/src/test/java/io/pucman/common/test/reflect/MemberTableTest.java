@@ -0,0 +1,55 @@
+package io.pucman.common.test.reflect;
+
+import com.google.common.io.ByteStreams;
+import io.pucman.common.reflect.ReflectUtil;
+import lombok.SneakyThrows;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+
+public class MemberTableTest
+{
+    @Test
+    public void tableIsCollectedWithClassLoader() throws InterruptedException
+    {
+        WeakReference<Class<?>> clazz = lookupInIsolatedLoader();
+
+        for (int i = 0; i < 50 && clazz.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        Assert.assertNull("Class was kept alive by the reflection cache.", clazz.get());
+    }
+
+    private WeakReference<Class<?>> lookupInIsolatedLoader()
+    {
+        Class<?> clazz = new IsolatedLoader().load(ReflectClass.class.getName());
+        Assert.assertNotSame(ReflectClass.class, clazz);
+        Assert.assertSame(ReflectUtil.getField(clazz, "text", ReflectUtil.Type.DECLARED), ReflectUtil.getField(clazz, "text", ReflectUtil.Type.DECLARED));
+        ReflectUtil.getConstructor(clazz, ReflectUtil.Type.DECLARED, String.class).call1("hello");
+        return new WeakReference<>(clazz);
+    }
+
+    /**
+     * Defines its own copy of a class, like a plugin classloader would.
+     */
+    private static class IsolatedLoader extends ClassLoader
+    {
+        IsolatedLoader()
+        {
+            super(MemberTableTest.class.getClassLoader());
+        }
+
+        @SneakyThrows
+        Class<?> load(String name)
+        {
+            try (InputStream is = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                byte[] bytes = ByteStreams.toByteArray(is);
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.pucman.common.test.reflect;
 
+import io.pucman.common.exception.DeveloperException;
 import io.pucman.common.exception.TryUtil;
 import io.pucman.common.reflect.ReflectUtil;
 import io.pucman.common.reflect.accessors.ConstructorAccessor;
@@ -13,7 +14,7 @@ public class MethodTest
     public void getMethod()
     {
         MethodAccessor<String> accessor = TryUtil.sneaky(() -> ReflectUtil.wrapMethod(ReflectClass.class.getMethod("getText")), MethodAccessor.class);
-        Assert.assertEquals(accessor.getName(), ReflectUtil.getMethod(ReflectClass.class, "getText", ReflectUtil.Type.DECLARED, String.class).getName());
+        Assert.assertEquals(accessor.getName(), ReflectUtil.getMethod(ReflectClass.class, "getText", ReflectUtil.Type.DECLARED).getName());
     }
 
     @Test
@@ -21,7 +22,50 @@ public class MethodTest
     {
         ConstructorAccessor<ReflectClass> constructorAccessor = ReflectUtil.getConstructor(ReflectClass.class, ReflectUtil.Type.DECLARED, String.class);
         ReflectClass clazz = constructorAccessor.call("hello");
-        MethodAccessor<String> accessor = ReflectUtil.getMethod(ReflectClass.class, "getText", ReflectUtil.Type.DECLARED, String.class);
+        MethodAccessor<String> accessor = ReflectUtil.getMethod(ReflectClass.class, "getText", ReflectUtil.Type.DECLARED);
         Assert.assertEquals("hello", accessor.call(clazz));
     }
+
+    @Test
+    public void invokeExactArity()
+    {
+        ReflectClass clazz = ReflectUtil.getConstructor(ReflectClass.class, ReflectUtil.Type.DECLARED, String.class).call1("hello");
+        MethodAccessor<String> getText = TryUtil.sneaky(() -> ReflectUtil.wrapMethod(ReflectClass.class.getDeclaredMethod("getText")), MethodAccessor.class);
+        MethodAccessor<String> join = TryUtil.sneaky(() -> ReflectUtil.wrapMethod(ReflectClass.class.getDeclaredMethod("join", String.class, String.class)), MethodAccessor.class);
+
+        Assert.assertEquals("hello", getText.call0(clazz));
+        Assert.assertEquals("<hello>", join.call2(clazz, "<", ">"));
+        Assert.assertEquals("<hello>", join.call(clazz, "<", ">"));
+    }
+
+    @Test
+    public void invokeNullParameters()
+    {
+        ReflectClass clazz = ReflectUtil.getConstructor(ReflectClass.class, ReflectUtil.Type.DECLARED, String.class).call1("hello");
+        MethodAccessor<String> getText = TryUtil.sneaky(() -> ReflectUtil.wrapMethod(ReflectClass.class.getDeclaredMethod("getText")), MethodAccessor.class);
+        Assert.assertEquals("hello", getText.call(clazz, (Object[]) null));
+    }
+
+    @Test
+    public void invokeStaticMethod()
+    {
+        MethodAccessor<String> prefixed = TryUtil.sneaky(() -> ReflectUtil.wrapMethod(ReflectClass.class.getDeclaredMethod("prefixed", String.class)), MethodAccessor.class);
+        Assert.assertEquals("prefix-text", prefixed.call1(null, "-text"));
+    }
+
+    @Test(expected = DeveloperException.class)
+    public void invokeWrongArity()
+    {
+        MethodAccessor<String> getText = TryUtil.sneaky(() -> ReflectUtil.wrapMethod(ReflectClass.class.getDeclaredMethod("getText")), MethodAccessor.class);
+        getText.call1(null, "unused");
+    }
+
+    @Test
+    public void getMethodByParameters()
+    {
+        ReflectClass clazz = ReflectUtil.getConstructor(ReflectClass.class, ReflectUtil.Type.DECLARED, String.class).call1("hello");
+        MethodAccessor<String> join = ReflectUtil.getMethod(ReflectClass.class, "join", ReflectUtil.Type.DECLARED, String.class, String.class);
+        Assert.assertEquals("[hello]", join.call2(clazz, "[", "]"));
+        Assert.assertSame(join, ReflectUtil.getMethod(ReflectClass.class, "join", ReflectUtil.Type.DECLARED, String.class, String.class));
+    }
 }
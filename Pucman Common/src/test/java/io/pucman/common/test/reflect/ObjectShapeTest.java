@@ -0,0 +1,97 @@
+package io.pucman.common.test.reflect;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import io.pucman.common.reflect.ObjectShape;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class ObjectShapeTest
+{
+    private final ObjectShape<PlayerData> shape = ObjectShape.of(PlayerData.class);
+
+    @Test
+    public void layout()
+    {
+        Assert.assertSame(shape, ObjectShape.of(PlayerData.class));
+        Assert.assertEquals(Arrays.asList("name", "kills", "online"), shape.getNames());
+        Assert.assertEquals(1, shape.indexOf("kills"));
+        Assert.assertEquals(-1, shape.indexOf("COUNTER"));
+    }
+
+    @Test
+    public void readAndWrite()
+    {
+        PlayerData data = new PlayerData("Notch", 5, true);
+        Object[] values = shape.read(data);
+        Assert.assertArrayEquals(new Object[]{"Notch", 5, true}, values);
+
+        PlayerData copy = new PlayerData(null, 0, false);
+        shape.write(copy, values);
+        Assert.assertEquals("Notch", copy.getName());
+        Assert.assertEquals(5, copy.kills);
+        Assert.assertTrue(copy.online);
+    }
+
+    @Test
+    public void mapRoundTrip()
+    {
+        PlayerData data = new PlayerData("Notch", 5, true);
+        Map<String, Object> map = shape.toMap(data);
+        Assert.assertEquals(ImmutableMap.of("name", "Notch", "kills", 5, "online", true), map);
+
+        shape.write(data, ImmutableMap.of("kills", 10));
+        Assert.assertEquals("Notch", data.getName());
+        Assert.assertEquals(10, data.kills);
+    }
+
+    @Test
+    public void batchSnapshot()
+    {
+        List<PlayerData> players = Lists.newArrayList(new PlayerData("a", 1, true), new PlayerData("b", 2, false));
+        List<Object[]> snapshots = shape.readAll(players);
+
+        players.forEach(player -> player.kills = 0);
+        shape.writeAll(players, snapshots);
+
+        Assert.assertEquals(1, players.get(0).kills);
+        Assert.assertEquals(2, players.get(1).kills);
+    }
+
+    private static class Named
+    {
+        private String name;
+
+        Named(String name)
+        {
+            this.name = name;
+        }
+
+        String getName()
+        {
+            return name;
+        }
+    }
+
+    private static class PlayerData extends Named
+    {
+        private static int COUNTER = 0;
+
+        @Deprecated
+        private int kills;
+
+        private boolean online;
+
+        PlayerData(String name, int kills, boolean online)
+        {
+            super(name);
+            this.kills = kills;
+            this.online = online;
+            COUNTER++;
+        }
+    }
+}
@@ -2,8 +2,18 @@ package io.pucman.common.test.reflect;
 
 public class ReflectClass
 {
+    private static String prefix = "prefix";
+
     private String text;
 
+    private int id;
+
+    private long lastSeen;
+
+    private double health;
+
+    private boolean online;
+
     private ReflectClass(String s)
     {
         this.text = s;
@@ -13,4 +23,14 @@ public class ReflectClass
     {
         return this.text;
     }
+
+    private String join(String first, String second)
+    {
+        return first + this.text + second;
+    }
+
+    private static String prefixed(String s)
+    {
+        return prefix + s;
+    }
 }
@@ -0,0 +1,72 @@
+package io.pucman.common.test.reflect;
+
+import io.pucman.common.reflect.MemberKey;
+import io.pucman.common.reflect.ReflectManifest;
+import io.pucman.common.reflect.ReflectStats;
+import io.pucman.common.reflect.ReflectUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class ReflectManifestTest
+{
+    private static final String MANIFEST = "# warm-up of Warmed\n" +
+            "field " + Warmed.class.getName() + " value DECLARED\n" +
+            "method " + Warmed.class.getName() + " add DECLARED int int[]\n" +
+            "constructor " + Warmed.class.getName() + " DECLARED java.lang.String\n" +
+            "field org.example.Missing value DECLARED\n" +
+            "method " + Warmed.class.getName() + " missing DECLARED\n";
+
+    @Test
+    public void warmUp() throws IOException
+    {
+        ReflectManifest manifest = ReflectManifest.read(new ByteArrayInputStream(MANIFEST.getBytes(StandardCharsets.UTF_8)), getClass().getClassLoader());
+        Assert.assertEquals(4, manifest.getMembers().size());
+        Assert.assertEquals(1, manifest.getUnresolved().size());
+
+        ReflectStats stats = ReflectUtil.getStats();
+        long warmedUp = stats.getWarmedUp();
+        long failedWarmUps = stats.getFailedWarmUps();
+        Map<MemberKey, Throwable> failures = ReflectUtil.warmUp(manifest).join();
+
+        Assert.assertEquals(1, failures.size());
+        Assert.assertEquals("missing", failures.keySet().iterator().next().getName());
+        Assert.assertEquals(warmedUp + 3, stats.getWarmedUp());
+        Assert.assertEquals(failedWarmUps + 1, stats.getFailedWarmUps());
+
+        long hits = stats.getHits();
+        long misses = stats.getMisses();
+        Assert.assertEquals("warm", ReflectUtil.getField(Warmed.class, "value", ReflectUtil.Type.DECLARED).get(new Warmed("warm")));
+        Assert.assertEquals(6, ReflectUtil.getMethod(Warmed.class, "add", ReflectUtil.Type.DECLARED, int.class, int[].class).call(null, 1, new int[]{2, 3}));
+        ReflectUtil.getConstructor(Warmed.class, ReflectUtil.Type.DECLARED, String.class).call1("warm");
+
+        Assert.assertEquals(hits + 3, stats.getHits());
+        Assert.assertEquals(misses, stats.getMisses());
+        Assert.assertFalse(stats.getLazyLoads().keySet().stream().anyMatch(key -> key.contains(Warmed.class.getName())));
+    }
+
+    private static class Warmed
+    {
+        private final String value;
+
+        private Warmed(String value)
+        {
+            this.value = value;
+        }
+
+        private static int add(int first, int[] others)
+        {
+            int sum = first;
+
+            for (int other : others) {
+                sum += other;
+            }
+
+            return sum;
+        }
+    }
+}
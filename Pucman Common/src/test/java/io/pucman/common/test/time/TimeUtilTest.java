@@ -0,0 +1,66 @@
+package io.pucman.common.test.time;
+
+import io.pucman.common.time.TimeUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+public class TimeUtilTest
+{
+    private long duration = TimeUnit.DAYS.toMillis(1) + TimeUnit.HOURS.toMillis(2) + TimeUnit.MINUTES.toMillis(30) + 5;
+
+    @Test
+    public void format()
+    {
+        Assert.assertEquals("1 day, 2 hours, 30 minutes, 5 milliseconds", TimeUtil.millisecondsToTimeUnits(TimeUnit.MILLISECONDS, duration, false));
+        Assert.assertEquals("1d, 2h, 30m, 5ms", TimeUtil.millisecondsToTimeUnits(TimeUnit.MILLISECONDS, duration, true));
+        Assert.assertEquals("2 minutes", TimeUtil.millisecondsToTimeUnits(TimeUnit.SECONDS, 120, false));
+        Assert.assertEquals("0ms", TimeUtil.formatDuration(0, TimeUtil.Style.SHORT));
+        Assert.assertEquals("0 milliseconds", TimeUtil.millisecondsToTimeUnits(TimeUnit.MILLISECONDS, 0, false));
+        Assert.assertEquals("1d2h30m5ms", TimeUtil.formatDuration(duration, TimeUtil.Style.COMPACT));
+    }
+
+    @Test
+    public void appendIntoBuilder()
+    {
+        StringBuilder sb = new StringBuilder("Ends in ");
+        TimeUtil.appendDuration(sb, duration, TimeUtil.Style.LONG, 2);
+        Assert.assertEquals("Ends in 1 day, 2 hours", sb.toString());
+    }
+
+    @Test
+    public void metricDateZone()
+    {
+        TimeZone previous = TimeZone.getDefault();
+        long milliseconds = 1_500_062_400_000L;
+
+        try {
+            // 20:00 on the 14th of July in UTC, already the 15th in Tokyo.
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            Assert.assertEquals("14/7/2017", TimeUtil.millisecondsToMetricDate(milliseconds));
+
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+            Assert.assertEquals("15/7/2017", TimeUtil.millisecondsToMetricDate(milliseconds));
+
+            StringBuilder sb = new StringBuilder();
+            TimeUtil.appendMetricDate(sb, milliseconds);
+            Assert.assertEquals("15/7/2017", sb.toString());
+        } finally {
+            TimeZone.setDefault(previous);
+        }
+    }
+
+    @Test
+    public void parse()
+    {
+        Assert.assertEquals(duration, TimeUtil.tryParseDuration(TimeUtil.formatDuration(duration, TimeUtil.Style.COMPACT), -1));
+        Assert.assertEquals(TimeUnit.MINUTES.toMillis(90), TimeUtil.tryParseDuration("1h 30m", -1));
+        Assert.assertEquals(TimeUnit.SECONDS.toMillis(90), TimeUtil.tryParseDuration("90s", -1));
+        Assert.assertEquals(-1, TimeUtil.tryParseDuration("", -1));
+        Assert.assertEquals(-1, TimeUtil.tryParseDuration("10", -1));
+        Assert.assertEquals(-1, TimeUtil.tryParseDuration("1x", -1));
+        Assert.assertEquals(-1, TimeUtil.tryParseDuration("99999999999999999d", -1));
+    }
+}
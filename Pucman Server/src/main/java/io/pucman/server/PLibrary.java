@@ -1,13 +1,17 @@
 package io.pucman.server;
 
+import io.pucman.common.exception.TryUtil;
 import io.pucman.server.block.BlockMappingManger;
 import io.pucman.server.command.CommandManager;
 import io.pucman.server.conversation.ConversationManager;
 import io.pucman.server.manager.ManagingPlugin;
+import io.pucman.server.module.ModuleManager;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.scoreboard.ScoreboardManager;
 
+import java.io.File;
+
 public class PLibrary extends ManagingPlugin
 {
     private static PLibrary instance;
@@ -17,19 +21,24 @@ public class PLibrary extends ManagingPlugin
     public void onLoad()
     {
         instance = this;
-        this.load(new CommandManager(this), new BlockMappingManger(this), new ConversationManager(this));
+        this.load(new CommandManager(this), new BlockMappingManger(this), new ConversationManager(this), new ModuleManager(this));
     }
 
     @Override
     public void onEnable()
     {
         this.enableManagers();
+
+        if (debug) {
+            this.debug(this, this.getProfiler().report());
+        }
     }
 
     @Override
     public void onDisable()
     {
         this.disableManagers();
+        TryUtil.sneaky(() -> this.getProfiler().write(new File(this.getDataFolder(), "timeline.json").toPath()));
     }
 
     public static PLibrary get()
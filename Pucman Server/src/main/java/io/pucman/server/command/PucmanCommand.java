@@ -324,9 +324,11 @@ public abstract class PucmanCommand<T extends JavaPlugin, T1> implements Command
                 LIB.debug(this, "Paginating.");
                 LinkedHashMap<Integer, String> pages = Format.paginate(content, null, null, 5);
 
-                if (args.length == 2 && NumberUtil.parseable(args[1], Integer.class)) {
+                int page = args.length == 2 ? NumberUtil.tryParseInt(args[1], 1, pages.size(), -1) : -1;
+
+                if (page != -1) {
                     LIB.debug(this, "2 argument was found and parsable as an integer.");
-                    Sender.send(sender, pages.get(NumberUtil.parse(args[1], Integer.class)));
+                    Sender.send(sender, pages.get(page));
                 } else {
                     LIB.debug(this, "No second argument found, printing first page.");
                     Sender.send(sender, pages.get(1));
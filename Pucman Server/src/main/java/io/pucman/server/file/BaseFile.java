@@ -2,14 +2,19 @@ package io.pucman.server.file;
 
 import io.pucman.common.exception.DeveloperException;
 import io.pucman.common.exception.TryUtil;
-import io.pucman.common.generic.GenericUtil;
+import io.pucman.common.generic.ConversionRegistry;
+import io.pucman.common.generic.Converter;
+import io.pucman.common.reflect.MemberIndex;
+import io.pucman.common.reflect.ReflectUtil;
+import io.pucman.common.reflect.accessors.FieldAccessor;
 import io.pucman.server.file.config.Configuration;
+import io.pucman.server.file.config.ConfigurationCache;
 import io.pucman.server.file.config.ConfigurationProvider;
 import io.pucman.server.locale.Format;
-import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.SneakyThrows;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -18,10 +23,16 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Wrapper for managing files,
+ *
+ * The configuration is for the main thread. Other threads, such as async
+ * event handlers or the tasks of a MultiThreadedLibPlugin, read the
+ * snapshot, a frozen copy that is swapped for a new one each time the
+ * configuration is loaded, reloaded or published.
  */
 
 @Getter
@@ -32,10 +43,18 @@ public class BaseFile
     private JavaPlugin instance;
     private String name;
     private File file;
-    @Setter(value = AccessLevel.PROTECTED)
     private Configuration configuration;
     private Class<? extends ConfigurationProvider> provider;
 
+    private final AtomicReference<Configuration> snapshot = new AtomicReference<>();
+
+    /**
+     * Converts the values of the config into the types of the fields they populate.
+     */
+    private static final ConversionRegistry CONVERTERS = ConversionRegistry.withDefaults()
+            .register(String.class, TextComponent.class, value -> new TextComponent(TextComponent.fromLegacyText(value)))
+            .register(String.class, BaseComponent[].class, TextComponent::fromLegacyText);
+
     public BaseFile(JavaPlugin instance, String name, File parent, Class<? extends ConfigurationProvider> provider)
     {
         this.instance = instance;
@@ -67,22 +86,63 @@ public class BaseFile
         }
 
         if (this.configuration == null) {
-            this.configuration = TryUtil.sneaky(() -> ConfigurationProvider.getProvider(provider).load(this.file), Configuration.class);
+            this.setConfiguration(TryUtil.sneaky(() -> ConfigurationCache.load(this.file, provider), Configuration.class));
         }
     }
 
     /**
-     * Populates fields within the class with the value corresponding to the key set in the ConfigPopulate annotation.
+     * Loads the file again, and publishes a snapshot of it. Threads reading
+     * the snapshot keep the old one until it is swapped for the new one.
+     */
+    public synchronized void reload()
+    {
+        this.configuration = null;
+        this.load();
+    }
+
+    /**
+     * Sets the configuration and publishes a snapshot of it.
+     * @param configuration - the configuration.
+     */
+    protected synchronized void setConfiguration(Configuration configuration)
+    {
+        this.configuration = configuration;
+        this.publish();
+    }
+
+    /**
+     * Publishes a snapshot of the configuration as it is now, so the
+     * values set on the configuration since are seen by other threads.
+     */
+    public synchronized void publish()
+    {
+        this.snapshot.set(this.configuration == null ? null : this.configuration.freeze());
+    }
+
+    /**
+     * Gets the latest snapshot of the configuration, it can be read from
+     * any thread without locking, and doesn't change. To see a newer one
+     * get the snapshot again.
+     * @return the snapshot, or null if the file isn't loaded.
+     */
+    public Configuration getSnapshot()
+    {
+        return this.snapshot.get();
+    }
+
+    /**
+     * Populates the static fields within the class and its superclasses with the value corresponding to the key set in the ConfigPopulate annotation.
      * @param clazz - the class.
      */
     public synchronized void populate(Class<?> clazz)
     {
-        for (Field f : clazz.getFields()) {
-            if (!f.isAnnotationPresent(ConfigPopulate.class)) {
+        for (FieldAccessor<Object> f : MemberIndex.of(clazz).getFields(ConfigPopulate.class)) {
+            // Populated by class, so only the static fields can be set.
+            if (!Modifier.isStatic(f.get().getModifiers())) {
                 continue;
             }
 
-            ConfigPopulate annotation = f.getAnnotation(ConfigPopulate.class);
+            ConfigPopulate annotation = (ConfigPopulate) f.getAnnotation(ConfigPopulate.class, ReflectUtil.Type.PUBLIC);
 
             Object value = this.configuration.get(annotation.value(), null);
 
@@ -90,19 +150,37 @@ public class BaseFile
                 throw new DeveloperException("Key " + annotation.value() + ". Was not found in file " + this.name + ".");
             }
 
-            if (!GenericUtil.castable(value, f.getType())) {
-                throw new DeveloperException("Value corresponding to key " + annotation.value() + " could not be assigned to field " + f.getName() + " as it's type, " + f.getType().getName() + " could not be casted to the value " + value.toString() + ".");
+            if ((f.getType().equals(String.class) || f.getType().equals(TextComponent.class)) && annotation.color()) {
+                value = Format.color(value.toString());
             }
 
-            f.setAccessible(true);
+            this.set(f, annotation.value(), value);
+        }
+    }
 
-            if (f.getType().equals(String.class) && annotation.color()) {
-                TryUtil.sneaky(() -> f.set(clazz, Format.color(((String) value))));
-                continue;
-            }
+    /**
+     * Converts a value of the config into the type of the static field and sets it.
+     * @param f - the field.
+     * @param key - the key of the value.
+     * @param value - the value.
+     */
+    protected void set(FieldAccessor<Object> f, String key, Object value)
+    {
+        Converter<Object, ?> converter = CONVERTERS.get(value.getClass(), f.getType());
 
-            TryUtil.sneaky(() -> f.set(clazz, value));
+        if (converter == null) {
+            throw new DeveloperException("Value corresponding to key " + key + " could not be assigned to field " + f.getName() + " as it's type, " + f.getType().getName() + " could not be converted from the value " + value.toString() + ".");
         }
+
+        Object converted;
+
+        try {
+            converted = converter.convert(value);
+        } catch (IllegalArgumentException | DeveloperException e) {
+            throw new DeveloperException("Value " + value + " corresponding to key " + key + " could not be assigned to field " + f.getName() + " of type " + f.getType().getName() + ": " + e.getMessage());
+        }
+
+        f.set(null, converted);
     }
 
     /**
@@ -2,12 +2,19 @@ package io.pucman.server.file.config;
 
 
 import com.google.common.collect.Sets;
+import io.pucman.common.exception.DeveloperException;
 import io.pucman.common.generic.GenericUtil;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * Configuration system that is mostly copied from BungeeCord, authored by md_5.
+ *
+ * A configuration isn't thread safe, except for a snapshot made by freeze,
+ * which can't be changed and so can be read from any thread without locking.
  */
 public final class Configuration
 {
@@ -21,11 +28,54 @@ public final class Configuration
      */
     final Map<String, Object> self;
 
+    /**
+     * Every value of the configuration, by its full path, so reading a
+     * value is a single lookup rather than walking the sections one node at
+     * a time. Only the top section keeps it, the sections in it look their
+     * values up with their prefix, so a value is indexed once however deep
+     * it is. Null while this section is in another one.
+     */
+    private Map<String, Object> paths = new HashMap<>();
+
+    /**
+     * The arrays converted from the lists of the configuration, by full
+     * path, until the path is set. Kept by the top section with paths.
+     * Concurrent, as snapshots fill it in as they are read.
+     */
+    private Map<String, Object> arrays = new ConcurrentHashMap<>();
+
     /**
      * Default configuration options.
      */
     private final Configuration defaults;
 
+    /**
+     * The top section this section is indexed in, and the path of this
+     * section from it followed by the separator. This and "" if this
+     * section isn't in another one.
+     */
+    private Configuration root = this;
+    private String prefix = "";
+
+    /**
+     * True if this section can only be reached by one path, root and
+     * prefix, so setting a value doesn't walk the sections above it.
+     */
+    private boolean single = true;
+
+    /**
+     * The sections this section is in, and its keys there. Usually one, but
+     * a section set at a second path is in both, and is indexed under both.
+     * A key with the separator in it can't be reached by a path, so a
+     * section under one isn't indexed there and stays the top of its own.
+     */
+    private List<Mount> mounts;
+
+    /**
+     * True if this is a snapshot made by freeze.
+     */
+    private final boolean frozen;
+
     public Configuration()
     {
         this(null);
@@ -33,25 +83,105 @@ public final class Configuration
 
     public Configuration(Configuration defaults)
     {
-        this(new LinkedHashMap<String, Object>(), defaults);
+        this(defaults, false);
     }
 
     public Configuration(Map<?, ?> map, Configuration defaults)
+    {
+        this(defaults, false);
+        putAll(map);
+    }
+
+    private Configuration(Configuration defaults, boolean frozen)
     {
         this.self = new LinkedHashMap<>();
         this.defaults = defaults;
+        this.frozen = frozen;
+    }
 
+    /**
+     * Puts the values of a map, with the maps in it as sections. A section
+     * is put before it is filled, so its values are indexed straight into
+     * the top section.
+     */
+    private void putAll(Map<?, ?> map)
+    {
         for (Map.Entry<?, ?> entry : map.entrySet()) {
             String key = (entry.getKey() == null) ? "null" : entry.getKey().toString();
 
             if (entry.getValue() instanceof Map) {
-                this.self.put(key, new Configuration((Map) entry.getValue(), (defaults == null) ? null : defaults.getSection(key)));
+                Configuration section = new Configuration((defaults == null) ? null : defaults.getSection(key));
+                this.put(key, section);
+                section.putAll((Map<?, ?>) entry.getValue());
             } else {
-                this.self.put(key, entry.getValue());
+                this.put(key, entry.getValue());
             }
         }
     }
 
+    /**
+     * Copies a configuration into this snapshot.
+     * @param source - the configuration.
+     */
+    private void copy(Configuration source)
+    {
+        for (Map.Entry<String, Object> entry : source.self.entrySet()) {
+            if (entry.getValue() instanceof Configuration) {
+                Configuration section = new Configuration((defaults == null) ? null : defaults.getSection(entry.getKey()), true);
+                this.put(entry.getKey(), section);
+                section.copy((Configuration) entry.getValue());
+            } else {
+                this.put(entry.getKey(), freeze(entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Makes a snapshot of the configuration and its defaults as they are
+     * now. The snapshot can't be changed, setting a value of it throws,
+     * and it doesn't change as the configuration does.
+     * @return the snapshot, or this if it is a snapshot.
+     */
+    public Configuration freeze()
+    {
+        if (frozen) {
+            return this;
+        }
+
+        Configuration snapshot = new Configuration((defaults == null) ? null : defaults.freeze(), true);
+        snapshot.copy(this);
+        return snapshot;
+    }
+
+    /**
+     * @return true if this is a snapshot made by freeze.
+     */
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    /**
+     * Copies the lists and maps of a value, so a snapshot doesn't share
+     * them with the configuration it was made from.
+     */
+    private static Object freeze(Object value)
+    {
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>(((List<?>) value).size());
+            ((List<?>) value).forEach(element -> list.add(freeze(element)));
+            return Collections.unmodifiableList(list);
+        }
+
+        if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> map.put(k, freeze(v)));
+            return Collections.unmodifiableMap(map);
+        }
+
+        return value;
+    }
+
     /**
      * For getting a section of a configuration.
      * @param path - the path to that section in nodes.
@@ -68,7 +198,7 @@ public final class Configuration
         Object section = self.get(root);
         if (section == null) {
             section = new Configuration((defaults == null) ? null : defaults.getSection(path));
-            self.put(root, section);
+            put(root, (Configuration) section);
         }
 
         return (Configuration) section;
@@ -90,16 +220,10 @@ public final class Configuration
      */
     public <T> T get(String path, T def)
     {
-        Configuration section = getSectionFor(path);
-        Object val;
-        if (section == this) {
-            val = self.get(path);
-        } else {
-            val = section.get(getChild(path), def);
-        }
+        Object val = lookup(path);
 
-        if (val == null && def instanceof Configuration) {
-            self.put(path, def);
+        if (val == null && def instanceof Configuration && !frozen) {
+            set(path, def);
         }
 
         return (val != null) ? GenericUtil.cast(val) : def;
@@ -122,7 +246,8 @@ public final class Configuration
      */
     public Object get(String path)
     {
-        return get(path, getDefault(path));
+        Object val = lookup(path);
+        return (val != null) ? val : getDefault(path);
     }
 
     //???
@@ -134,23 +259,260 @@ public final class Configuration
     /**
      * For setting a value in a configuration.
      * @param path - the path of the value.
-     * @param value - the value.
+     * @param value - the value, or null to remove it.
      */
     public void set(String path, Object value)
     {
+        if (frozen) {
+            throw new DeveloperException("Cannot set " + path + ". The configuration is a snapshot, set it on the configuration the snapshot was made from.");
+        }
+
         if (value instanceof Map) {
             value = new Configuration((Map) value, (defaults == null) ? null : defaults.getSection(path));
         }
 
         Configuration section = getSectionFor(path);
-        if (section == this) {
-            if (value == null) {
-                self.remove(path);
-            } else {
-                self.put(path, value);
+        if (section != this) {
+            section.set(getChild(path), value);
+        } else if (value == null) {
+            remove(path);
+        } else {
+            put(path, value);
+        }
+    }
+
+    /**
+     * Sets a value of this section, and indexes it under every path this
+     * section can be reached by. Used by the providers as they load a
+     * configuration, as the key can't be split into nodes. A null value is
+     * kept, as a key with no value in the file.
+     * @param key - key of the value in this section.
+     * @param value - the value.
+     */
+    void put(String key, Object value)
+    {
+        if (value instanceof Configuration && isIn((Configuration) value)) {
+            throw new DeveloperException("Cannot set " + key + " to a section that it is in.");
+        }
+
+        boolean present = self.containsKey(key);
+        Object previous = self.put(key, value);
+
+        if (present) {
+            unindex(key, previous);
+        }
+
+        index(key, value);
+    }
+
+    /**
+     * Removes a value of this section, and its paths.
+     * @param key - key of the value in this section.
+     */
+    void remove(String key)
+    {
+        if (self.containsKey(key)) {
+            unindex(key, self.remove(key));
+        }
+    }
+
+    /**
+     * @return the value at the path from this section in the index of root.
+     */
+    private Object lookup(String path)
+    {
+        return root.paths.get(prefix.isEmpty() ? path : prefix.concat(path));
+    }
+
+    private void index(String key, Object value)
+    {
+        if (key.indexOf(SEPARATOR) != -1) {
+            return;
+        }
+
+        if (value instanceof Configuration) {
+            ((Configuration) value).mount(this, key);
+        }
+
+        if (value != null) {
+            locate(key, (root, path) -> {
+                root.paths.put(path, value);
+                root.arrays.remove(path);
+            });
+        }
+    }
+
+    private void unindex(String key, Object previous)
+    {
+        if (key.indexOf(SEPARATOR) != -1) {
+            return;
+        }
+
+        if (previous instanceof Configuration) {
+            ((Configuration) previous).unmount(this, key);
+        }
+
+        locate(key, (root, path) -> {
+            root.paths.remove(path);
+            root.arrays.remove(path);
+        });
+    }
+
+    /**
+     * Passes every top section this section can be reached from, with the
+     * full path there of a path from this section.
+     * @param path - path from this section.
+     * @param action - takes the top section and the full path.
+     */
+    private void locate(String path, BiConsumer<Configuration, String> action)
+    {
+        if (single) {
+            action.accept(root, prefix.isEmpty() ? path : prefix.concat(path));
+            return;
+        }
+
+        for (Mount mount : mounts) {
+            mount.parent.locate(mount.key + SEPARATOR + path, action);
+        }
+    }
+
+    /**
+     * Puts this section in another one, indexing everything in it under
+     * the paths it can now be reached by. A section that was the top of
+     * its own index drops it, its values are looked up in the new root.
+     */
+    private void mount(Configuration parent, String key)
+    {
+        if (mounts == null) {
+            mounts = new ArrayList<>(1);
+        }
+
+        mounts.add(new Mount(parent, key));
+
+        if (mounts.size() == 1) {
+            paths = null;
+            arrays = null;
+        }
+
+        relocate();
+        parent.locate(key + SEPARATOR, (root, path) -> index(root, path, this, true));
+    }
+
+    /**
+     * Takes this section out of another one, removing what is in it from
+     * the paths it could be reached by there. A section that isn't in any
+     * other one anymore becomes the top of its own index again.
+     */
+    private void unmount(Configuration parent, String key)
+    {
+        parent.locate(key + SEPARATOR, (root, path) -> index(root, path, this, false));
+
+        for (Iterator<Mount> iterator = mounts.iterator(); iterator.hasNext(); ) {
+            Mount mount = iterator.next();
+
+            if (mount.parent == parent && mount.key.equals(key)) {
+                iterator.remove();
+                break;
             }
+        }
+
+        if (mounts.isEmpty()) {
+            mounts = null;
+            paths = new HashMap<>();
+            arrays = new ConcurrentHashMap<>();
+            index(this, "", this, true);
+        }
+
+        relocate();
+    }
+
+    /**
+     * Works out root, prefix and single again for this section and the
+     * sections in it, after this section was put in or taken out of one.
+     */
+    private void relocate()
+    {
+        if (mounts == null) {
+            root = this;
+            prefix = "";
+            single = true;
         } else {
-            section.set(getChild(path), value);
+            Mount first = mounts.get(0);
+            root = first.parent.root;
+            prefix = first.parent.prefix + first.key + SEPARATOR;
+            single = mounts.size() == 1 && first.parent.single;
+        }
+
+        for (Map.Entry<String, Object> entry : self.entrySet()) {
+            if (entry.getValue() instanceof Configuration && entry.getKey().indexOf(SEPARATOR) == -1) {
+                ((Configuration) entry.getValue()).relocate();
+            }
+        }
+    }
+
+    /**
+     * @return true if this section is, or is in, the section.
+     */
+    private boolean isIn(Configuration section)
+    {
+        if (this == section) {
+            return true;
+        }
+
+        if (mounts != null) {
+            for (Mount mount : mounts) {
+                if (mount.parent.isIn(section)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds or removes everything in a section, and in the sections in it,
+     * from the index of a top section.
+     * @param root - the top section.
+     * @param prefix - full path of the section there, followed by the separator.
+     * @param section - the section.
+     * @param add - true to add, false to remove.
+     */
+    private static void index(Configuration root, String prefix, Configuration section, boolean add)
+    {
+        for (Map.Entry<String, Object> entry : section.self.entrySet()) {
+            if (entry.getKey().indexOf(SEPARATOR) != -1) {
+                continue;
+            }
+
+            String path = prefix + entry.getKey();
+
+            if (!add) {
+                root.paths.remove(path);
+            } else if (entry.getValue() != null) {
+                root.paths.put(path, entry.getValue());
+            }
+
+            root.arrays.remove(path);
+
+            if (entry.getValue() instanceof Configuration) {
+                index(root, path + SEPARATOR, (Configuration) entry.getValue(), add);
+            }
+        }
+    }
+
+    /**
+     * A section this section is in, and its key there.
+     */
+    private static final class Mount
+    {
+        private final Configuration parent;
+        private final String key;
+
+        private Mount(Configuration parent, String key)
+        {
+            this.parent = parent;
+            this.key = key;
         }
     }
 
@@ -161,8 +523,19 @@ public final class Configuration
      */
     public Configuration getSection(String path)
     {
+        Object val = lookup(path);
+        if (val instanceof Configuration) {
+            return (Configuration) val;
+        }
+
         Object def = getDefault(path);
-        return (Configuration) get(path, (def instanceof Configuration) ? def : new Configuration((defaults == null) ? null : defaults.getSection(path)));
+
+        if (def instanceof Configuration) {
+            return (Configuration) get(path, def);
+        }
+
+        Configuration section = new Configuration((defaults == null) ? null : defaults.getSection(path));
+        return frozen ? section.freeze() : get(path, section);
     }
 
     /**
@@ -182,8 +555,13 @@ public final class Configuration
      */
     public byte getByte(String path)
     {
+        Object val = lookup(path);
+        if (val instanceof Number) {
+            return ((Number) val).byteValue();
+        }
+
         Object def = getDefault(path);
-        return getByte(path, (def instanceof Number) ? ((Number) def).byteValue() : 0);
+        return (def instanceof Number) ? ((Number) def).byteValue() : 0;
     }
 
     /**
@@ -194,7 +572,7 @@ public final class Configuration
      */
     public byte getByte(String path, byte def)
     {
-        Object val = get(path, def);
+        Object val = lookup(path);
         return (val instanceof Number) ? ((Number) val).byteValue() : def;
     }
 
@@ -224,8 +602,13 @@ public final class Configuration
      */
     public short getShort(String path)
     {
+        Object val = lookup(path);
+        if (val instanceof Number) {
+            return ((Number) val).shortValue();
+        }
+
         Object def = getDefault(path);
-        return getShort(path, (def instanceof Number) ? ((Number) def).shortValue() : 0);
+        return (def instanceof Number) ? ((Number) def).shortValue() : 0;
     }
 
     /**
@@ -236,7 +619,7 @@ public final class Configuration
      */
     public short getShort(String path, short def)
     {
-        Object val = get(path, def);
+        Object val = lookup(path);
         return (val instanceof Number) ? ((Number) val).shortValue() : def;
     }
 
@@ -266,8 +649,13 @@ public final class Configuration
      */
     public int getInt(String path)
     {
+        Object val = lookup(path);
+        if (val instanceof Number) {
+            return ((Number) val).intValue();
+        }
+
         Object def = getDefault(path);
-        return getInt(path, (def instanceof Number) ? ((Number) def).intValue() : 0);
+        return (def instanceof Number) ? ((Number) def).intValue() : 0;
     }
 
     /**
@@ -278,7 +666,7 @@ public final class Configuration
      */
     public int getInt(String path, int def)
     {
-        Object val = get(path, def);
+        Object val = lookup(path);
         return (val instanceof Number) ? ((Number) val).intValue() : def;
     }
 
@@ -301,6 +689,17 @@ public final class Configuration
         return result;
     }
 
+    /**
+     * Gets an int array, converted from the list once and kept until the
+     * path is set. Each caller gets its own copy of the converted array.
+     * @param path - path to int list.
+     * @return int array if present, else empty array.
+     */
+    public int[] getIntArray(String path)
+    {
+        return getArray(path, int[].class, list -> list.stream().filter(Number.class::isInstance).mapToInt(object -> ((Number) object).intValue()).toArray()).clone();
+    }
+
     /**
      * Gets a long value.
      * @param path - path to long list.
@@ -308,8 +707,13 @@ public final class Configuration
      */
     public long getLong(String path)
     {
+        Object val = lookup(path);
+        if (val instanceof Number) {
+            return ((Number) val).longValue();
+        }
+
         Object def = getDefault(path);
-        return getLong(path, (def instanceof Number) ? ((Number) def).longValue() : 0);
+        return (def instanceof Number) ? ((Number) def).longValue() : 0;
     }
 
     /**
@@ -320,7 +724,7 @@ public final class Configuration
      */
     public long getLong(String path, long def)
     {
-        Object val = get(path, def);
+        Object val = lookup(path);
         return (val instanceof Number) ? ((Number) val).longValue() : def;
     }
 
@@ -343,6 +747,17 @@ public final class Configuration
         return result;
     }
 
+    /**
+     * Gets a long array, converted from the list once and kept until the
+     * path is set. Each caller gets its own copy of the converted array.
+     * @param path - path to long list.
+     * @return long array if present, else empty array.
+     */
+    public long[] getLongArray(String path)
+    {
+        return getArray(path, long[].class, list -> list.stream().filter(Number.class::isInstance).mapToLong(object -> ((Number) object).longValue()).toArray()).clone();
+    }
+
     /**
      * Gets a float value.
      * @param path - path to float value.
@@ -350,8 +765,13 @@ public final class Configuration
      */
     public float getFloat(String path)
     {
+        Object val = lookup(path);
+        if (val instanceof Number) {
+            return ((Number) val).floatValue();
+        }
+
         Object def = getDefault(path);
-        return getFloat(path, (def instanceof Number) ? ((Number) def).floatValue() : 0);
+        return (def instanceof Number) ? ((Number) def).floatValue() : 0;
     }
 
     /**
@@ -362,7 +782,7 @@ public final class Configuration
      */
     public float getFloat(String path, float def)
     {
-        Object val = get(path, def);
+        Object val = lookup(path);
         return (val instanceof Number) ? ((Number) val).floatValue() : def;
     }
 
@@ -385,6 +805,28 @@ public final class Configuration
         return result;
     }
 
+    /**
+     * Gets a float array, converted from the list once and kept until the
+     * path is set. Each caller gets its own copy of the converted array.
+     * @param path - path to float list.
+     * @return float array if present, else empty array.
+     */
+    public float[] getFloatArray(String path)
+    {
+        return getArray(path, float[].class, list -> {
+            float[] array = new float[list.size()];
+            int size = 0;
+
+            for (Object object : list) {
+                if (object instanceof Number) {
+                    array[size++] = ((Number) object).floatValue();
+                }
+            }
+
+            return (size == array.length) ? array : Arrays.copyOf(array, size);
+        }).clone();
+    }
+
     /**
      * Gets a double value.
      * @param path - path to double value.
@@ -392,8 +834,13 @@ public final class Configuration
      */
     public double getDouble(String path)
     {
+        Object val = lookup(path);
+        if (val instanceof Number) {
+            return ((Number) val).doubleValue();
+        }
+
         Object def = getDefault(path);
-        return getDouble(path, (def instanceof Number) ? ((Number) def).doubleValue() : 0);
+        return (def instanceof Number) ? ((Number) def).doubleValue() : 0;
     }
 
     /**
@@ -404,7 +851,7 @@ public final class Configuration
      */
     public double getDouble(String path, double def)
     {
-        Object val = get(path, def);
+        Object val = lookup(path);
         return (val instanceof Number) ? ((Number) val).doubleValue() : def;
     }
 
@@ -427,6 +874,17 @@ public final class Configuration
         return result;
     }
 
+    /**
+     * Gets a double array, converted from the list once and kept until the
+     * path is set. Each caller gets its own copy of the converted array.
+     * @param path - path to double list.
+     * @return double array if present, else empty array.
+     */
+    public double[] getDoubleArray(String path)
+    {
+        return getArray(path, double[].class, list -> list.stream().filter(Number.class::isInstance).mapToDouble(object -> ((Number) object).doubleValue()).toArray()).clone();
+    }
+
     /**
      * Gets a boolean.
      * @param path - path to boolean.
@@ -434,8 +892,13 @@ public final class Configuration
      */
     public boolean getBoolean(String path)
     {
+        Object val = lookup(path);
+        if (val instanceof Boolean) {
+            return (Boolean) val;
+        }
+
         Object def = getDefault(path);
-        return getBoolean(path, (def instanceof Boolean) ? (Boolean) def : false);
+        return (def instanceof Boolean) ? (Boolean) def : false;
     }
 
     /**
@@ -446,7 +909,7 @@ public final class Configuration
      */
     public boolean getBoolean(String path, boolean def)
     {
-        Object val = get(path, def);
+        Object val = lookup(path);
         return (val instanceof Boolean) ? (Boolean) val : def;
     }
 
@@ -469,6 +932,28 @@ public final class Configuration
         return result;
     }
 
+    /**
+     * Gets a boolean array, converted from the list once and kept until the
+     * path is set. Each caller gets its own copy of the converted array.
+     * @param path - path to boolean list.
+     * @return boolean array if present, else empty array.
+     */
+    public boolean[] getBooleanArray(String path)
+    {
+        return getArray(path, boolean[].class, list -> {
+            boolean[] array = new boolean[list.size()];
+            int size = 0;
+
+            for (Object object : list) {
+                if (object instanceof Boolean) {
+                    array[size++] = (Boolean) object;
+                }
+            }
+
+            return (size == array.length) ? array : Arrays.copyOf(array, size);
+        }).clone();
+    }
+
     /**
      * Gets a character.
      * @param path - path to character.
@@ -476,8 +961,13 @@ public final class Configuration
      */
     public char getChar(String path)
     {
+        Object val = lookup(path);
+        if (val instanceof Character) {
+            return (Character) val;
+        }
+
         Object def = getDefault(path);
-        return getChar(path, (def instanceof Character) ? (Character) def : '\u0000');
+        return (def instanceof Character) ? (Character) def : '\u0000';
     }
 
     /**
@@ -488,7 +978,7 @@ public final class Configuration
      */
     public char getChar(String path, char def)
     {
-        Object val = get(path, def);
+        Object val = lookup(path);
         return (val instanceof Character) ? (Character) val : def;
     }
 
@@ -518,8 +1008,13 @@ public final class Configuration
      */
     public String getString(String path)
     {
+        Object val = lookup(path);
+        if (val instanceof String) {
+            return (String) val;
+        }
+
         Object def = getDefault(path);
-        return getString(path, (def instanceof String) ? (String) def : "");
+        return (def instanceof String) ? (String) def : "";
     }
 
     /**
@@ -530,7 +1025,7 @@ public final class Configuration
      */
     public String getString(String path, String def)
     {
-        Object val = get(path, def);
+        Object val = lookup(path);
         return (val instanceof String) ? (String) val : def;
     }
 
@@ -560,8 +1055,13 @@ public final class Configuration
      */
     public List<?> getList(String path)
     {
+        Object val = lookup(path);
+        if (val instanceof List<?>) {
+            return (List<?>) val;
+        }
+
         Object def = getDefault(path);
-        return getList(path, (def instanceof List<?>) ? (List<?>) def : Collections.EMPTY_LIST);
+        return (def instanceof List<?>) ? (List<?>) def : Collections.EMPTY_LIST;
     }
 
     /**
@@ -572,7 +1072,37 @@ public final class Configuration
      */
     public List<?> getList(String path, List<?> def)
     {
-        Object val = get(path, def);
+        Object val = lookup(path);
         return (val instanceof List<?>) ? (List<?>) val : def;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the array converted from a list, converting it if it hasn't been
+     * since the path, or a section it is in, was set. Changing the list
+     * itself, rather than setting the path, doesn't convert it again. The
+     * array returned is the one kept, so the getters copy it.
+     * @param path - path to list.
+     * @param type - type of the array.
+     * @param converter - converts the list into the array.
+     * @param <A> - type of the array.
+     * @return the array if present, else the array from the defaults, else an empty array.
+     */
+    private <A> A getArray(String path, Class<A> type, Function<List<?>, A> converter)
+    {
+        String full = prefix.isEmpty() ? path : prefix.concat(path);
+
+        Object array = root.arrays.get(full);
+        if (type.isInstance(array)) {
+            return type.cast(array);
+        }
+
+        Object val = root.paths.get(full);
+        if (!(val instanceof List<?>)) {
+            return (defaults == null) ? converter.apply(Collections.emptyList()) : defaults.getArray(path, type, converter);
+        }
+
+        A converted = converter.apply((List<?>) val);
+        root.arrays.put(full, converted);
+        return converted;
+    }
+}
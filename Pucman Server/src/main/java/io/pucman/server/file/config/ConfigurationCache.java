@@ -0,0 +1,319 @@
+package io.pucman.server.file.config;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.pucman.common.exception.UtilException;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Binary cache of a parsed configuration, kept next to the file it was
+ * parsed from. The cache records the size, last modified time and hash of
+ * the file, so a file that hasn't changed since it was cached isn't parsed
+ * again.
+ *
+ * A cache that can't be read or written is ignored, the file is parsed
+ * instead.
+ */
+@ParametersAreNonnullByDefault
+public final class ConfigurationCache
+{
+    private static final int MAGIC = 0x50434346;
+    private static final byte VERSION = 1;
+
+    /**
+     * Types of the values in the cache.
+     */
+    private static final byte NULL = 0, STRING = 1, INT = 2, LONG = 3, DOUBLE = 4, FLOAT = 5, BOOLEAN = 6, BIG_INTEGER = 7, DATE = 8, BYTES = 9, LIST = 10, MAP = 11, SECTION = 12;
+
+    private ConfigurationCache()
+    {
+        throw new UtilException();
+    }
+
+    /**
+     * Loads a configuration from its cache, or if the file changed since
+     * it was cached, parses the file and caches it again.
+     * @param file - the file.
+     * @param provider - provider to parse the file with.
+     * @return the configuration.
+     * @throws IOException if the file can't be read.
+     */
+    public static Configuration load(File file, Class<? extends ConfigurationProvider> provider) throws IOException
+    {
+        Path source = file.toPath();
+        Path cache = getCacheFile(file).toPath();
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        long size = Files.size(source);
+
+        try {
+            // Read onto the heap rather than mapped, as a mapping keeps the file open until it is collected, so it couldn't be replaced on Windows.
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(cache));
+
+            if (buffer.getInt() == MAGIC && buffer.get() == VERSION && readString(buffer).equals(provider.getName()) && buffer.getLong() == size) {
+                int at = buffer.position();
+                long cachedModified = buffer.getLong();
+                byte[] hash = new byte[32];
+                buffer.get(hash);
+
+                // A time in whole seconds may be from a file system that can't tell apart two edits in the same second, so the hash is checked too.
+                boolean unchanged = cachedModified == modified && modified % 1000 != 0;
+
+                if (unchanged || Arrays.equals(hash, hash(Files.readAllBytes(source)).asBytes())) {
+                    Configuration configuration = readSection(buffer, new Configuration());
+
+                    // Touched or copied, but not changed, so the new time is cached and the file isn't hashed again next time.
+                    if (cachedModified != modified) {
+                        buffer.putLong(at, modified);
+
+                        try {
+                            replace(cache, buffer.array());
+                        } catch (IOException ignore) {
+                            // The cache is still right, it is only hashed again next time.
+                        }
+                    }
+
+                    return configuration;
+                }
+            }
+        } catch (IOException | RuntimeException ignore) {
+            // No cache, or one that can't be read, parse the file.
+        }
+
+        byte[] bytes = Files.readAllBytes(source);
+        Configuration configuration = ConfigurationProvider.getProvider(provider).load(new ByteArrayInputStream(bytes));
+
+        try {
+            write(cache, provider, bytes.length, modified, hash(bytes), configuration);
+        } catch (IOException | RuntimeException ignore) {
+            // Such as a value that can't be cached.
+        }
+
+        return configuration;
+    }
+
+    /**
+     * @param file - the file.
+     * @return where the cache of the file is kept.
+     */
+    public static File getCacheFile(File file)
+    {
+        return new File(file.getAbsoluteFile().getParentFile(), "." + file.getName() + ".cache");
+    }
+
+    private static HashCode hash(byte[] bytes)
+    {
+        return Hashing.sha256().hashBytes(bytes);
+    }
+
+    /**
+     * Writes the cache to a temporary file first, so a cache is never
+     * read half written.
+     */
+    private static void write(Path cache, Class<? extends ConfigurationProvider> provider, long size, long modified, HashCode hash, Configuration configuration) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeString(out, provider.getName());
+        out.writeLong(size);
+        out.writeLong(modified);
+        out.write(hash.asBytes());
+        writeSection(out, configuration);
+        out.flush();
+        replace(cache, bytes.toByteArray());
+    }
+
+    private static void replace(Path cache, byte[] bytes) throws IOException
+    {
+        Path temp = Files.createTempFile(cache.toAbsolutePath().getParent(), cache.getFileName().toString(), ".tmp");
+
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeSection(DataOutputStream out, Configuration section) throws IOException
+    {
+        out.writeInt(section.self.size());
+
+        for (Map.Entry<String, Object> entry : section.self.entrySet()) {
+            writeString(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException
+    {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            writeString(out, value.toString());
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            out.writeInt(((byte[]) value).length);
+            out.write((byte[]) value);
+        } else if (value instanceof List) {
+            out.writeByte(LIST);
+            out.writeInt(((List<?>) value).size());
+
+            for (Object element : (List<?>) value) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map) {
+            out.writeByte(MAP);
+            out.writeInt(((Map<?, ?>) value).size());
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof Configuration) {
+            out.writeByte(SECTION);
+            writeSection(out, (Configuration) value);
+        } else {
+            throw new IllegalArgumentException("Cannot cache a value of type " + value.getClass().getName() + ".");
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads the values of a section into it, putting each section in it
+     * before reading that, so its values are indexed straight into the top
+     * section.
+     */
+    private static Configuration readSection(ByteBuffer buffer, Configuration section)
+    {
+        for (int i = buffer.getInt(); i > 0; i--) {
+            String key = readString(buffer);
+
+            if (buffer.get(buffer.position()) == SECTION) {
+                buffer.get();
+                Configuration child = new Configuration();
+                section.put(key, child);
+                readSection(buffer, child);
+            } else {
+                section.put(key, readValue(buffer));
+            }
+        }
+
+        return section;
+    }
+
+    private static Object readValue(ByteBuffer buffer)
+    {
+        byte type = buffer.get();
+
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(buffer);
+            case INT:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case FLOAT:
+                return buffer.getFloat();
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case BIG_INTEGER:
+                return new BigInteger(readString(buffer));
+            case DATE:
+                return new Date(buffer.getLong());
+            case BYTES:
+                byte[] bytes = new byte[readLength(buffer)];
+                buffer.get(bytes);
+                return bytes;
+            case LIST:
+                int size = readLength(buffer);
+                List<Object> list = new ArrayList<>(size);
+
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buffer));
+                }
+
+                return list;
+            case MAP:
+                Map<Object, Object> map = new LinkedHashMap<>();
+
+                for (int i = buffer.getInt(); i > 0; i--) {
+                    map.put(readValue(buffer), readValue(buffer));
+                }
+
+                return map;
+            case SECTION:
+                return readSection(buffer, new Configuration());
+            default:
+                throw new IllegalStateException("Unknown type " + type + " in configuration cache.");
+        }
+    }
+
+    private static String readString(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[readLength(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a length, checking it against what is left of the cache, so a
+     * corrupt cache doesn't allocate a huge array.
+     */
+    private static int readLength(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("Length " + length + " in configuration cache is out of bounds.");
+        }
+
+        return length;
+    }
+}
@@ -3,12 +3,23 @@ package io.pucman.server.file.config;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
 
 import java.io.*;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.*;
 
+/**
+ * Loads configurations straight from the events of the parser, in one
+ * pass, rather than loading the document into maps and then copying the
+ * maps into a configuration, so a large file isn't held in memory twice.
+ */
 public class YamlProvider extends ConfigurationProvider
 {
     private final ThreadLocal<Yaml> yaml = ThreadLocal.withInitial(() -> {
@@ -22,6 +33,13 @@ public class YamlProvider extends ConfigurationProvider
         return new Yaml(new Constructor(), representer, options);
     });
 
+    private final ThreadLocal<ScalarConstructor> constructor = ThreadLocal.withInitial(ScalarConstructor::new);
+
+    /**
+     * Key of a merge, such as <<: *anchor.
+     */
+    private static final Object MERGE = new Object();
+
     @Override
     public void save(Configuration config, File file) throws IOException
     {
@@ -57,14 +75,9 @@ public class YamlProvider extends ConfigurationProvider
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Configuration load(Reader reader, Configuration defaults)
     {
-        Map<String, Object> map = yaml.get().loadAs(reader, LinkedHashMap.class);
-        if (map == null) {
-            map = new LinkedHashMap<>();
-        }
-        return new Configuration(map, defaults);
+        return build(reader, defaults);
     }
 
     @Override
@@ -74,14 +87,9 @@ public class YamlProvider extends ConfigurationProvider
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Configuration load(InputStream is, Configuration defaults)
     {
-        Map<String, Object> map = yaml.get().loadAs(is, LinkedHashMap.class);
-        if (map == null) {
-            map = new LinkedHashMap<>();
-        }
-        return new Configuration(map, defaults);
+        return build(new UnicodeReader(is), defaults);
     }
 
     @Override
@@ -91,13 +99,213 @@ public class YamlProvider extends ConfigurationProvider
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Configuration load(String string, Configuration defaults)
     {
-        Map<String, Object> map = yaml.get().loadAs(string, LinkedHashMap.class);
-        if (map == null) {
-            map = new LinkedHashMap<>();
+        return build(new StringReader(string), defaults);
+    }
+
+    /**
+     * A mapping or sequence being built.
+     */
+    private static final class Frame
+    {
+        /**
+         * Configuration, map or list.
+         */
+        private final Object container;
+        private final Configuration defaults;
+        private final String anchor;
+        private Object key;
+        private boolean hasKey;
+
+        /**
+         * True if the container is a section already put in its parent.
+         */
+        private boolean placed;
+
+        private Frame(Object container, Configuration defaults, String anchor)
+        {
+            this.container = container;
+            this.defaults = defaults;
+            this.anchor = anchor;
+        }
+    }
+
+    /**
+     * Builds the configuration from the events of the document. Mappings
+     * that are values of the configuration become its sections, the same
+     * as the Map constructor of Configuration, and mappings in lists stay
+     * maps.
+     * @param reader - the document.
+     * @param defaults - default configuration options.
+     * @return the configuration.
+     */
+    private Configuration build(Reader reader, Configuration defaults)
+    {
+        ScalarConstructor constructor = this.constructor.get();
+        Map<String, Object> anchors = new HashMap<>();
+        Deque<Frame> frames = new ArrayDeque<>();
+
+        for (Event event : yaml.get().parse(reader)) {
+            Object value;
+
+            if (event instanceof MappingStartEvent || event instanceof SequenceStartEvent) {
+                String anchor = ((NodeEvent) event).getAnchor();
+                Frame top = frames.peek();
+
+                if (event instanceof SequenceStartEvent) {
+                    frames.push(new Frame(new ArrayList<>(), null, anchor));
+                } else if (top == null) {
+                    frames.push(new Frame(new Configuration(defaults), defaults, anchor));
+                } else if (top.container instanceof Configuration && top.hasKey && top.key != MERGE) {
+                    // The section is put before it is filled, so its values are indexed straight into the top section.
+                    String name = String.valueOf(top.key);
+                    Configuration sectionDefaults = (top.defaults == null) ? null : top.defaults.getSection(name);
+                    Configuration section = new Configuration(sectionDefaults);
+                    ((Configuration) top.container).put(name, section);
+                    top.hasKey = false;
+
+                    Frame frame = new Frame(section, sectionDefaults, anchor);
+                    frame.placed = true;
+                    frames.push(frame);
+                } else {
+                    frames.push(new Frame(new LinkedHashMap<>(), null, anchor));
+                }
+
+                continue;
+            } else if (event instanceof MappingEndEvent || event instanceof SequenceEndEvent) {
+                Frame frame = frames.pop();
+                value = frame.container;
+
+                if (frame.anchor != null) {
+                    anchors.put(frame.anchor, value);
+                }
+
+                if (frame.placed) {
+                    continue;
+                }
+            } else if (event instanceof ScalarEvent) {
+                value = constructor.construct((ScalarEvent) event);
+
+                if (((ScalarEvent) event).getAnchor() != null) {
+                    anchors.put(((ScalarEvent) event).getAnchor(), value);
+                }
+            } else if (event instanceof AliasEvent) {
+                String anchor = ((AliasEvent) event).getAnchor();
+
+                if (!anchors.containsKey(anchor)) {
+                    throw new YAMLException("Found undefined alias " + anchor + ".");
+                }
+
+                // A section can only be in one place, so an alias of one is added as a map and made into a section again.
+                value = plain(anchors.get(anchor));
+            } else {
+                continue;
+            }
+
+            if (frames.isEmpty()) {
+                if (value instanceof Configuration) {
+                    return (Configuration) value;
+                }
+
+                if (value != null) {
+                    throw new YAMLException("Expected a mapping at the root of the configuration, but found " + value.getClass().getSimpleName() + ".");
+                }
+            } else {
+                add(frames.peek(), value);
+            }
+        }
+
+        return new Configuration(defaults);
+    }
+
+    /**
+     * Adds a value to the mapping or sequence being built, as a key if the
+     * mapping is waiting for one, else as the value of the key.
+     */
+    @SuppressWarnings("unchecked")
+    private static void add(Frame frame, Object value)
+    {
+        if (frame.container instanceof List) {
+            ((List<Object>) frame.container).add(plain(value));
+            return;
+        }
+
+        if (!frame.hasKey) {
+            frame.key = value;
+            frame.hasKey = true;
+            return;
+        }
+
+        frame.hasKey = false;
+
+        if (frame.key != MERGE) {
+            put(frame, frame.key, value);
+            return;
+        }
+
+        // The keys of the mapping win over the merged keys, whichever comes first.
+        for (Object merged : (value instanceof List) ? (List<Object>) value : Collections.singletonList(value)) {
+            Map<?, ?> map = (merged instanceof Configuration) ? ((Configuration) merged).self : (Map<?, ?>) merged;
+
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                boolean present = (frame.container instanceof Configuration) ? ((Configuration) frame.container).self.containsKey(String.valueOf(entry.getKey())) : ((Map<?, ?>) frame.container).containsKey(entry.getKey());
+
+                if (!present) {
+                    put(frame, entry.getKey(), plain(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void put(Frame frame, Object key, Object value)
+    {
+        if (frame.container instanceof Configuration) {
+            String name = String.valueOf(key);
+
+            if (value instanceof Map) {
+                value = new Configuration((Map<?, ?>) value, (frame.defaults == null) ? null : frame.defaults.getSection(name));
+            }
+
+            ((Configuration) frame.container).put(name, value);
+        } else {
+            ((Map<Object, Object>) frame.container).put(key, plain(value));
+        }
+    }
+
+    /**
+     * @return the value, with a section made back into a map.
+     */
+    private static Object plain(Object value)
+    {
+        if (!(value instanceof Configuration)) {
+            return value;
+        }
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        ((Configuration) value).self.forEach((key, child) -> map.put(key, plain(child)));
+        return map;
+    }
+
+    /**
+     * Constructs scalars the same as when a document is loaded into maps.
+     */
+    private static final class ScalarConstructor extends Constructor
+    {
+        private final Resolver resolver = new Resolver();
+
+        private Object construct(ScalarEvent event)
+        {
+            boolean resolved = event.getTag() == null || event.getTag().equals("!");
+            Tag tag = resolved ? resolver.resolve(NodeId.scalar, event.getValue(), event.getImplicit().canOmitTagInPlainScalar()) : new Tag(event.getTag());
+
+            if (Tag.MERGE.equals(tag)) {
+                return MERGE;
+            }
+
+            ScalarNode node = new ScalarNode(tag, resolved, event.getValue(), event.getStartMark(), event.getEndMark(), event.getStyle());
+            return getConstructor(node).construct(node);
         }
-        return new Configuration(map, defaults);
     }
 }
@@ -3,10 +3,13 @@ package io.pucman.server.locale;
 import com.google.common.collect.Lists;
 import io.pucman.common.exception.DeveloperException;
 import io.pucman.common.exception.TryUtil;
-import io.pucman.common.generic.GenericUtil;
+import io.pucman.common.reflect.MemberIndex;
+import io.pucman.common.reflect.ReflectUtil;
+import io.pucman.common.reflect.accessors.FieldAccessor;
 import io.pucman.server.file.BaseFile;
 import io.pucman.server.file.ConfigPopulate;
 import io.pucman.server.file.config.Configuration;
+import io.pucman.server.file.config.ConfigurationCache;
 import io.pucman.server.file.config.ConfigurationProvider;
 import io.pucman.server.file.config.YamlProvider;
 import lombok.SneakyThrows;
@@ -17,7 +20,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.LinkedList;
 
@@ -81,7 +84,7 @@ public class Locale<P extends JavaPlugin> extends BaseFile
         }
 
         if (this.getConfiguration() == null) {
-            this.setConfiguration(TryUtil.sneaky(() -> ConfigurationProvider.getProvider(this.getProvider()).load(this.getFile()), Configuration.class));
+            this.setConfiguration(TryUtil.sneaky(() -> ConfigurationCache.load(this.getFile(), this.getProvider()), Configuration.class));
         }
 
         this.PLUGIN_PREFIX = this.getMessage("Prefix");
@@ -98,12 +101,13 @@ public class Locale<P extends JavaPlugin> extends BaseFile
     @Override
     public void populate(Class<?> clazz)
     {
-        for (Field f : clazz.getFields()) {
-            if (!f.isAnnotationPresent(ConfigPopulate.class)) {
+        for (FieldAccessor<Object> f : MemberIndex.of(clazz).getFields(ConfigPopulate.class)) {
+            // Populated by class, so only the static fields can be set.
+            if (!Modifier.isStatic(f.get().getModifiers())) {
                 continue;
             }
 
-            ConfigPopulate annotation = f.getAnnotation(ConfigPopulate.class);
+            ConfigPopulate annotation = (ConfigPopulate) f.getAnnotation(ConfigPopulate.class, ReflectUtil.Type.PUBLIC);
 
             Object value = this.getConfiguration().get(annotation.value(), null);
 
@@ -111,21 +115,13 @@ public class Locale<P extends JavaPlugin> extends BaseFile
                 throw new DeveloperException("Key " + annotation.value() + ". Was not found in file " + this.getName() + ".");
             }
 
-            if (!GenericUtil.castable(value, f.getType())) {
-                throw new DeveloperException("Value corresponding to key " + annotation.value() + " could not be assigned to field " + f.getName() + " as it's type, " + f.getType().getName() + " could not be casted to the value " + value.toString() + ".");
-            }
-
-            f.setAccessible(true);
-
             if (f.getType().equals(String.class) && annotation.format()) {
-                TryUtil.sneaky(() -> f.set(clazz, Format.color(this.PLUGIN_MESSAGE_FORMAT.replace("{prefix}", this.PLUGIN_PREFIX).replace("{message}", ((String) value)))));
-                continue;
+                value = Format.color(this.PLUGIN_MESSAGE_FORMAT.replace("{prefix}", this.PLUGIN_PREFIX).replace("{message}", value.toString()));
             } else if (f.getType().equals(String.class) && annotation.color()) {
-                TryUtil.sneaky(() -> f.set(clazz, Format.color((String) value)));
-                continue;
+                value = Format.color(value.toString());
             }
 
-            TryUtil.sneaky(() -> f.set(clazz, value));
+            this.set(f, annotation.value(), value);
         }
     }
 
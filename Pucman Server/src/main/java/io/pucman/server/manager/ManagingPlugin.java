@@ -2,6 +2,7 @@ package io.pucman.server.manager;
 
 import com.google.common.collect.HashMultimap;
 import io.pucman.common.generic.GenericUtil;
+import io.pucman.common.profile.LifecycleProfiler;
 import lombok.Getter;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -18,6 +19,13 @@ public class ManagingPlugin extends JavaPlugin
     @Getter
     private HashMultimap<Manager.Priority, Manager> managers = HashMultimap.create();
 
+    /**
+     * Times the enabling and disabling of the managers, and whatever else
+     * the plugin starts and stops, such as modules.
+     */
+    @Getter
+    private LifecycleProfiler profiler = new LifecycleProfiler();
+
     /**
      * Add managers to the map.
      * @param managers - array of managers.
@@ -32,8 +40,8 @@ public class ManagingPlugin extends JavaPlugin
      */
     public void enableManagers()
     {
-        this.managers.get(Manager.Priority.HIGH).forEach(Manager::init);
-        this.managers.get(Manager.Priority.NORMAL).forEach(Manager::init);
+        this.managers.get(Manager.Priority.HIGH).forEach(m -> profiler.record(m.getClass().getSimpleName(), LifecycleProfiler.Phase.ENABLE, m::init));
+        this.managers.get(Manager.Priority.NORMAL).forEach(m -> profiler.record(m.getClass().getSimpleName(), LifecycleProfiler.Phase.ENABLE, m::init));
     }
 
     /**
@@ -41,8 +49,8 @@ public class ManagingPlugin extends JavaPlugin
      */
     public void disableManagers()
     {
-        this.managers.get(Manager.Priority.HIGH).forEach(Manager::shutdown);
-        this.managers.get(Manager.Priority.NORMAL).forEach(Manager::shutdown);
+        this.managers.get(Manager.Priority.HIGH).forEach(m -> profiler.record(m.getClass().getSimpleName(), LifecycleProfiler.Phase.DISABLE, m::shutdown));
+        this.managers.get(Manager.Priority.NORMAL).forEach(m -> profiler.record(m.getClass().getSimpleName(), LifecycleProfiler.Phase.DISABLE, m::shutdown));
     }
 
     /**
@@ -0,0 +1,179 @@
+package io.pucman.server.module;
+
+import io.pucman.module.Module;
+import io.pucman.module.ModuleInfo;
+import lombok.Getter;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+/**
+ * Base Module for Modules on a Bukkit Plugin.
+ *
+ * Booting a module is split in two. load is for the heavy work that
+ * doesn't touch the Bukkit API, such as loading configs, warming up data
+ * or building indexes, and is run on a background thread. enable is for
+ * registering listeners, commands and tasks, and is run on the main
+ * thread once the module and its dependencies are loaded.
+ * @param <T> - plugin main class.
+ *
+ * @see ModuleManager
+ */
+public class BaseModule<T extends JavaPlugin> implements Module
+{
+    private ModuleInfo info;
+
+    @Getter
+    private T instance;
+
+    private AtomicBoolean loaded = new AtomicBoolean(false);
+    private AtomicBoolean enabled = new AtomicBoolean(false);
+    private ReentrantLock lock = new ReentrantLock();
+
+    public BaseModule(T instance, String name, String version, boolean immutableModule, String... authors)
+    {
+        this.instance = instance;
+        info = new ModuleInfo(authors, version, name, immutableModule);
+    }
+
+    /**
+     * @return module information instance.
+     */
+    @Override
+    public ModuleInfo getInfo()
+    {
+        return info;
+    }
+
+    /**
+     * Boots the module on the calling thread, loading it first if it
+     * isn't loaded yet. Must be called on the main thread.
+     */
+    @Override
+    public void boot()
+    {
+        prepare();
+
+        try {
+            lock.lock();
+            if (enabled.get()) {
+                instance.getLogger().log(Level.WARNING, "Attempted to enable " + info.getName() + " but it was already enabled.");
+                return;
+            }
+
+            enable();
+            enabled.set(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the module, unless it is already loaded. Called on a
+     * background thread by the module manager.
+     */
+    public void prepare()
+    {
+        try {
+            lock.lock();
+            if (loaded.get()) {
+                return;
+            }
+
+            load();
+            loaded.set(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Shuts down module.
+     */
+    @Override
+    public void shutdown()
+    {
+        try {
+            lock.lock();
+            if (!enabled.get()) {
+                instance.getLogger().log(Level.WARNING, "Attempted to disable " + info.getName() + " but it was already disabled.");
+                return;
+            }
+
+            disable();
+            enabled.set(false);
+            loaded.set(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the module if it was loaded but never enabled, such as when
+     * one of its dependencies failed to enable or the plugin was disabled
+     * first. Called by the module manager, on any thread.
+     */
+    public void release()
+    {
+        try {
+            lock.lock();
+            if (!loaded.get() || enabled.get()) {
+                return;
+            }
+
+            unload();
+            loaded.set(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if enabled, else false.
+     */
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled.get();
+    }
+
+    /**
+     * @return true if loaded, else false.
+     */
+    public boolean isLoaded()
+    {
+        return loaded.get();
+    }
+
+    /**
+     * Invoked on a background thread, mustn't use the Bukkit API.
+     */
+    public void load()
+    {
+    }
+
+    /**
+     * Invoked on the main thread.
+     */
+    public void enable()
+    {
+    }
+
+    /**
+     * Invoked on the main thread.
+     */
+    public void disable()
+    {
+    }
+
+    /**
+     * Invoked when the module was loaded but won't be enabled, to release
+     * what load acquired. It may be invoked on any thread, so mustn't use
+     * the Bukkit API.
+     */
+    public void unload()
+    {
+    }
+}
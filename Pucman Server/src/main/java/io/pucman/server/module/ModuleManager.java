@@ -0,0 +1,472 @@
+package io.pucman.server.module;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.profile.LifecycleProfiler;
+import io.pucman.common.reflect.ReflectUtil;
+import io.pucman.common.reflect.accessors.ConstructorAccessor;
+import io.pucman.module.Module;
+import io.pucman.module.ModuleGraph;
+import io.pucman.module.ModuleIndex;
+import io.pucman.server.PLibrary;
+import io.pucman.server.manager.Manager;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+/**
+ * Manager for managing modules.
+ *
+ * The modules of a plugin are constructed and loaded on a background pool,
+ * modules that don't depend on each other at the same time, and each module
+ * is enabled on the main thread once it and its dependencies are ready. So
+ * the heavy work of the modules doesn't hold up the server starting, and
+ * only the work that needs the Bukkit API is done on the main thread.
+ *
+ * Modules that are loaded but never enabled, as a dependency failed or the
+ * plugin was disabled before their turn came, are released again.
+ *
+ * Which modules are loaded, being loaded or enabled changes under one
+ * lock, so a module needed by the boots of two plugins at once is only
+ * constructed and loaded once, the later boot waits for it.
+ *
+ * @see BaseModule
+ * @see ModuleGraph
+ */
+@ParametersAreNonnullByDefault
+public class ModuleManager extends Manager<PLibrary>
+{
+    private Map<JavaPlugin, Set<Class<? extends Module>>> registered = Maps.newConcurrentMap();
+    private Map<JavaPlugin, ModuleGraph> dependencyMap = Maps.newConcurrentMap();
+    private Map<JavaPlugin, List<Module>> loadedModules = Maps.newConcurrentMap();
+    private Set<Class<? extends Module>> cannotLoad = Sets.newConcurrentHashSet();
+    private ModuleIndex index = new ModuleIndex();
+    private Map<JavaPlugin, Boot> boots = Maps.newConcurrentMap();
+    private ExecutorService pool;
+
+    /**
+     * Guards which modules are loaded, being loaded and enabled.
+     */
+    private final Object lifecycle = new Object();
+
+    /**
+     * Modules being constructed and loaded, until they are enabled or
+     * released, so a module needed by two boots at once is only loaded by
+     * the first, the other waits for it.
+     */
+    private Map<Class<? extends Module>, CompletableFuture<Module>> loading = Maps.newHashMap();
+
+    public ModuleManager(PLibrary instance)
+    {
+        super(instance, Priority.HIGH);
+    }
+
+    @Override
+    public void onEnable()
+    {
+        pool = Executors.newWorkStealingPool();
+    }
+
+    @Override
+    public void onDisable()
+    {
+        boots.keySet().forEach(this::cancel);
+        pool.shutdownNow();
+    }
+
+    /**
+     * Registers the immutable array.
+     * @param plugin - plugin the modules belong to.
+     * @param modules - array of modules.
+     * @throws DeveloperException if the modules depend on each other in a cycle.
+     */
+    public synchronized void register(JavaPlugin plugin, Class<? extends Module>... modules)
+    {
+        Set<Class<? extends Module>> examineSet = Sets.newLinkedHashSet(registered.getOrDefault(plugin, Collections.emptySet()));
+        examineSet.addAll(Arrays.asList(modules));
+        dependencyMap.put(plugin, ModuleGraph.of(examineSet));
+        registered.put(plugin, examineSet);
+    }
+
+    /**
+     * Gets the load order of the modules, each module after its dependencies.
+     * @param plugin - plugin the modules belong to.
+     * @return load order.
+     */
+    public LinkedList<Class<? extends Module>> getLoadOrder(JavaPlugin plugin)
+    {
+        ModuleGraph graph = this.dependencyMap.get(plugin);
+        return graph == null ? Lists.newLinkedList() : Lists.newLinkedList(graph.getOrder());
+    }
+
+    /**
+     * Boots all the modules belonging to the plugin. It returns straight
+     * away, the server carries on starting while the modules load. As
+     * enabling the modules needs the main thread, the future mustn't be
+     * waited on from the main thread.
+     * @param plugin - plugin instance.
+     * @return a future completed once every module is enabled or failed to.
+     */
+    public CompletableFuture<Void> boot(JavaPlugin plugin)
+    {
+        ModuleGraph graph = dependencyMap.get(plugin);
+
+        if (graph == null || graph.getOrder().isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Executor mainThread = task -> {
+            if (Bukkit.isPrimaryThread()) {
+                task.run();
+            } else {
+                Bukkit.getScheduler().runTask(plugin, task);
+            }
+        };
+
+        Boot boot = boots.computeIfAbsent(plugin, key -> new Boot());
+        Map<Class<? extends Module>, CompletableFuture<Module>> loading = graph.run(entry -> load(plugin, boot, entry), pool);
+        Map<Class<? extends Module>, CompletableFuture<Module>> enabling = Maps.newLinkedHashMap();
+
+        for (Class<? extends Module> entry : graph.getOrder()) {
+            List<CompletableFuture<?>> ready = Lists.newArrayList(loading.get(entry));
+            graph.getDependencies(entry).forEach(dependency -> ready.add(enabling.get(dependency)));
+
+            CompletableFuture<Module> enabled = CompletableFuture.allOf(ready.toArray(new CompletableFuture[0])).thenApplyAsync(ignored -> enable(plugin, boot, graph, entry, loading.get(entry).join()), mainThread);
+
+            synchronized (lifecycle) {
+                boot.enabling.add(enabled);
+            }
+
+            enabling.put(entry, enabled.whenComplete((module, e) -> {
+                synchronized (lifecycle) {
+                    boot.enabling.remove(enabled);
+                }
+
+                if (e != null) {
+                    failed(graph, boot, entry, e);
+                }
+            }));
+        }
+
+        return CompletableFuture.allOf(enabling.values().stream().map(future -> future.handle((module, e) -> null)).toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Constructs and loads a module, on the pool, unless it is already
+     * enabled or another boot is loading it.
+     */
+    private Module load(JavaPlugin plugin, Boot boot, Class<? extends Module> entry)
+    {
+        CompletableFuture<Module> pending;
+
+        synchronized (lifecycle) {
+            Module m = index.get(entry);
+
+            if (m != null) {
+                return m;
+            }
+
+            if (cannotLoad.contains(entry)) {
+                throw new DeveloperException("Module " + entry.getSimpleName() + " failed to load before.");
+            }
+
+            pending = loading.get(entry);
+
+            if (pending == null) {
+                loading.put(entry, new CompletableFuture<>());
+            }
+        }
+
+        Module created;
+
+        if (pending != null) {
+            created = pending.join();
+        } else {
+            try {
+                ConstructorAccessor<? extends Module> accessor = ReflectUtil.getConstructor(entry, ReflectUtil.Type.DECLARED, JavaPlugin.class);
+                LifecycleProfiler profiler = instance.getProfiler();
+                created = profiler.record(entry.getSimpleName(), LifecycleProfiler.Phase.CONSTRUCT, () -> accessor.call(plugin));
+
+                if (created instanceof BaseModule) {
+                    profiler.record(entry.getSimpleName(), LifecycleProfiler.Phase.LOAD, ((BaseModule<?>) created)::prepare);
+                }
+            } catch (RuntimeException | Error e) {
+                synchronized (lifecycle) {
+                    loading.remove(entry).completeExceptionally(e);
+                }
+
+                throw e;
+            }
+
+            synchronized (lifecycle) {
+                pending = loading.get(entry);
+                pending.complete(created);
+            }
+        }
+
+        synchronized (lifecycle) {
+            if (loading.get(entry) != pending) {
+                // Enabled by the other boot meanwhile, or released as it was cancelled, so the module is gotten or loaded again.
+                pending = null;
+            } else if (!boot.cancelled) {
+                boot.loaded.put(entry, created);
+                return created;
+            }
+        }
+
+        if (pending == null) {
+            return load(plugin, boot, entry);
+        }
+
+        release(entry, created);
+        throw new CancellationException("Module " + entry.getSimpleName() + " finished loading after " + plugin.getName() + " was disabled.");
+    }
+
+    /**
+     * Enables a loaded module, on the main thread.
+     */
+    private Module enable(JavaPlugin plugin, Boot boot, ModuleGraph graph, Class<? extends Module> entry, Module m)
+    {
+        synchronized (lifecycle) {
+            if (index.get(entry) == m) {
+                boot.loaded.remove(entry);
+                return m;
+            }
+        }
+
+        instance.getProfiler().record(entry.getSimpleName(), LifecycleProfiler.Phase.ENABLE, m::boot);
+
+        synchronized (lifecycle) {
+            index.add(m, graph.getDependencies(entry));
+            loadedModules.computeIfAbsent(plugin, key -> new CopyOnWriteArrayList<>()).add(m);
+            boot.loaded.remove(entry);
+            loading.remove(entry);
+        }
+
+        return m;
+    }
+
+    private void failed(ModuleGraph graph, Boot boot, Class<? extends Module> entry, Throwable e)
+    {
+        Module loaded;
+
+        synchronized (lifecycle) {
+            loaded = boot.loaded.remove(entry);
+        }
+
+        if (loaded != null) {
+            release(entry, loaded);
+        }
+
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+
+        if (cause instanceof CancellationException) {
+            instance.getLogger().info("Module " + entry.getSimpleName() + " wasn't enabled, its plugin was disabled first.");
+            return;
+        }
+
+        List<Class<? extends Module>> failed = graph.getDependencies(entry).stream().filter(cannotLoad::contains).collect(Collectors.toList());
+        cannotLoad.add(entry);
+
+        if (failed.isEmpty()) {
+            instance.getLogger().log(Level.SEVERE, "Module " + entry.getSimpleName() + " failed to load.", cause);
+        } else {
+            instance.getLogger().info("Cannot load module " + entry.getSimpleName() + ". It's dependencies " + failed.stream().map(Class::getSimpleName).collect(Collectors.joining(", ")) + " had problems loading.");
+        }
+    }
+
+    /**
+     * Releases a module that was loaded but won't be enabled, unless the
+     * boot of another plugin still has it to enable.
+     */
+    private void release(Class<? extends Module> entry, Module module)
+    {
+        synchronized (lifecycle) {
+            for (Boot other : boots.values()) {
+                if (other.loaded.get(entry) == module) {
+                    return;
+                }
+            }
+
+            CompletableFuture<Module> pending = loading.get(entry);
+
+            if (pending != null && pending.getNow(null) == module) {
+                loading.remove(entry);
+            }
+        }
+
+        if (!(module instanceof BaseModule)) {
+            return;
+        }
+
+        try {
+            ((BaseModule<?>) module).release();
+        } catch (RuntimeException e) {
+            instance.getLogger().log(Level.WARNING, "Module " + module.getClass().getSimpleName() + " failed to release.", e);
+        }
+    }
+
+    /**
+     * Stops the boot of a plugin. The enables still to run fail, so whoever
+     * waits on the boot is woken, and the modules loaded but not enabled
+     * are released, as are modules that finish loading afterwards.
+     */
+    private void cancel(JavaPlugin plugin)
+    {
+        Boot boot = boots.remove(plugin);
+
+        if (boot == null) {
+            return;
+        }
+
+        List<CompletableFuture<Module>> enabling;
+
+        synchronized (lifecycle) {
+            boot.cancelled = true;
+            enabling = Lists.newArrayList(boot.enabling);
+        }
+
+        CancellationException cancelled = new CancellationException(plugin.getName() + " was disabled before its modules were enabled.");
+        enabling.forEach(future -> future.completeExceptionally(cancelled));
+
+        Map<Class<? extends Module>, Module> loaded;
+
+        synchronized (lifecycle) {
+            loaded = Maps.newLinkedHashMap(boot.loaded);
+            boot.loaded.clear();
+        }
+
+        loaded.forEach(this::release);
+    }
+
+    /**
+     * Shuts down the modules belonging to the plugin, each module before
+     * the modules it depends on. A boot of the plugin still running is
+     * stopped first.
+     * @param plugin - plugin instance.
+     */
+    public void shutdown(JavaPlugin plugin)
+    {
+        cancel(plugin);
+        List<Module> modules = loadedModules.remove(plugin);
+
+        if (modules == null) {
+            return;
+        }
+
+        for (Module module : Lists.reverse(modules)) {
+            if (index.get(module.getClass()) == module) {
+                shutdown(module, true, Sets.newHashSet());
+            }
+        }
+    }
+
+    /**
+     * @param module - module class.
+     * @param <M> - generic type.
+     * @return the enabled module, or null if it isn't enabled.
+     */
+    public <M extends Module> M get(Class<M> module)
+    {
+        return index.get(module);
+    }
+
+    /**
+     * Gets a list of the loaded modules depending on the dependency.
+     * @param dependency - module other modules may be depending on.
+     * @return a list of modules depending on that particular dependency.
+     */
+    public List<Class<? extends Module>> getModulesDepending(Class<? extends Module> dependency)
+    {
+        return Lists.newArrayList(index.getDependents(dependency));
+    }
+
+    /**
+     * Initiates the shutdown process of the module passed in the parameters.
+     *
+     * The loaded modules depending on the module are shutdown first. The
+     * module will then shutdown the dependencies of the module that no
+     * other loaded module depends on.
+     *
+     * @param module - module to be shutdown.
+     */
+    public void shutdown(Module module)
+    {
+        shutdown(module, false, Sets.newHashSet());
+    }
+
+    /**
+     * @param stopping - the modules being shutdown, so the dependents of a
+     * module don't shut it down again as one of their dependencies.
+     */
+    private void shutdown(Module module, boolean force, Set<Class<? extends Module>> stopping)
+    {
+        if (!force && module.getInfo().isImmutableModule()) {
+            throw new DeveloperException("Cannot shutdown module " + module.getInfo().getName() + ". It is an immutable module.");
+        }
+
+        Class<? extends Module> type = module.getClass();
+        stopping.add(type);
+
+        for (Class<? extends Module> dependent : index.getDependents(type)) {
+            Module depending = index.get(dependent);
+
+            if (depending != null) {
+                shutdown(depending, force, stopping);
+            }
+        }
+
+        List<Class<? extends Module>> dependencies = index.getDependencies(type);
+        index.remove(type);
+        instance.getProfiler().record(type.getSimpleName(), LifecycleProfiler.Phase.DISABLE, module::shutdown);
+        loadedModules.values().forEach(modules -> modules.remove(module));
+
+        for (Class<? extends Module> dependency : dependencies) {
+            Module depend = index.get(dependency);
+
+            if (stopping.contains(dependency) || depend == null) {
+                continue;
+            }
+
+            if (index.getReferences(dependency) > 0) {
+                instance.getLogger().warning("Could not shutdown module " + dependency.getSimpleName() + " as it is being used by one or more loaded module.");
+            } else if (force || !depend.getInfo().isImmutableModule()) {
+                shutdown(depend, force, stopping);
+            }
+        }
+    }
+
+    /**
+     * The modules of a plugin that are loaded but not enabled yet, and the
+     * enables still to run. Guarded by the lifecycle lock.
+     */
+    private static final class Boot
+    {
+        private final Map<Class<? extends Module>, Module> loaded = Maps.newHashMap();
+        private final Set<CompletableFuture<Module>> enabling = Sets.newHashSet();
+        private boolean cancelled;
+    }
+
+    /**
+     * Gets the amount of loaded modules depending on this dependency.
+     * @param module - module to examine.
+     * @return amount of modules depending.
+     */
+    public int dependedBy(Class<? extends Module> module)
+    {
+        return index.getReferences(module);
+    }
+}
@@ -1,10 +1,19 @@
 package io.pucman.server.plugin;
 
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.reflect.MemberKey;
+import io.pucman.common.reflect.ReflectManifest;
+import io.pucman.common.reflect.ReflectUtil;
 import io.pucman.server.manager.ManagingPlugin;
+import lombok.SneakyThrows;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.scheduler.BukkitScheduler;
 
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Inherited by main classes of plugins.
  *
@@ -30,4 +39,34 @@ public class LibPlugin extends ManagingPlugin
             return null;
         }
     }
+
+    /**
+     * Resolves the members of a reflection manifest bundled with this plugin,
+     * in the background. Call it in onLoad so the members are resolved by the
+     * time they are needed.
+     * @see ReflectManifest
+     * @param resource - path of the manifest in the plugin jar.
+     * @return a future completed once all members are resolved, with the members that couldn't be.
+     */
+    @SneakyThrows
+    public CompletableFuture<Map<MemberKey, Throwable>> warmUp(String resource)
+    {
+        InputStream is = this.getResource(resource);
+
+        if (is == null) {
+            throw new DeveloperException("Reflection manifest " + resource + " does not exist in " + this.getDescription().getName() + ".");
+        }
+
+        ReflectManifest manifest = ReflectManifest.read(is, this.getClass().getClassLoader());
+
+        if (!manifest.getUnresolved().isEmpty()) {
+            this.getLogger().warning("Skipped " + manifest.getUnresolved().size() + " members of " + resource + " with missing classes: " + manifest.getUnresolved());
+        }
+
+        return ReflectUtil.warmUp(manifest).whenComplete((failures, t) -> {
+            if (failures != null && !failures.isEmpty()) {
+                this.getLogger().warning("Couldn't resolve " + failures.size() + " of " + manifest.getMembers().size() + " members of " + resource + ": " + failures.keySet());
+            }
+        });
+    }
 }
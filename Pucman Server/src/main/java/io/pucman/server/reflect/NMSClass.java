@@ -0,0 +1,18 @@
+package io.pucman.server.reflect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Logical name of the NMS class an interface is a view of, as mapped in its NMSTable.
+ *
+ * @see NMSProxy
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface NMSClass
+{
+    String value();
+}
@@ -0,0 +1,20 @@
+package io.pucman.server.reflect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an interface method that gets an NMS field if it has no parameters,
+ * or sets it if it has one, by the logical name of the field in the class of
+ * the interface.
+ *
+ * @see NMSProxy
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface NMSField
+{
+    String value();
+}
@@ -0,0 +1,19 @@
+package io.pucman.server.reflect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an interface method that calls an NMS method, by its logical name in
+ * the class of the interface.
+ *
+ * @see NMSProxy
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface NMSMethod
+{
+    String value();
+}
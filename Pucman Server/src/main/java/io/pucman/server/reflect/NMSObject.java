@@ -0,0 +1,16 @@
+package io.pucman.server.reflect;
+
+/**
+ * Can be extended by interfaces made into proxies, to get the NMS object
+ * behind a proxy. Parameters of this type are passed to NMS as the object
+ * behind them.
+ *
+ * @see NMSProxy
+ */
+public interface NMSObject
+{
+    /**
+     * @return the NMS object behind this proxy.
+     */
+    Object getHandle();
+}
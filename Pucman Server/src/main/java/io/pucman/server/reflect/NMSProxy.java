@@ -0,0 +1,243 @@
+package io.pucman.server.reflect;
+
+import com.google.common.collect.ImmutableMap;
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.generic.GenericUtil;
+import io.pucman.common.reflect.accessors.FieldAccessor;
+import io.pucman.common.reflect.accessors.MethodAccessor;
+import lombok.SneakyThrows;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Makes typed views of NMS objects out of interfaces. The interface names
+ * the logical NMS class it is a view of, and each of its methods the field
+ * or method it calls, as mapped in an NMSTable:
+ *
+ * <pre>
+ * &#64;NMSClass("EntityPlayer")
+ * public interface EntityPlayer extends NMSObject
+ * {
+ *     &#64;NMSField("ping")
+ *     int getPing();
+ *
+ *     &#64;NMSField("playerConnection")
+ *     PlayerConnection getConnection();
+ * }
+ *
+ * EntityPlayer player = NMSProxy.of(EntityPlayer.class).wrap(handle);
+ * </pre>
+ *
+ * Every method of the interface is bound to the MethodHandle of its member
+ * once, when the proxy of the interface is made, so a call is a single map
+ * get and handle invocation without any lookups or casts. Results whose type
+ * is another such interface are wrapped, and parameters that are NMSObjects
+ * are passed as the object behind them.
+ *
+ * @param <T> - the interface.
+ */
+@ParametersAreNonnullByDefault
+public final class NMSProxy<T>
+{
+    private static final ClassValue<NMSProxy<?>> PROXIES = new ClassValue<NMSProxy<?>>()
+    {
+        @Override
+        protected NMSProxy<?> computeValue(Class<?> type)
+        {
+            return new NMSProxy<>(type, ServerReflectUtil.getTable(), new HashMap<>());
+        }
+    };
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+    private static final MethodHandle WRAP;
+    private static final MethodHandle UNWRAP;
+
+    static
+    {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WRAP = lookup.findVirtual(NMSProxy.class, "wrap", MethodType.methodType(Object.class, Object.class));
+            UNWRAP = lookup.findStatic(NMSProxy.class, "unwrap", MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final ImmutableMap<Method, MethodHandle> handles;
+
+    private NMSProxy(Class<T> type, NMSTable table, Map<Class<?>, NMSProxy<?>> building)
+    {
+        this.type = type;
+        NMSClass nmsClass = type.getAnnotation(NMSClass.class);
+
+        if (!type.isInterface() || nmsClass == null) {
+            throw new DeveloperException(type.getName() + " must be an interface annotated with @NMSClass.");
+        }
+
+        this.constructor = constructor(type);
+        building.put(type, this);
+        ImmutableMap.Builder<Method, MethodHandle> handles = ImmutableMap.builder();
+
+        for (Method method : type.getMethods()) {
+            if (method.getDeclaringClass() == NMSObject.class) {
+                continue;
+            }
+
+            handles.put(method, bind(method, nmsClass.value(), table, building));
+        }
+
+        this.handles = handles.build();
+    }
+
+    /**
+     * Gets the proxy of an interface, using the mappings bundled with the
+     * library. It is only made the first time.
+     * @param type - the interface.
+     * @param <T> - generic type.
+     * @return the proxy.
+     */
+    public static <T> NMSProxy<T> of(Class<T> type)
+    {
+        return GenericUtil.cast(PROXIES.get(type));
+    }
+
+    /**
+     * Makes the proxy of an interface using other mappings, it should be
+     * kept rather than made again.
+     * @param type - the interface.
+     * @param table - the mappings.
+     * @param <T> - generic type.
+     * @return the proxy.
+     */
+    public static <T> NMSProxy<T> of(Class<T> type, NMSTable table)
+    {
+        return new NMSProxy<>(type, table, new HashMap<>());
+    }
+
+    /**
+     * Wraps an NMS object.
+     * @param handle - the NMS object.
+     * @return the view of the object, or null if the object is null.
+     */
+    @SneakyThrows
+    public T wrap(Object handle)
+    {
+        if (handle == null) {
+            return null;
+        }
+
+        return GenericUtil.cast((Object) constructor.invokeExact((InvocationHandler) new Handler(handle)));
+    }
+
+    /**
+     * @return the interface.
+     */
+    public Class<T> getType()
+    {
+        return type;
+    }
+
+    private static Object unwrap(Object object)
+    {
+        return object instanceof NMSObject ? ((NMSObject) object).getHandle() : object;
+    }
+
+    @SneakyThrows
+    private static MethodHandle constructor(Class<?> type)
+    {
+        Constructor<?> constructor = Proxy.getProxyClass(type.getClassLoader(), type).getConstructor(InvocationHandler.class);
+        constructor.setAccessible(true);
+        return MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class, InvocationHandler.class));
+    }
+
+    /**
+     * Binds a method of the interface to its member.
+     * @return a handle of the type (Object handle, Object[] arguments)Object.
+     */
+    private static MethodHandle bind(Method method, String clazz, NMSTable table, Map<Class<?>, NMSProxy<?>> building)
+    {
+        NMSMethod nmsMethod = method.getAnnotation(NMSMethod.class);
+        NMSField nmsField = method.getAnnotation(NMSField.class);
+        int arity = method.getParameterCount();
+        MethodHandle handle;
+
+        if (nmsMethod != null) {
+            MethodAccessor<?> accessor = table.getMethod(clazz + "." + nmsMethod.value());
+
+            if (accessor.get().getParameterCount() != arity) {
+                throw new DeveloperException(method + " has " + arity + " parameters, but " + accessor.get() + " has " + accessor.get().getParameterCount() + ".");
+            }
+
+            handle = accessor.getHandle();
+        } else if (nmsField != null && arity <= 1) {
+            FieldAccessor<?> accessor = table.getField(clazz + "." + nmsField.value());
+            handle = arity == 0 ? accessor.getGetterHandle() : accessor.getSetterHandle();
+        } else {
+            throw new DeveloperException(method + " must be annotated with @NMSMethod, or @NMSField with at most one parameter.");
+        }
+
+        for (int i = 0; i < arity; i++) {
+            if (NMSObject.class.isAssignableFrom(method.getParameterTypes()[i])) {
+                handle = MethodHandles.filterArguments(handle, i + 1, UNWRAP);
+            }
+        }
+
+        Class<?> returnType = method.getReturnType();
+
+        if (returnType.isAnnotationPresent(NMSClass.class)) {
+            NMSProxy<?> proxy = building.containsKey(returnType) ? building.get(returnType) : new NMSProxy<>(returnType, table, building);
+            handle = MethodHandles.filterReturnValue(handle, WRAP.bindTo(proxy));
+        }
+
+        // Setters return void, the proxy ignores whatever a void method returns.
+        return handle.asType(handle.type().changeReturnType(Object.class)).asSpreader(Object[].class, arity);
+    }
+
+    /**
+     * Calls the bound handles on the NMS object behind one proxy.
+     */
+    private final class Handler implements InvocationHandler
+    {
+        private final Object handle;
+
+        Handler(Object handle)
+        {
+            this.handle = handle;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] arguments) throws Throwable
+        {
+            MethodHandle bound = handles.get(method);
+
+            if (bound != null) {
+                Object[] spread = arguments == null ? NO_ARGUMENTS : arguments;
+                return bound.invokeExact(handle, spread);
+            }
+
+            switch (method.getName()) {
+                case "getHandle":
+                    return handle;
+                case "equals":
+                    return handle.equals(unwrap(arguments[0]));
+                case "hashCode":
+                    return handle.hashCode();
+                case "toString":
+                    return type.getSimpleName() + "{" + handle + "}";
+                default:
+                    throw new DeveloperException(method + " is not bound to an NMS member.");
+            }
+        }
+    }
+}
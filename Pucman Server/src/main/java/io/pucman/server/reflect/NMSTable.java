@@ -0,0 +1,338 @@
+package io.pucman.server.reflect;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.generic.GenericUtil;
+import io.pucman.common.reflect.MemberIndex;
+import io.pucman.common.reflect.ReflectUtil;
+import io.pucman.common.reflect.accessors.FieldAccessor;
+import io.pucman.common.reflect.accessors.MethodAccessor;
+import io.pucman.server.file.config.Configuration;
+import io.pucman.server.file.config.ConfigurationProvider;
+import io.pucman.server.file.config.YamlProvider;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A frozen table of NMS classes and members for one server version. The
+ * names of NMS classes, fields and methods change between versions, so
+ * members are referred to by a logical name, and a mapping file gives the
+ * real name of each member per version:
+ *
+ * <pre>
+ * EntityPlayer:
+ *   fields:
+ *     ping: ping
+ *     playerConnection:
+ *       default: playerConnection
+ *       v1_8_R3: playerConnection
+ *   methods:
+ *     getId: getId
+ * PlayerConnection:
+ *   methods:
+ *     sendPacket:
+ *       name: sendPacket
+ *       parameters: [Packet]
+ * CraftPlayer:
+ *   craftbukkit: true
+ *   class: entity.CraftPlayer
+ *   methods:
+ *     getHandle: getHandle
+ * </pre>
+ *
+ * A name is either used by every version, or is a map of version to name
+ * where 'default' is used by the versions that aren't listed. A class
+ * without members can be mapped to its name directly, as in 'Packet: Packet'.
+ * Class names are relative to the versioned NMS package, or to the versioned
+ * CraftBukkit package if the class is marked as craftbukkit. Parameters are
+ * primitives, logical classes of the same file or fully qualified class
+ * names. Fields and methods are also looked up in the superclasses of their
+ * class.
+ *
+ * Everything is resolved once when the table is loaded. Members that don't
+ * exist in the running version are listed in getUnresolved(), so one jar
+ * can carry the mappings of several versions.
+ */
+@ParametersAreNonnullByDefault
+public final class NMSTable
+{
+    private static final ImmutableMap<String, Class<?>> PRIMITIVES = ImmutableMap.<String, Class<?>>builder()
+            .put("boolean", boolean.class).put("byte", byte.class).put("short", short.class).put("char", char.class)
+            .put("int", int.class).put("long", long.class).put("float", float.class).put("double", double.class)
+            .build();
+
+    private final String version;
+    private final ImmutableMap<String, Class<?>> classes;
+    private final ImmutableMap<String, FieldAccessor<?>> fields;
+    private final ImmutableMap<String, MethodAccessor<?>> methods;
+    private final ImmutableList<String> unresolved;
+
+    private NMSTable(String version, ImmutableMap<String, Class<?>> classes, ImmutableMap<String, FieldAccessor<?>> fields, ImmutableMap<String, MethodAccessor<?>> methods, ImmutableList<String> unresolved)
+    {
+        this.version = version;
+        this.classes = classes;
+        this.fields = fields;
+        this.methods = methods;
+        this.unresolved = unresolved;
+    }
+
+    /**
+     * Loads a mapping file for the running server version.
+     * @see #load(Configuration, String, ClassLoader)
+     * @param is - stream of the mapping file.
+     * @return the table.
+     */
+    public static NMSTable load(InputStream is)
+    {
+        return load(ConfigurationProvider.getProvider(YamlProvider.class).load(is), ServerReflectUtil.getVersion(), NMSTable.class.getClassLoader());
+    }
+
+    /**
+     * Resolves the mappings of a version.
+     * @param mappings - the mappings.
+     * @param version - the version, as in the package of NMS, for example v1_12_R1.
+     * @param loader - classloader to load the classes with.
+     * @return the table.
+     */
+    public static NMSTable load(Configuration mappings, String version, ClassLoader loader)
+    {
+        Resolver resolver = new Resolver(mappings, version, loader);
+
+        for (String clazz : mappings.getKeys()) {
+            resolver.resolve(clazz);
+        }
+
+        return new NMSTable(version, resolver.classes.build(), resolver.fields.build(), resolver.methods.build(), resolver.unresolved.build());
+    }
+
+    /**
+     * @return the version this table was resolved for.
+     */
+    public String getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Gets a class by its logical name.
+     * @param clazz - logical name, for example EntityPlayer.
+     * @return the class.
+     */
+    public Class<?> getNMSClass(String clazz)
+    {
+        return check(classes.get(clazz), clazz);
+    }
+
+    /**
+     * Gets a field by its logical name.
+     * @param field - logical name of the class and field, for example EntityPlayer.ping.
+     * @param <T> - type of the field.
+     * @return the field.
+     */
+    public <T> FieldAccessor<T> getField(String field)
+    {
+        return GenericUtil.cast(check(fields.get(field), field));
+    }
+
+    /**
+     * Gets a method by its logical name.
+     * @param method - logical name of the class and method, for example PlayerConnection.sendPacket.
+     * @param <T> - return type of the method.
+     * @return the method.
+     */
+    public <T> MethodAccessor<T> getMethod(String method)
+    {
+        return GenericUtil.cast(check(methods.get(method), method));
+    }
+
+    /**
+     * @param name - logical name of a class, field or method.
+     * @return true if it was resolved for this version.
+     */
+    public boolean contains(String name)
+    {
+        return classes.containsKey(name) || fields.containsKey(name) || methods.containsKey(name);
+    }
+
+    /**
+     * @return the logical names that couldn't be resolved for this version, with the reason.
+     */
+    public List<String> getUnresolved()
+    {
+        return unresolved;
+    }
+
+    private <T> T check(T value, String name)
+    {
+        if (value == null) {
+            throw new DeveloperException(name + " is not mapped for server version " + version + ".");
+        }
+
+        return value;
+    }
+
+    /**
+     * Resolves the mappings while the table is built.
+     */
+    private static final class Resolver
+    {
+        private final Configuration mappings;
+        private final String version;
+        private final ClassLoader loader;
+        private final Map<String, Class<?>> resolved = new HashMap<>();
+
+        private final ImmutableMap.Builder<String, Class<?>> classes = ImmutableMap.builder();
+        private final ImmutableMap.Builder<String, FieldAccessor<?>> fields = ImmutableMap.builder();
+        private final ImmutableMap.Builder<String, MethodAccessor<?>> methods = ImmutableMap.builder();
+        private final ImmutableList.Builder<String> unresolved = ImmutableList.builder();
+
+        Resolver(Configuration mappings, String version, ClassLoader loader)
+        {
+            this.mappings = mappings;
+            this.version = version;
+            this.loader = loader;
+        }
+
+        /**
+         * Resolves a logical class and its members, a class that is a
+         * parameter of another is resolved when it is first needed.
+         */
+        Class<?> resolve(String name)
+        {
+            if (resolved.containsKey(name)) {
+                return resolved.get(name);
+            }
+
+            resolved.put(name, null);
+            Object mapping = mappings.get(name);
+            Configuration section = mapping instanceof Configuration ? (Configuration) mapping : new Configuration();
+            String className = versioned(mapping instanceof Configuration ? section.get("class", name) : mapping == null ? name : mapping);
+
+            if (className == null) {
+                unresolved.add(name + ": not mapped for this version");
+                return null;
+            }
+
+            String prefix = section.getBoolean("craftbukkit", false) ? ServerReflectUtil.OBC_PACKAGE : ServerReflectUtil.NMS_PACKAGE;
+            Class<?> clazz;
+
+            try {
+                clazz = Class.forName(prefix + "." + version + "." + className, false, loader);
+            } catch (ClassNotFoundException e) {
+                unresolved.add(name + ": class " + e.getMessage() + " not found");
+                return null;
+            }
+
+            resolved.put(name, clazz);
+            classes.put(name, clazz);
+
+            Configuration fieldSection = section.getSection("fields");
+
+            for (String field : fieldSection.getKeys()) {
+                resolveField(name, clazz, field, fieldSection.get(field));
+            }
+
+            Configuration methodSection = section.getSection("methods");
+
+            for (String method : methodSection.getKeys()) {
+                resolveMethod(name, clazz, method, methodSection.get(method));
+            }
+
+            return clazz;
+        }
+
+        private void resolveField(String className, Class<?> clazz, String logical, Object mapping)
+        {
+            String name = versioned(mapping instanceof Configuration && ((Configuration) mapping).contains("name") ? ((Configuration) mapping).get("name") : mapping);
+
+            if (name == null) {
+                unresolved.add(className + "." + logical + ": not mapped for this version");
+                return;
+            }
+
+            Field field = MemberIndex.of(clazz).getField(name, ReflectUtil.Type.HIERARCHY);
+
+            if (field == null) {
+                unresolved.add(className + "." + logical + ": field " + name + " not found");
+                return;
+            }
+
+            fields.put(className + "." + logical, ReflectUtil.wrapField(field));
+        }
+
+        private void resolveMethod(String className, Class<?> clazz, String logical, Object mapping)
+        {
+            boolean detailed = mapping instanceof Configuration && ((Configuration) mapping).contains("name");
+            String name = versioned(detailed ? ((Configuration) mapping).get("name") : mapping);
+
+            if (name == null) {
+                unresolved.add(className + "." + logical + ": not mapped for this version");
+                return;
+            }
+
+            List<String> parameterNames = detailed ? ((Configuration) mapping).getStringList("parameters") : ImmutableList.of();
+            Class<?>[] parameters = new Class<?>[parameterNames.size()];
+
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = parameter(parameterNames.get(i));
+
+                if (parameters[i] == null) {
+                    unresolved.add(className + "." + logical + ": parameter " + parameterNames.get(i) + " not found");
+                    return;
+                }
+            }
+
+            Method method = MemberIndex.of(clazz).getMethod(name, ReflectUtil.Type.HIERARCHY, parameters);
+
+            if (method == null) {
+                unresolved.add(className + "." + logical + ": method " + name + " not found");
+                return;
+            }
+
+            methods.put(className + "." + logical, ReflectUtil.wrapMethod(method));
+        }
+
+        private Class<?> parameter(String name)
+        {
+            if (name.endsWith("[]")) {
+                Class<?> component = parameter(name.substring(0, name.length() - 2));
+                return component == null ? null : Array.newInstance(component, 0).getClass();
+            }
+
+            if (PRIMITIVES.containsKey(name)) {
+                return PRIMITIVES.get(name);
+            }
+
+            if (mappings.getKeys().contains(name)) {
+                return resolve(name);
+            }
+
+            try {
+                return Class.forName(name, false, loader);
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+        }
+
+        /**
+         * @return the name for this version, or null if it isn't mapped for this version.
+         */
+        private String versioned(Object mapping)
+        {
+            if (!(mapping instanceof Configuration)) {
+                return mapping == null ? null : mapping.toString();
+            }
+
+            Configuration versions = (Configuration) mapping;
+            return versions.getString(version, versions.getString("default", null));
+        }
+    }
+}
@@ -1,26 +1,136 @@
 package io.pucman.server.reflect;
 
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.common.exception.UtilException;
 import io.pucman.common.reflect.ReflectUtil;
+import org.bukkit.Bukkit;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Consider this an extention of ReflectUtil, but for servers specifically.
  *
+ * NMS and CraftBukkit classes live in a package named after the server
+ * version, for example net.minecraft.server.v1_12_R1, the version is
+ * detected once from the running server.
+ *
  * @see ReflectUtil
+ * @see NMSTable
  */
 public class ServerReflectUtil
 {
-    private static final String NMS_PACKAGE = "net.minecraft.server";
+    static final String NMS_PACKAGE = "net.minecraft.server";
     private static final String BUKKIT_PACKAGE = "org.bukkit";
-    private static final String OBC_PACKAGE = BUKKIT_PACKAGE + ".craftbukkit";
+    static final String OBC_PACKAGE = BUKKIT_PACKAGE + ".craftbukkit";
+
+    /**
+     * Mappings bundled with the library.
+     */
+    private static final String MAPPINGS = "/nms-mappings.yml";
+
+    public ServerReflectUtil()
+    {
+        throw new UtilException();
+    }
+
+    /**
+     * Holds the detected version, so it isn't computed before the server is
+     * running. Detecting the version doesn't throw once the server is
+     * running, so this can't leave the class unusable.
+     */
+    private static final class Holder
+    {
+        private static final String VERSION = detectVersion();
+        private static final String NMS_PREFIX = NMS_PACKAGE + "." + VERSION + ".";
+        private static final String OBC_PREFIX = OBC_PACKAGE + "." + VERSION + ".";
+    }
+
+    /**
+     * Table of the bundled mappings, loaded on demand rather than in a
+     * static initializer, so a table that fails to load is tried again on
+     * the next call instead of leaving the class unusable.
+     */
+    private static volatile NMSTable table;
+
+    private static String detectVersion()
+    {
+        checkStarted();
+        String name = Bukkit.getServer().getClass().getPackage().getName();
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    private static NMSTable loadTable()
+    {
+        InputStream is = ServerReflectUtil.class.getResourceAsStream(MAPPINGS);
+
+        if (is == null) {
+            throw new DeveloperException("Mappings " + MAPPINGS + " are missing from the library jar.");
+        }
+
+        try (InputStream in = is) {
+            return NMSTable.load(in);
+        } catch (IOException e) {
+            throw new DeveloperException(e);
+        }
+    }
+
+    /**
+     * @return the version of the running server, as in the package of NMS, for example v1_12_R1.
+     */
+    public static String getVersion()
+    {
+        checkStarted();
+        return Holder.VERSION;
+    }
+
+    /**
+     * Gets the table of the mappings bundled with the library, resolved for
+     * the running server the first time this is called. Members of the
+     * table should be kept in a field rather than looked up on every use.
+     * @see NMSTable
+     * @return the table.
+     */
+    public static NMSTable getTable()
+    {
+        NMSTable table = ServerReflectUtil.table;
+
+        if (table == null) {
+            synchronized (ServerReflectUtil.class) {
+                table = ServerReflectUtil.table;
+
+                if (table == null) {
+                    checkStarted();
+                    table = ServerReflectUtil.table = loadTable();
+                }
+            }
+        }
+
+        return table;
+    }
 
     public static Class<?> getNMSClass(String clazz)
     {
-        return ReflectUtil.getClass(NMS_PACKAGE + "." + clazz);
+        checkStarted();
+        return ReflectUtil.getClass(Holder.NMS_PREFIX + clazz);
     }
 
     public static Class<?> getOBCClass(String clazz)
     {
-        return ReflectUtil.getClass(OBC_PACKAGE + "." + clazz);
+        checkStarted();
+        return ReflectUtil.getClass(Holder.OBC_PREFIX + clazz);
+    }
+
+    /**
+     * Checks the server is running before the holder of the version is
+     * first touched, so calling too early throws a DeveloperException
+     * rather than failing the initialization of the holder for good.
+     */
+    private static void checkStarted()
+    {
+        if (Bukkit.getServer() == null) {
+            throw new DeveloperException("The server version can't be detected before the server has started.");
+        }
     }
 
     public static Class<?> getNMSUtil(String name)
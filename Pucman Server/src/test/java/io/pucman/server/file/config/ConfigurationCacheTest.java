@@ -0,0 +1,82 @@
+package io.pucman.server.file.config;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class ConfigurationCacheTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void cached() throws IOException
+    {
+        File file = write("a:\n  b: 1\n  list: [1, 2]\nempty:\n", 1_500_000_000_123L);
+
+        Configuration parsed = ConfigurationCache.load(file, YamlProvider.class);
+        Assert.assertTrue(ConfigurationCache.getCacheFile(file).exists());
+
+        Configuration cached = ConfigurationCache.load(file, YamlProvider.class);
+        Assert.assertEquals(1, cached.getInt("a.b"));
+        Assert.assertArrayEquals(new int[] {1, 2}, cached.getIntArray("a.list"));
+        Assert.assertEquals(parsed.getKeys(), cached.getKeys());
+        Assert.assertTrue(cached.getKeys().contains("empty"));
+    }
+
+    @Test
+    public void editedInSameSecond() throws IOException
+    {
+        File file = write("value: 1\n", 1_500_000_000_000L);
+        Assert.assertEquals(1, ConfigurationCache.load(file, YamlProvider.class).getInt("value"));
+
+        // Same size and time, as from a file system that keeps whole seconds.
+        write("value: 2\n", 1_500_000_000_000L);
+        Assert.assertEquals(2, ConfigurationCache.load(file, YamlProvider.class).getInt("value"));
+    }
+
+    @Test
+    public void touched() throws IOException
+    {
+        File file = write("value: 1\n", 1_500_000_000_123L);
+        ConfigurationCache.load(file, YamlProvider.class);
+        byte[] before = Files.readAllBytes(ConfigurationCache.getCacheFile(file).toPath());
+
+        Assert.assertTrue(file.setLastModified(1_600_000_000_456L));
+        Assert.assertEquals(1, ConfigurationCache.load(file, YamlProvider.class).getInt("value"));
+
+        // Only the time in the cache changed.
+        byte[] after = Files.readAllBytes(ConfigurationCache.getCacheFile(file).toPath());
+        Assert.assertEquals(before.length, after.length);
+        Assert.assertFalse(Arrays.equals(before, after));
+
+        Assert.assertEquals(1, ConfigurationCache.load(file, YamlProvider.class).getInt("value"));
+        Assert.assertArrayEquals(after, Files.readAllBytes(ConfigurationCache.getCacheFile(file).toPath()));
+    }
+
+    @Test
+    public void rewritten() throws IOException
+    {
+        File file = write("value: 1\n", 1_500_000_000_123L);
+        ConfigurationCache.load(file, YamlProvider.class);
+
+        write("value: 22\n", 1_500_000_001_123L);
+        Assert.assertEquals(22, ConfigurationCache.load(file, YamlProvider.class).getInt("value"));
+        Assert.assertEquals(22, ConfigurationCache.load(file, YamlProvider.class).getInt("value"));
+    }
+
+    private File write(String content, long modified) throws IOException
+    {
+        File file = new File(folder.getRoot(), "config.yml");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(file.setLastModified(modified));
+        return file;
+    }
+}
@@ -0,0 +1,228 @@
+package io.pucman.server.file.config;
+
+import io.pucman.common.exception.DeveloperException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ConfigurationTest
+{
+    private final ConfigurationProvider provider = ConfigurationProvider.getProvider(YamlProvider.class);
+
+    @Test
+    public void nestedPaths()
+    {
+        Configuration config = new Configuration();
+        config.set("a.b.c", 1);
+        config.set("a.d", "text");
+
+        Assert.assertEquals(1, config.getInt("a.b.c"));
+        Assert.assertEquals("text", config.getString("a.d"));
+        Assert.assertEquals(1, config.getSection("a").getInt("b.c"));
+        Assert.assertEquals(1, config.getSection("a.b").getInt("c"));
+
+        // Setting through a section updates the paths of the configuration it is in.
+        config.getSection("a.b").set("e", 2);
+        Assert.assertEquals(2, config.getInt("a.b.e"));
+
+        config.set("a.b", null);
+        Assert.assertNull(config.get("a.b.c"));
+        Assert.assertNull(config.get("a.b"));
+        Assert.assertEquals("text", config.getString("a.d"));
+    }
+
+    @Test
+    public void reparenting()
+    {
+        Configuration config = new Configuration();
+        config.set("a.z", 1);
+        config.set("a.list", Arrays.asList(1, 2));
+        Assert.assertArrayEquals(new int[] {1, 2}, config.getIntArray("a.list"));
+
+        Configuration section = config.getSection("a");
+        config.set("copy", section);
+
+        Assert.assertEquals(1, config.get("a.z"));
+        Assert.assertEquals(1, config.get("copy.z"));
+
+        // The section is in both places, so setting it through either is seen through both.
+        section.set("list", Arrays.asList(3));
+        Assert.assertArrayEquals(new int[] {3}, config.getIntArray("a.list"));
+        Assert.assertArrayEquals(new int[] {3}, config.getIntArray("copy.list"));
+
+        config.getSection("copy").set("y", 2);
+        Assert.assertEquals(2, config.get("a.y"));
+
+        // Taken out of a, the section is still in copy.
+        config.set("a", null);
+        Assert.assertNull(config.get("a.z"));
+        Assert.assertEquals(1, config.get("copy.z"));
+
+        // Taken out of the configuration, the section is indexed on its own.
+        config.set("copy", null);
+        Assert.assertNull(config.get("copy.z"));
+        Assert.assertEquals(1, section.get("z"));
+
+        Configuration other = new Configuration();
+        other.set("moved", section);
+        Assert.assertEquals(2, other.get("moved.y"));
+        Assert.assertNull(config.get("moved.y"));
+    }
+
+    @Test
+    public void arraysAreCopies()
+    {
+        Configuration config = new Configuration();
+        config.set("a.l", Arrays.asList(1, 2));
+        config.set("a.b", Arrays.asList(true, false));
+        Configuration snapshot = config.freeze();
+
+        config.getIntArray("a.l")[0] = 99;
+        snapshot.getIntArray("a.l")[0] = 99;
+        snapshot.getBooleanArray("a.b")[0] = false;
+
+        Assert.assertArrayEquals(new int[] {1, 2}, config.getIntArray("a.l"));
+        Assert.assertArrayEquals(new int[] {1, 2}, snapshot.getIntArray("a.l"));
+        Assert.assertArrayEquals(new boolean[] {true, false}, snapshot.getBooleanArray("a.b"));
+    }
+
+    @Test
+    public void snapshotIsolated()
+    {
+        List<Object> list = new ArrayList<>(Arrays.asList(1, 2));
+        Configuration config = new Configuration();
+        config.set("a.b", 1);
+        config.set("a.list", list);
+
+        Configuration snapshot = config.freeze();
+        Assert.assertTrue(snapshot.isFrozen());
+        Assert.assertFalse(config.isFrozen());
+        Assert.assertSame(snapshot, snapshot.freeze());
+
+        config.set("a.b", 2);
+        config.set("a.c", 3);
+        config.set("d", 4);
+        list.add(3);
+
+        Assert.assertEquals(1, snapshot.getInt("a.b"));
+        Assert.assertFalse(snapshot.contains("a.c"));
+        Assert.assertFalse(snapshot.contains("d"));
+        Assert.assertEquals(Arrays.asList(1, 2), snapshot.getList("a.list"));
+        Assert.assertEquals(2, config.getInt("a.b"));
+    }
+
+    @Test
+    public void snapshotCannotBeSet()
+    {
+        Configuration config = new Configuration();
+        config.set("a.b", 1);
+        Configuration snapshot = config.freeze();
+
+        assertThrows(() -> snapshot.set("a.b", 2));
+        assertThrows(() -> snapshot.getSection("a").set("b", 2));
+        assertThrows(() -> snapshot.getSection("missing").set("b", 2));
+        Assert.assertEquals(1, snapshot.getInt("a.b"));
+    }
+
+    @Test
+    public void snapshotMissingSection()
+    {
+        Configuration snapshot = new Configuration().freeze();
+        Configuration missing = snapshot.getSection("missing");
+
+        // Handed out, but not added to the snapshot.
+        Assert.assertTrue(missing.isFrozen());
+        Assert.assertTrue(missing.getKeys().isEmpty());
+        Assert.assertFalse(snapshot.contains("missing"));
+        Assert.assertTrue(snapshot.getKeys().isEmpty());
+    }
+
+    @Test
+    public void snapshotDefaults()
+    {
+        Configuration defaults = new Configuration();
+        defaults.set("a.b", 1);
+        defaults.set("c", "default");
+        Configuration config = new Configuration(defaults);
+        config.set("c", "set");
+
+        Configuration snapshot = config.freeze();
+        defaults.set("a.b", 2);
+        defaults.set("e", 5);
+
+        Assert.assertEquals(1, snapshot.getInt("a.b"));
+        Assert.assertEquals(1, snapshot.getSection("a").getInt("b"));
+        Assert.assertTrue(snapshot.getSection("a").isFrozen());
+        Assert.assertEquals("set", snapshot.getString("c"));
+        Assert.assertFalse(snapshot.contains("e"));
+        Assert.assertEquals(2, config.getInt("a.b"));
+    }
+
+    @Test
+    public void nullValues()
+    {
+        Configuration config = provider.load("empty:\nvalue: 1\nsection:\n  nested:\n");
+
+        Assert.assertEquals(Arrays.asList("empty", "value", "section"), Arrays.asList(config.getKeys().toArray()));
+        Assert.assertNull(config.get("empty"));
+        Assert.assertFalse(config.contains("empty"));
+        Assert.assertEquals(Arrays.asList("nested"), Arrays.asList(config.getSection("section").getKeys().toArray()));
+
+        Configuration saved = provider.load(save(config));
+        Assert.assertTrue(saved.getKeys().contains("empty"));
+        Assert.assertTrue(saved.getSection("section").getKeys().contains("nested"));
+
+        config.set("empty", null);
+        Assert.assertFalse(config.getKeys().contains("empty"));
+    }
+
+    @Test
+    public void dottedKeys()
+    {
+        Configuration config = provider.load("\"a.b\": 1\na:\n  b: 2\n\"c.d\":\n  e: 3\n");
+
+        Assert.assertEquals(2, config.getInt("a.b"));
+        Assert.assertTrue(config.getKeys().contains("a.b"));
+        Assert.assertNull(config.get("c.d.e"));
+
+        config.set("a.b", 4);
+        Assert.assertEquals(4, config.getInt("a.b"));
+        Assert.assertEquals(1, config.self.get("a.b"));
+        Assert.assertEquals(3, ((Configuration) config.self.get("c.d")).getInt("e"));
+    }
+
+    @Test
+    public void saveRoundTrip()
+    {
+        Configuration config = new Configuration();
+        config.set("a.b.c", 1);
+        config.set("a.list", Arrays.asList("x", "y"));
+        config.set("flag", true);
+
+        Configuration loaded = provider.load(save(config));
+        Assert.assertEquals(1, loaded.getInt("a.b.c"));
+        Assert.assertEquals(Arrays.asList("x", "y"), loaded.getStringList("a.list"));
+        Assert.assertTrue(loaded.getBoolean("flag"));
+        Assert.assertEquals(save(config), save(loaded));
+    }
+
+    private static void assertThrows(Runnable runnable)
+    {
+        try {
+            runnable.run();
+            Assert.fail("Set a snapshot.");
+        } catch (DeveloperException ignore) {
+        }
+    }
+
+    private String save(Configuration config)
+    {
+        StringWriter writer = new StringWriter();
+        provider.save(config, writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package io.pucman.server.file.config;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class YamlProviderTest
+{
+    private static final String DOCUMENT = String.join("\n",
+            "base: &base",
+            "  name: base",
+            "  size: 1",
+            "  tags: [a, b]",
+            "extended:",
+            "  <<: *base",
+            "  size: 2",
+            "merged:",
+            "  <<: [*base, {extra: true}]",
+            "alias: *base",
+            "empty:",
+            "section:",
+            "  nothing: ~",
+            "  deep:",
+            "    list:",
+            "      - [1, 2]",
+            "      - {key: value, other: [x, y]}",
+            "      -",
+            "scalar: &scalar 3",
+            "again: *scalar",
+            "");
+
+    @Test
+    public void sameAsMaps()
+    {
+        Configuration loaded = ConfigurationProvider.getProvider(YamlProvider.class).load(DOCUMENT);
+        Configuration maps = new Configuration((Map<?, ?>) new Yaml().load(DOCUMENT), null);
+
+        Assert.assertEquals(plain(maps), plain(loaded));
+        Assert.assertEquals(2, loaded.getInt("extended.size"));
+        Assert.assertEquals("base", loaded.getString("merged.name"));
+        Assert.assertTrue(loaded.getBoolean("merged.extra"));
+        Assert.assertEquals("base", loaded.getSection("alias").getString("name"));
+        Assert.assertTrue(loaded.getKeys().contains("empty"));
+        Assert.assertTrue(loaded.getSection("section").getKeys().contains("nothing"));
+        Assert.assertEquals(3, loaded.getList("section.deep.list").size());
+    }
+
+    private static Map<String, Object> plain(Configuration config)
+    {
+        Map<String, Object> map = new LinkedHashMap<>();
+        config.self.forEach((key, value) -> map.put(key, (value instanceof Configuration) ? plain((Configuration) value) : value));
+        return map;
+    }
+}
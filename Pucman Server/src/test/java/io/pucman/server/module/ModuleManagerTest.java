@@ -0,0 +1,272 @@
+package io.pucman.server.module;
+
+import io.pucman.common.profile.LifecycleProfiler;
+import io.pucman.module.Dependencies;
+import io.pucman.server.PLibrary;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+public class ModuleManagerTest
+{
+    /**
+     * Stands in for the main thread of the server.
+     */
+    private static final ExecutorService MAIN = Executors.newSingleThreadExecutor();
+    private static Thread mainThread;
+
+    private static final List<String> ENABLED = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+    private static final AtomicInteger UNLOADED = new AtomicInteger();
+    private static final AtomicInteger DISABLED = new AtomicInteger();
+    private static volatile CountDownLatch loaded = new CountDownLatch(0);
+    private static volatile CountDownLatch unloaded = new CountDownLatch(0);
+
+    private ModuleManager manager;
+
+    @BeforeClass
+    public static void setUpServer() throws Exception
+    {
+        mainThread = MAIN.submit(Thread::currentThread).get();
+
+        BukkitScheduler scheduler = Mockito.mock(BukkitScheduler.class);
+        Mockito.when(scheduler.runTask(Mockito.any(Plugin.class), Mockito.any(Runnable.class))).thenAnswer(invocation -> {
+            MAIN.execute((Runnable) invocation.getArguments()[1]);
+            return null;
+        });
+
+        // The server is set once for every test class, so the one set by another is stubbed too.
+        Server server = Bukkit.getServer() != null ? Bukkit.getServer() : Mockito.mock(Server.class);
+        Mockito.when(server.getLogger()).thenReturn(Logger.getAnonymousLogger());
+        Mockito.when(server.isPrimaryThread()).thenAnswer(invocation -> Thread.currentThread() == mainThread);
+        Mockito.when(server.getScheduler()).thenReturn(scheduler);
+
+        if (Bukkit.getServer() == null) {
+            Bukkit.setServer(server);
+        }
+    }
+
+    @Before
+    public void setUp()
+    {
+        PLibrary library = Mockito.mock(PLibrary.class);
+        Mockito.when(library.getLogger()).thenReturn(Logger.getAnonymousLogger());
+        Mockito.when(library.getProfiler()).thenReturn(new LifecycleProfiler());
+        manager = new ModuleManager(library);
+        manager.onEnable();
+
+        ENABLED.clear();
+        CONSTRUCTED.set(0);
+        UNLOADED.set(0);
+        DISABLED.set(0);
+        loaded = new CountDownLatch(0);
+        unloaded = new CountDownLatch(0);
+    }
+
+    @After
+    public void tearDown()
+    {
+        manager.onDisable();
+    }
+
+    @Test
+    public void dependencyOrder() throws Exception
+    {
+        JavaPlugin plugin = plugin();
+        manager.register(plugin, Third.class, First.class, Second.class);
+        manager.boot(plugin).get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(Arrays.asList("First", "Second", "Third"), ENABLED);
+        Assert.assertNotNull(manager.get(Third.class));
+        Assert.assertEquals(2, manager.dependedBy(First.class) + manager.dependedBy(Second.class));
+    }
+
+    @Test
+    public void cancelReleasesLoaded() throws Exception
+    {
+        JavaPlugin plugin = plugin();
+        manager.register(plugin, Second.class);
+        loaded = new CountDownLatch(2);
+        unloaded = new CountDownLatch(2);
+
+        CountDownLatch main = hold();
+        CompletableFuture<Void> boot = manager.boot(plugin);
+        Assert.assertTrue(loaded.await(10, TimeUnit.SECONDS));
+
+        manager.shutdown(plugin);
+        main.countDown();
+        boot.get(10, TimeUnit.SECONDS);
+
+        // A module still finishing its load when the boot was cancelled is released on the pool.
+        Assert.assertTrue(unloaded.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(2, UNLOADED.get());
+        Assert.assertTrue(ENABLED.isEmpty());
+        Assert.assertNull(manager.get(First.class));
+        Assert.assertNull(manager.get(Second.class));
+    }
+
+    @Test
+    public void sharedDependency() throws Exception
+    {
+        JavaPlugin one = plugin();
+        JavaPlugin two = plugin();
+        manager.register(one, SharedUser.class);
+        manager.register(two, OtherSharedUser.class);
+        loaded = new CountDownLatch(2);
+
+        // Both boots load their modules before either can enable Shared, so the second boot asks for it while it isn't enabled.
+        CountDownLatch main = hold();
+        CompletableFuture<Void> first = manager.boot(one);
+        CompletableFuture<Void> second = manager.boot(two);
+        Assert.assertTrue(loaded.await(10, TimeUnit.SECONDS));
+        main.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1, CONSTRUCTED.get());
+        Assert.assertEquals(1, ENABLED.stream().filter("Shared"::equals).count());
+        Assert.assertEquals(2, manager.dependedBy(Shared.class));
+
+        manager.shutdown(one);
+        manager.shutdown(two);
+        Assert.assertEquals(3, DISABLED.get());
+        Assert.assertEquals(0, UNLOADED.get());
+        Assert.assertNull(manager.get(Shared.class));
+    }
+
+    /**
+     * Holds up the main thread, so modules are loaded but can't be enabled.
+     * @return the latch to count down to let the main thread go.
+     */
+    private static CountDownLatch hold()
+    {
+        CountDownLatch main = new CountDownLatch(1);
+        MAIN.execute(() -> {
+            try {
+                main.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        return main;
+    }
+
+    private static JavaPlugin plugin()
+    {
+        JavaPlugin plugin = Mockito.mock(JavaPlugin.class);
+        Mockito.when(plugin.getLogger()).thenReturn(Logger.getAnonymousLogger());
+        return plugin;
+    }
+
+    private static class TestModule extends BaseModule<JavaPlugin>
+    {
+        private TestModule(JavaPlugin plugin)
+        {
+            super(plugin, "", "1.0", false);
+        }
+
+        @Override
+        public void load()
+        {
+            loaded.countDown();
+        }
+
+        @Override
+        public void enable()
+        {
+            ENABLED.add(getClass().getSimpleName());
+        }
+
+        @Override
+        public void disable()
+        {
+            DISABLED.incrementAndGet();
+        }
+
+        @Override
+        public void unload()
+        {
+            UNLOADED.incrementAndGet();
+            unloaded.countDown();
+        }
+    }
+
+    private static class First extends TestModule
+    {
+        private First(JavaPlugin plugin)
+        {
+            super(plugin);
+        }
+    }
+
+    @Dependencies(First.class)
+    private static class Second extends TestModule
+    {
+        private Second(JavaPlugin plugin)
+        {
+            super(plugin);
+        }
+    }
+
+    @Dependencies(Second.class)
+    private static class Third extends TestModule
+    {
+        private Third(JavaPlugin plugin)
+        {
+            super(plugin);
+        }
+    }
+
+    private static class Shared extends TestModule
+    {
+        private Shared(JavaPlugin plugin)
+        {
+            super(plugin);
+            CONSTRUCTED.incrementAndGet();
+        }
+
+        @Override
+        public void load()
+        {
+        }
+    }
+
+    @Dependencies(Shared.class)
+    private static class SharedUser extends TestModule
+    {
+        private SharedUser(JavaPlugin plugin)
+        {
+            super(plugin);
+        }
+    }
+
+    @Dependencies(Shared.class)
+    private static class OtherSharedUser extends TestModule
+    {
+        private OtherSharedUser(JavaPlugin plugin)
+        {
+            super(plugin);
+        }
+    }
+}
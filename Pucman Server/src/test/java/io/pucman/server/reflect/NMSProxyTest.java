@@ -0,0 +1,99 @@
+package io.pucman.server.reflect;
+
+import io.pucman.common.exception.DeveloperException;
+import net.minecraft.server.v1_0_R1.EntityPlayer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NMSProxyTest
+{
+    private final NMSTable table = NMSTableTest.load("v1_0_R1");
+
+    @Test
+    public void method()
+    {
+        Player player = NMSProxy.of(Player.class, table).wrap(new EntityPlayer(7, "first"));
+
+        Assert.assertEquals(7, player.getId());
+        Assert.assertEquals("first", player.rename("second"));
+        Assert.assertEquals("second", player.rename("third"));
+    }
+
+    @Test
+    public void field()
+    {
+        EntityPlayer handle = new EntityPlayer(7, "first");
+        handle.ping = 30;
+        Player player = NMSProxy.of(Player.class, table).wrap(handle);
+
+        Assert.assertEquals(30, player.getPing());
+
+        player.setPing(45);
+        Assert.assertEquals(45, handle.ping);
+        Assert.assertEquals(45, player.getPing());
+    }
+
+    @Test
+    public void object()
+    {
+        EntityPlayer handle = new EntityPlayer(7, "first");
+        NMSProxy<Player> proxy = NMSProxy.of(Player.class, table);
+
+        Assert.assertSame(handle, proxy.wrap(handle).getHandle());
+        Assert.assertEquals(proxy.wrap(handle), proxy.wrap(handle));
+        Assert.assertNull(proxy.wrap(null));
+    }
+
+    @Test
+    public void missingMember()
+    {
+        assertThrows(() -> NMSProxy.of(Unmapped.class, table));
+        assertThrows(() -> NMSProxy.of(WrongArity.class, table));
+        assertThrows(() -> NMSProxy.of(NotAnnotated.class, table));
+    }
+
+    private static void assertThrows(Runnable runnable)
+    {
+        try {
+            runnable.run();
+            Assert.fail("Made a proxy with a method that isn't bound.");
+        } catch (DeveloperException ignore) {
+        }
+    }
+
+    @NMSClass("EntityPlayer")
+    interface Player extends NMSObject
+    {
+        @NMSMethod("getId")
+        int getId();
+
+        @NMSMethod("rename")
+        String rename(String name);
+
+        @NMSField("ping")
+        int getPing();
+
+        @NMSField("ping")
+        void setPing(int ping);
+    }
+
+    @NMSClass("EntityPlayer")
+    interface Unmapped
+    {
+        @NMSField("speed")
+        int getSpeed();
+    }
+
+    @NMSClass("EntityPlayer")
+    interface WrongArity
+    {
+        @NMSMethod("rename")
+        String rename();
+    }
+
+    @NMSClass("EntityPlayer")
+    interface NotAnnotated
+    {
+        int getPing();
+    }
+}
@@ -0,0 +1,152 @@
+package io.pucman.server.reflect;
+
+import io.pucman.common.exception.DeveloperException;
+import io.pucman.server.file.config.Configuration;
+import io.pucman.server.file.config.ConfigurationProvider;
+import io.pucman.server.file.config.YamlProvider;
+import net.minecraft.server.v1_0_R1.Entity;
+import net.minecraft.server.v1_0_R1.EntityPlayer;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+public class NMSTableTest
+{
+    static final String MAPPINGS = String.join("\n",
+            "Entity:",
+            "  methods:",
+            "    getId: getId",
+            "EntityPlayer:",
+            "  fields:",
+            "    ping:",
+            "      v1_0_R1: ping",
+            "      default: latency",
+            "    name: name",
+            "    speed: speed",
+            "  methods:",
+            "    getId: getId",
+            "    rename:",
+            "      name: rename",
+            "      parameters: [java.lang.String]",
+            "Player:",
+            "  class:",
+            "    v1_0_R1: EntityPlayer",
+            "Missing: Missing",
+            "");
+
+    static NMSTable load(String version)
+    {
+        Configuration mappings = ConfigurationProvider.getProvider(YamlProvider.class).load(MAPPINGS);
+        return NMSTable.load(mappings, version, NMSTableTest.class.getClassLoader());
+    }
+
+    @Test
+    public void versionedPrefix()
+    {
+        NMSTable table = load("v1_0_R1");
+        EntityPlayer player = new EntityPlayer(7, "first");
+        player.ping = 30;
+
+        Assert.assertEquals("v1_0_R1", table.getVersion());
+        Assert.assertSame(Entity.class, table.getNMSClass("Entity"));
+        Assert.assertSame(EntityPlayer.class, table.getNMSClass("EntityPlayer"));
+        Assert.assertSame(EntityPlayer.class, table.getNMSClass("Player"));
+
+        // Members are looked up in the superclasses too.
+        Assert.assertEquals(7, (int) table.<Integer>getMethod("EntityPlayer.getId").call0(player));
+        Assert.assertEquals(30, table.getField("EntityPlayer.ping").getInt(player));
+        Assert.assertEquals("first", table.getMethod("EntityPlayer.rename").call1(player, "second"));
+        Assert.assertEquals("second", table.getField("EntityPlayer.name").get(player));
+    }
+
+    @Test
+    public void missingMapping()
+    {
+        NMSTable table = load("v1_0_R1");
+        List<String> unresolved = table.getUnresolved();
+
+        Assert.assertFalse(table.contains("Missing"));
+        Assert.assertFalse(table.contains("EntityPlayer.speed"));
+        Assert.assertTrue(unresolved.contains("EntityPlayer.speed: field speed not found"));
+        Assert.assertTrue(unresolved.contains("Missing: class net.minecraft.server.v1_0_R1.Missing not found"));
+        Assert.assertEquals(2, unresolved.size());
+
+        assertThrows(() -> table.getNMSClass("Missing"));
+        assertThrows(() -> table.getField("EntityPlayer.speed"));
+        assertThrows(() -> table.getMethod("EntityPlayer.unknown"));
+    }
+
+    @Test
+    public void otherVersion()
+    {
+        NMSTable table = load("v1_1_R1");
+
+        // Nothing is in the package of v1_1_R1, and Player isn't mapped for it at all.
+        Assert.assertFalse(table.contains("Entity"));
+        Assert.assertFalse(table.contains("EntityPlayer.ping"));
+        Assert.assertTrue(table.getUnresolved().contains("Player: not mapped for this version"));
+        Assert.assertTrue(table.getUnresolved().contains("EntityPlayer: class net.minecraft.server.v1_1_R1.EntityPlayer not found"));
+        assertThrows(() -> table.getNMSClass("Player"));
+    }
+
+    @Test
+    public void lazyLoad() throws Exception
+    {
+        if (Bukkit.getServer() == null) {
+            Server server = Mockito.mock(Server.class);
+            Mockito.when(server.getLogger()).thenReturn(Logger.getAnonymousLogger());
+            Bukkit.setServer(server);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<NMSTable> tables = new CopyOnWriteArrayList<>();
+
+        try {
+            for (int i = 0; i < 4; i++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        tables.add(ServerReflectUtil.getTable());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            start.countDown();
+            pool.shutdown();
+            Assert.assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // The bundled mappings are loaded once, for the version of the running server.
+        Assert.assertEquals(4, tables.size());
+
+        for (NMSTable table : tables) {
+            Assert.assertSame(ServerReflectUtil.getTable(), table);
+        }
+
+        Assert.assertEquals(ServerReflectUtil.getVersion(), ServerReflectUtil.getTable().getVersion());
+    }
+
+    private static void assertThrows(Runnable runnable)
+    {
+        try {
+            runnable.run();
+            Assert.fail("Got a member that isn't mapped.");
+        } catch (DeveloperException ignore) {
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package net.minecraft.server.v1_0_R1;
+
+/**
+ * Stands in for an NMS class of server version v1_0_R1 in the tests.
+ */
+public class Entity
+{
+    private final int id;
+
+    public Entity(int id)
+    {
+        this.id = id;
+    }
+
+    public int getId()
+    {
+        return id;
+    }
+}
@@ -0,0 +1,23 @@
+package net.minecraft.server.v1_0_R1;
+
+/**
+ * Stands in for an NMS class of server version v1_0_R1 in the tests.
+ */
+public class EntityPlayer extends Entity
+{
+    public int ping;
+    private String name;
+
+    public EntityPlayer(int id, String name)
+    {
+        super(id);
+        this.name = name;
+    }
+
+    public String rename(String name)
+    {
+        String previous = this.name;
+        this.name = name;
+        return previous;
+    }
+}